@@ -7,6 +7,7 @@ import java.util.ArrayList;
  * makes request for ingredients that need to be restocked in requests.txt file.
  */
 public class Cook extends Employee implements Serializable {
+  private volatile long seenUpTo; // every order up to this id has been seen or has left the kitchen
 
   /**
    * Constructor for Cook class. Each cook has their own id and what type of cook they are. Cook has
@@ -20,6 +21,7 @@ public class Cook extends Employee implements Serializable {
     super(id, kitchen);
     setType(type);
     setJob("Cook");
+    this.seenUpTo = 0;
   }
 
   /**
@@ -30,38 +32,48 @@ public class Cook extends Employee implements Serializable {
    */
   public String prepFood(Order order) {
     StringBuilder out = new StringBuilder();
-    if (order != null && order.hasSeen(getId())) {
-      for (Food food : order.getFoods()) {
-        if (food.getReady()) {
-          String status = food.getName() + " is already prepared";
-          out.append(status);
-          out.append("\n");
-          RestaurantLog.entry("Warning", status + String.format("%n"));
+    if (order != null && hasSeen(order)) {
+      synchronized (order) { // so a Server cannot cancel food while it is prepared
+        for (Food food : order.getFoods()) {
+          if (food.getReady()) {
+            String status = food.getName() + " is already prepared";
+            out.append(status);
+            out.append("\n");
+            RestaurantLog.entry("Warning", status + String.format("%n"));
+          }
+          else if (getType().equals(food.getType()) && !food.getReady()) {
+            food.setReady();
+            RestaurantLog.event(EventLog.Kind.FOOD_PREPARED, getId(), order.getTableNum(),
+                    order.getId(), food.getName(), food.getPrice());
+            String status = toString() + " prepared " + food.getName() + " from Order: " + order.getId();
+            out.append(status);
+            out.append("\n");
+            RestaurantLog.entry("Fine", status + String.format("%n"));
+          } else if (!getType().equals(food.getType())) {
+            String status = toString() + " of type " + getType() + " can't prepare " + food.getName()
+                    + " of type " + food.getType();
+            out.append(status);
+            out.append("\n");
+            RestaurantLog.entry("Warning", status + String.format("%n"));
+          }
         }
-        else if (getType().equals(food.getType()) && !food.getReady()) {
-          food.setReady();
-          String status = toString() + " prepared " + food.getName() + " from Order: " + order.getId();
+        getKitchen().dispatch(order);
+        releaseOrder(order);
+        if (orderFilledCheck(order)) {
+          order.setFilled();
+          getKitchen().publish(order);
+          RestaurantLog.event(EventLog.Kind.ORDER_FILLED, getId(), order.getTableNum(),
+                  order.getId(), null, order.getBill());
+          String status = "Order: " + order.getId() + " is ready.";
           out.append(status);
           out.append("\n");
-          RestaurantLog.entry("Fine", status + String.format("%n"));
-        } else if (!getType().equals(food.getType())) {
-          String status = toString() + " of type " + getType() + " can't prepare " + food.getName()
-                  + " of type " + food.getType();
+
+        } else {
+          String status = "Order: " + order.getId() + " is not ready";
           out.append(status);
           out.append("\n");
-          RestaurantLog.entry("Warning", status + String.format("%n"));
         }
-      }
-      if (orderFilledCheck(order)) {
-        order.setFilled();
-        String status = "Order: " + order.getId() + " is ready.";
-        out.append(status);
-        out.append("\n");
-
-      } else {
-        String status = "Order: " + order.getId() + " is not ready";
-        out.append(status);
-        out.append("\n");
+        getKitchen().getJournal().foodPrepared(this, order);
       }
     } else {
       out.append("Cook cannot prepare order that has not been seen");
@@ -87,29 +99,64 @@ public class Cook extends Employee implements Serializable {
   }
 
   /**
-   * A method to check if the Cook has seen the order.
+   * A method for the Cook to see the order. Orders must be seen in the order they were placed, so
+   * the Cook can only see this order once every earlier order still in the kitchen has been seen.
    *
    * @param order the order to check
    */
-  String hasSeenOrder(Order order) {
-    ArrayList<Order> prevOrder = getKitchen().getPrevOrders(order.getId());
-    int totalOrder = prevOrder.size();
-    int i = 0;
-    while(i< totalOrder) {
-      Order curOrder = prevOrder.get(i);
-      if (!curOrder.hasSeen(this.getId())) {
-        String warning = "Can't set this order to seen. Order" + curOrder.getId() + " was not seen by " + toString();
+  synchronized String hasSeenOrder(Order order) {
+    if (!hasSeen(order)) {
+      // Orders that have left the kitchen no longer need to be seen
+      long next = seenUpTo + 1;
+      while (next < order.getId() && !getKitchen().checkOrderId(next)) {
+        next += 1;
+      }
+      seenUpTo = next - 1;
+      if (next < order.getId()) {
+        String warning = "Can't set this order to seen. Order" + next + " was not seen by " + toString();
         RestaurantLog.entry("Warning", warning + String.format("%n"));
         return warning;
       }
-      i = i + 1;
+      seenUpTo = order.getId();
+      order.setSeen();
+      getKitchen().getJournal().orderSeen(this, order);
+      getKitchen().publish(order);
+      RestaurantLog.event(EventLog.Kind.ORDER_SEEN, getId(), order.getTableNum(), order.getId(),
+              null, 0);
     }
-    order.setHasSeen(getId());
     String sees = this.toString() + " has seen Order: " + order.getId();
     RestaurantLog.entry("Fine", sees + String.format("%n"));
     return sees;
   }
 
+  /**
+   * Checks if this Cook has seen the order.
+   *
+   * @param order the order to check
+   * @return true if this Cook has seen the order
+   */
+  boolean hasSeen(Order order) {
+    return order.getId() <= seenUpTo;
+  }
+
+  /**
+   * Returns the id up to which this Cook has seen every order. Used to save the restaurant.
+   *
+   * @return the seen watermark
+   */
+  long getSeenUpTo() {
+    return seenUpTo;
+  }
+
+  /**
+   * Restores the id up to which this Cook has seen every order.
+   *
+   * @param seenUpTo the saved watermark
+   */
+  void setSeenUpTo(long seenUpTo) {
+    this.seenUpTo = seenUpTo;
+  }
+
   /**
    * String representation of Cook
    * @return the String Representation of Cook
@@ -119,16 +166,32 @@ public class Cook extends Employee implements Serializable {
   }
 
   /**
-   * Returns the list of Orders to prepare
+   * Returns the list of Orders to prepare, which are the Orders in this Cook's station that still
+   * have unready food of this Cook's type.
    * @return list of orders
    */
   public ArrayList<Order> getOrdersToPrepare() {
-    ArrayList<Order> ordersToPrepare = new ArrayList<>();
-    for (Order order: getKitchen().getOrderList()) {
-      if (order.containsType(getType())) {
-        ordersToPrepare.add(order);
-      }
-    }
-    return ordersToPrepare;
+    return getKitchen().getStation(getType()).getOrders();
+  }
+
+  /**
+   * Waits until there is an Order with food for this Cook to prepare. The Order is handed to this
+   * Cook alone: other Cooks of the same type do not get it until this Cook prepares it, or hands it
+   * back with releaseOrder.
+   * @param timeoutMillis the longest time to wait in milliseconds, or 0 to wait without limit
+   * @return the oldest Order to prepare, or null if none arrived in time
+   * @throws InterruptedException if the waiting thread is interrupted
+   */
+  public Order awaitOrderToPrepare(long timeoutMillis) throws InterruptedException {
+    return getKitchen().getStation(getType()).await(timeoutMillis);
+  }
+
+  /**
+   * Hands back an Order this Cook got from awaitOrderToPrepare but will not prepare, so another
+   * Cook can get it.
+   * @param order the order to hand back
+   */
+  public void releaseOrder(Order order) {
+    getKitchen().getStation(getType()).release(order);
   }
-}
\ No newline at end of file
+}
@@ -48,11 +48,11 @@ public class CookScene {
             seeButton.setStyle("-fx-font: 15 arial;");
             seeButton.setOnAction(e -> {
                 ScenesHelper.getMessageScene(cook.hasSeenOrder(order));
-                if (order.hasSeen(cook.getId())){
+                if (cook.hasSeen(order)){
                     seeButton.setDisable(true);
                 }
             });
-            if (order.hasSeen(cook.getId())) {
+            if (cook.hasSeen(order)) {
                 seeButton.setDisable(true);
             }
 
@@ -51,12 +51,21 @@ public abstract class Employee implements Serializable {
   public boolean setPassword(String oldPass, String newPass){
     if (oldPass.equals(this.password)){
       this.password = newPass;
+      kitchen.getJournal().employeeUpdated(this);
       return true;
     } else {
       return false;
     }
   }
 
+  /**
+   * Get the password. Only used to save the restaurant.
+   * @return the password
+   */
+  String getPassword() {
+    return password;
+  }
+
   /**
    * Return true if entered the correct password
    * @param password password
@@ -87,6 +96,7 @@ public abstract class Employee implements Serializable {
     } else {
       attendance = "Present";
     }
+    kitchen.getJournal().employeeUpdated(this);
   }
 
   /**
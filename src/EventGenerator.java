@@ -0,0 +1,444 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Generates Events.txt scripts of a busy restaurant for EventReplay, to find out how the Kitchen,
+ * Tables and Orders hold up as the restaurant grows. Parties arrive at free tables, order food on
+ * one or more bills, sometimes change their minds, and send food back; Cooks of each station see
+ * and prepare the orders, Servers deliver and confirm them and clear the tables, and a Manager
+ * restocks ingredients before they run out.
+ *
+ * <p>The generator keeps its own account of the tables, orders, Cooks and inventory, following the
+ * same rules as the classes it drives, so the restaurant turns none of its lines down, and
+ * EventReplay counts none of them as rejected. The log still has warnings: a Cook cooking an order
+ * goes through all of its food, and warns about each food of another station and each one another
+ * Cook has already prepared, about one line in ten in a script with the default settings. The
+ * script is written as it is generated, so its length is not limited by memory, and the same seed
+ * always gives the same script.
+ *
+ * <p>Run it from the command line with any of these settings, given as name=value:
+ * <ul>
+ *   <li>events: the number of lines to write, 1000000 by default
+ *   <li>tables: the number of tables, 20 by default
+ *   <li>servers: the number of Servers, 5 by default
+ *   <li>cooks: the number of Cooks at each station, 2 by default
+ *   <li>menu: the number of foods on the menu, 4 by default
+ *   <li>arrival: the chance, from 0 to 1, that a party arrives at each step while a table is free,
+ *       0.3 by default; the higher it is, the more tables are busy at once
+ *   <li>seed: the seed of the random numbers, 1 by default
+ *   <li>out: the directory to write Events.txt and FoodItems.txt to, generated by default
+ * </ul>
+ * The menu is made from the foods in FoodItems.txt, repeated under new names if more are asked
+ * for, and is written next to the script. Replay the script from that directory.
+ */
+public class EventGenerator {
+  private static final int RESTOCK_QUANTITY = 500;
+  private static final double DELETE_RATE = 0.03;
+  private static final double MODIFY_RATE = 0.1;
+  private static final double CANCEL_RATE = 0.02;
+  private static final double RETURN_RATE = 0.03;
+  private static final String[] REASONS = {"Cold", "Too salty", "Wrong order", "Undercooked"};
+
+  private final Random random;
+  private final int numServers;
+  private final double arrival;
+  private final List<Dish> menu;
+  private final Map<String, List<String>> cooksByType = new LinkedHashMap<>();
+  private final Map<String, String> dishOfType = new HashMap<>();
+  private final Map<String, Integer> stock = new HashMap<>();
+  private final List<String> ingredients;
+  private final TreeSet<Long> kitchen = new TreeSet<>(); // orders placed and not yet delivered
+  private final Map<String, Long> seenUpTo = new HashMap<>();
+  private final Deque<Integer> freeTables = new ArrayDeque<>();
+  private final List<Party> parties = new ArrayList<>();
+  private final StringBuilder line = new StringBuilder();
+  private Writer out;
+  private long numLines;
+  private long nextOrderId = 1;
+
+  /**
+   * Constructor for a generator.
+   *
+   * @param restaurant a restaurant built from the config files, for its menu and inventory
+   * @param numTables the number of tables
+   * @param numServers the number of Servers
+   * @param cooksPerStation the number of Cooks at each station
+   * @param menuSize the number of foods on the menu
+   * @param arrival the chance that a party arrives at each step while a table is free
+   * @param seed the seed of the random numbers
+   */
+  EventGenerator(Restaurant restaurant, int numTables, int numServers, int cooksPerStation,
+      int menuSize, double arrival, long seed) {
+    this.random = new Random(seed);
+    this.numServers = numServers;
+    this.arrival = arrival;
+
+    List<String> names = new ArrayList<>(restaurant.getMenu().getFoodNameList());
+    Collections.sort(names);
+    List<MenuItem> items = new ArrayList<>();
+    for (String name : names) {
+      items.add(restaurant.getMenu().getFood(name));
+    }
+    this.menu = new ArrayList<>();
+    for (int i = 0; i < menuSize; i++) {
+      MenuItem item = items.get(i % items.size());
+      String name = i < items.size() ? item.getName() : item.getName() + " " + (i / items.size() + 1);
+      menu.add(new Dish(name, item.getPrice(), item.getType(), item.getIngredients()));
+    }
+
+    int cookId = 1;
+    for (Dish dish : menu) {
+      if (!cooksByType.containsKey(dish.type)) {
+        List<String> cooks = new ArrayList<>();
+        for (int i = 0; i < cooksPerStation; i++) {
+          String id = String.valueOf(cookId++);
+          cooks.add(id);
+          seenUpTo.put(id, 0L);
+        }
+        cooksByType.put(dish.type, cooks);
+        dishOfType.put(dish.type, dish.name);
+      }
+      for (String ingredient : dish.ingredients) {
+        if (!stock.containsKey(ingredient) && restaurant.getKitchen().hasIngredient(ingredient)) {
+          stock.put(ingredient, restaurant.getKitchen().getQuantity(ingredient));
+        }
+      }
+    }
+    this.ingredients = new ArrayList<>(stock.keySet());
+    Collections.sort(ingredients);
+    for (int table = 1; table <= numTables; table++) {
+      freeTables.add(table);
+    }
+  }
+
+  /**
+   * Generates a script from the command line.
+   *
+   * @param args settings given as name=value, all optional
+   */
+  public static void main(String[] args) throws IOException {
+    Map<String, String> settings = new HashMap<>();
+    for (String arg : args) {
+      int equals = arg.indexOf('=');
+      settings.put(arg.substring(0, equals), arg.substring(equals + 1));
+    }
+    long numEvents = Long.parseLong(settings.getOrDefault("events", "1000000"));
+    Path directory = Paths.get(settings.getOrDefault("out", "generated"));
+    Config.createConfiguration();
+    RestaurantLog.logger.setUseParentHandlers(false);
+    EventGenerator generator = new EventGenerator(new Restaurant(),
+        Integer.parseInt(settings.getOrDefault("tables", "20")),
+        Integer.parseInt(settings.getOrDefault("servers", "5")),
+        Integer.parseInt(settings.getOrDefault("cooks", "2")),
+        Integer.parseInt(settings.getOrDefault("menu", "4")),
+        Double.parseDouble(settings.getOrDefault("arrival", "0.3")),
+        Long.parseLong(settings.getOrDefault("seed", "1")));
+
+    Files.createDirectories(directory);
+    long start = System.nanoTime();
+    try (Writer script = Files.newBufferedWriter(directory.resolve("Events.txt"))) {
+      generator.generate(numEvents, script);
+    }
+    try (Writer foodItems = Files.newBufferedWriter(directory.resolve("FoodItems.txt"))) {
+      generator.writeMenu(foodItems);
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.println(String.format("%d lines written to %s in %.2f s, %.0f lines/s",
+        generator.numLines, directory.resolve("Events.txt"), seconds,
+        generator.numLines / seconds));
+  }
+
+  /**
+   * Writes lines of a script until at least the given number have been written. Each step either
+   * seats a new party or moves one busy table on, so the last step may write a few lines more.
+   *
+   * @param numEvents the number of lines to write
+   * @param script where to write the lines
+   * @throws IOException if the script cannot be written
+   */
+  void generate(long numEvents, Writer script) throws IOException {
+    out = script instanceof BufferedWriter ? script : new BufferedWriter(script, 1 << 16);
+    long stop = numLines + numEvents;
+    while (numLines < stop) {
+      if (!freeTables.isEmpty() && (parties.isEmpty() || random.nextDouble() < arrival)) {
+        seat(freeTables.poll());
+      } else {
+        step(parties.get(random.nextInt(parties.size())));
+      }
+    }
+    out.flush();
+  }
+
+  /**
+   * Writes the menu in the format of FoodItems.txt.
+   *
+   * @param foodItems where to write the menu
+   * @throws IOException if the menu cannot be written
+   */
+  void writeMenu(Writer foodItems) throws IOException {
+    for (Dish dish : menu) {
+      foodItems.write(String.format("%s | %.2f | %s | %s |%n", dish.name, dish.price, dish.type,
+          String.join(", ", dish.ingredients)));
+    }
+  }
+
+  /** Seats a party at a table. */
+  private void seat(int table) throws IOException {
+    Party party = new Party(table, String.valueOf(1 + random.nextInt(numServers)));
+    int numCustomers = 1 + random.nextInt(6);
+    int numBills = 1 + random.nextInt(Math.min(numCustomers, 3));
+    for (int bill = 1; bill <= numBills; bill++) {
+      party.requests.put("Bill " + bill, new ArrayList<>());
+    }
+    write("Server", party.server, "Fills Table", table, numBills, numCustomers);
+    parties.add(party);
+  }
+
+  /** Moves a party on to the next thing it does. */
+  private void step(Party party) throws IOException {
+    if (!party.ordered) {
+      order(party);
+    } else if (!party.pending.isEmpty()) {
+      serve(party, party.pending.remove(0));
+    } else {
+      pay(party);
+    }
+  }
+
+  /** Records the party's food on each of its bills and places the orders. */
+  private void order(Party party) throws IOException {
+    int numFoods = 0;
+    for (int bill = 1; bill <= party.requests.size(); bill++) {
+      List<Item> requests = party.requests.get("Bill " + bill);
+      for (int i = random.nextInt(3); i >= 0 || numFoods == 0; i--) {
+        Item item = newItem();
+        reserve(item);
+        write("Server", party.server, "Record Food from", party.table, item.dish.name,
+            item.subtract, item.add, bill);
+        requests.add(item);
+        numFoods += 1;
+        if (random.nextDouble() < DELETE_RATE && numFoods > 1) {
+          write("Server", party.server, "Delete Food from", party.table, item.dish.name,
+              item.subtract, item.add, bill);
+          release(item);
+          requests.remove(requests.size() - 1);
+          numFoods -= 1;
+        }
+      }
+    }
+    write("Server", party.server, "Place Order(s) from", party.table);
+    party.ordered = true;
+    placeRequests(party);
+  }
+
+  /** Follows Server.placeOrder: every bill with food, in the table's order, becomes an Order. */
+  private void placeRequests(Party party) {
+    for (Map.Entry<String, List<Item>> bill : party.requests.entrySet()) {
+      if (!bill.getValue().isEmpty()) {
+        Ticket ticket = new Ticket(nextOrderId++, bill.getKey(), bill.getValue());
+        kitchen.add(ticket.id);
+        party.pending.add(ticket);
+        bill.setValue(new ArrayList<>());
+      }
+    }
+  }
+
+  /** Cooks an order and delivers it, after the party sometimes cancels some of its food. */
+  private void serve(Party party, Ticket ticket) throws IOException {
+    if (random.nextDouble() < CANCEL_RATE) {
+      Item item = ticket.items.remove(random.nextInt(ticket.items.size()));
+      write("Server", party.server, "Cancel Food item from", party.table, ticket.id,
+          item.dish.name, item.subtract, item.add);
+      if (ticket.items.isEmpty()) {
+        kitchen.remove(ticket.id);
+        return;
+      }
+    }
+    for (String type : cooksByType.keySet()) {
+      if (ticket.has(type)) {
+        List<String> cooks = cooksByType.get(type);
+        String cook = cooks.get(random.nextInt(cooks.size()));
+        see(cook, type, ticket.id);
+        write("Cook", cook, "Cooks Order", ticket.id, dishOfType.get(type));
+      }
+    }
+    write("Server", party.server, "Deliver Order to", party.table, ticket.id);
+    kitchen.remove(ticket.id);
+    party.delivered.add(ticket);
+
+    if (random.nextDouble() < RETURN_RATE) {
+      Item item = ticket.items.get(random.nextInt(ticket.items.size()));
+      reserve(item);
+      write("Server", party.server, "Return Order from", party.table, ticket.id, item.dish.name,
+          item.subtract, item.add, "None", "None", REASONS[random.nextInt(REASONS.length)]);
+      // The same food is ordered again on its own, and leaves the delivered order
+      party.requests.get(ticket.bill).add(item);
+      placeRequests(party);
+      ticket.items.remove(item);
+    }
+  }
+
+  /**
+   * Follows Cook.hasSeenOrder: a Cook sees orders in the order they were placed, so the Cook
+   * first sees every earlier order still in the kitchen.
+   */
+  private void see(String cook, String type, long orderId) throws IOException {
+    while (seenUpTo.get(cook) < orderId) {
+      Long next = kitchen.higher(seenUpTo.get(cook));
+      long id = next == null || next > orderId ? orderId : next;
+      write("Cook", cook, "Sees Order", id, dishOfType.get(type));
+      seenUpTo.put(cook, id);
+    }
+  }
+
+  /** Confirms the party's orders and clears the table. */
+  private void pay(Party party) throws IOException {
+    for (Ticket ticket : party.delivered) {
+      write("Server", party.server, "Confirm Order in", party.table, ticket.id);
+    }
+    write("Server", party.server, "Clear Table", party.table);
+    parties.remove(party);
+    freeTables.add(party.table);
+  }
+
+  /** Picks a food from the menu, sometimes with an ingredient taken out or added. */
+  private Item newItem() {
+    Dish dish = menu.get(random.nextInt(menu.size()));
+    String subtract = "None";
+    String add = "None";
+    if (random.nextDouble() < MODIFY_RATE) {
+      if (random.nextBoolean()) {
+        subtract = dish.ingredients.get(random.nextInt(dish.ingredients.size()));
+      } else {
+        add = ingredients.get(random.nextInt(ingredients.size()));
+      }
+    }
+    return new Item(dish, subtract, add);
+  }
+
+  /** Follows Kitchen.isEnoughIngredients, after restocking what would run out. */
+  private void reserve(Item item) throws IOException {
+    for (String ingredient : item.ingredients()) {
+      if (stock.get(ingredient) < Collections.frequency(item.ingredients(), ingredient)) {
+        write("Manager", "1", "Restock Ingredient", ingredient, RESTOCK_QUANTITY);
+        stock.put(ingredient, stock.get(ingredient) + RESTOCK_QUANTITY);
+      }
+    }
+    for (String ingredient : item.ingredients()) {
+      stock.put(ingredient, stock.get(ingredient) - 1);
+    }
+  }
+
+  /** Follows Kitchen.releaseIngredients. */
+  private void release(Item item) {
+    for (String ingredient : item.ingredients()) {
+      stock.put(ingredient, stock.get(ingredient) + 1);
+    }
+  }
+
+  /** Writes a line of the script: the fields separated by " | ". */
+  private void write(String job, String id, String action, Object... fields) throws IOException {
+    line.setLength(0);
+    line.append(job).append(" | ").append(id).append(" | ").append(action).append(" | ");
+    for (Object field : fields) {
+      line.append(field).append(" | ");
+    }
+    line.append('\n');
+    out.append(line);
+    numLines += 1;
+  }
+
+  /** A food on the generated menu. */
+  private static class Dish {
+    private final String name;
+    private final double price;
+    private final String type;
+    private final List<String> ingredients;
+
+    Dish(String name, double price, String type, List<String> ingredients) {
+      this.name = name;
+      this.price = price;
+      this.type = type;
+      this.ingredients = ingredients;
+    }
+  }
+
+  /** A food ordered by a party, with the ingredient taken out and the one added, or "None". */
+  private static class Item {
+    private final Dish dish;
+    private final String subtract;
+    private final String add;
+    private List<String> ingredients;
+
+    Item(Dish dish, String subtract, String add) {
+      this.dish = dish;
+      this.subtract = subtract;
+      this.add = add;
+    }
+
+    /** Follows Food.remIngredient and Food.addIngredient. */
+    List<String> ingredients() {
+      if (ingredients == null) {
+        ingredients = new ArrayList<>(dish.ingredients);
+        ingredients.remove(subtract);
+        if (!add.equals("None")) {
+          ingredients.add(add);
+        }
+      }
+      return ingredients;
+    }
+  }
+
+  /** An order the generator has placed. */
+  private static class Ticket {
+    private final long id;
+    private final String bill;
+    private final List<Item> items;
+
+    Ticket(long id, String bill, List<Item> items) {
+      this.id = id;
+      this.bill = bill;
+      this.items = items;
+    }
+
+    boolean has(String type) {
+      for (Item item : items) {
+        if (item.dish.type.equals(type)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /** A party seated at a table. */
+  private static class Party {
+    private final int table;
+    private final String server;
+    // Like Table.foodsToOrder, a HashMap, so bills are placed in the same order as the Server does
+    private final Map<String, List<Item>> requests = new HashMap<>();
+    private final List<Ticket> pending = new ArrayList<>();
+    private final List<Ticket> delivered = new ArrayList<>();
+    private boolean ordered;
+
+    Party(int table, String server) {
+      this.table = table;
+      this.server = server;
+    }
+  }
+}
@@ -0,0 +1,577 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * A structured log of what happens in the restaurant, kept alongside log.txt. Where log.txt has a
+ * line of text for each event, the event log has a record with the kind of event, the employee who
+ * made it happen, the table, order and food involved and an amount, so reports can be made without
+ * parsing text.
+ *
+ * <p>Records are written to segment files in the event log directory, and every segment has an
+ * index: the time of every 64th record, and for each kind of event the time and place of every
+ * record of that kind. A query for one kind of event over a time range skips the segments whose
+ * times are outside the range, and reads only the records of that kind in the rest.
+ *
+ * <p>Events can be queued instead of written, so the threads that make them, which often hold the
+ * restaurant's locks, never wait for the file; another thread, such as the log writer of
+ * RestaurantLog, then writes them. Records are buffered and reach the file when the buffer fills,
+ * before a query, and on close. A segment's index is written when the segment is full or the log
+ * is closed, and is rebuilt from the segment if the program stopped before it was written.
+ */
+class EventLog implements Closeable {
+  static final int SEGMENT_BYTES = 8 << 20;
+  private static final int TIME_INDEX_INTERVAL = 64;
+  private static final int MAGIC = 0x524D5345; // "RMSE"
+  private static final int INDEX_MAGIC = 0x524D5349; // "RMSI"
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 8;
+  private static final int QUEUE_CAPACITY = 4096;
+  private static final String SUFFIX = ".evt";
+  private static final String INDEX_SUFFIX = ".idx";
+
+  /** The kinds of event in the log. New kinds must be added at the end. */
+  enum Kind {
+    TABLE_FILLED,
+    FOOD_ORDERED,
+    FOOD_DELETED,
+    ORDER_PLACED,
+    ORDER_SEEN,
+    FOOD_PREPARED,
+    ORDER_FILLED,
+    ORDER_DELIVERED,
+    FOOD_RETURNED,
+    FOOD_CANCELLED,
+    ORDER_CONFIRMED,
+    TABLE_CLEARED,
+    RESTOCKED,
+    THRESHOLD_CHANGED,
+    PRICE_CHANGED
+  }
+
+  /** One record of the event log. */
+  static class Event {
+    private final long time;
+    private final Kind kind;
+    private final String actor;
+    private final int table;
+    private final long order;
+    private final String food;
+    private final double amount;
+
+    Event(long time, Kind kind, String actor, int table, long order, String food, double amount) {
+      this.time = time;
+      this.kind = kind;
+      this.actor = actor;
+      this.table = table;
+      this.order = order;
+      this.food = food;
+      this.amount = amount;
+    }
+
+    /** @return when the event happened, in milliseconds since the epoch */
+    long getTime() {
+      return time;
+    }
+
+    Kind getKind() {
+      return kind;
+    }
+
+    /** @return id of the employee who made the event happen, or "" if none did */
+    String getActor() {
+      return actor;
+    }
+
+    /** @return number of the table involved, or 0 if none was */
+    int getTable() {
+      return table;
+    }
+
+    /** @return id of the order involved, or 0 if none was */
+    long getOrder() {
+      return order;
+    }
+
+    /** @return name of the food or ingredient involved, or "" if none was */
+    String getFood() {
+      return food;
+    }
+
+    /** @return the price, bill total or quantity of the event, depending on its kind */
+    double getAmount() {
+      return amount;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%d %s actor=%s table=%d order=%d food=%s amount=%.2f",
+          time, kind, actor, table, order, food, amount);
+    }
+  }
+
+  private final Path directory;
+  private final List<Segment> sealed = new ArrayList<>();
+  private final ByteArrayOutputStream record = new ByteArrayOutputStream();
+  private final DataOutputStream recordOut = new DataOutputStream(record);
+  private final ArrayBlockingQueue<Event> queued = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+  private Segment current;
+  private long currentNumber;
+  private DataOutputStream out;
+  private long lastTime;
+
+  private EventLog(Path directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Opens the event log in a directory, creating it if needed. New records go to a new segment.
+   *
+   * @param directory the event log directory
+   * @return the event log
+   * @throws IOException if the directory or a segment cannot be read
+   */
+  static EventLog open(Path directory) throws IOException {
+    Files.createDirectories(directory);
+    EventLog log = new EventLog(directory);
+    long number = 0;
+    try (Stream<Path> entries = Files.list(directory)) {
+      List<Path> files = new ArrayList<>();
+      entries.filter(file -> file.getFileName().toString().endsWith(SUFFIX)).forEach(files::add);
+      Collections.sort(files);
+      for (Path file : files) {
+        String name = file.getFileName().toString();
+        number = Long.parseLong(name.substring(0, name.length() - SUFFIX.length())) + 1;
+        Path indexFile = indexFileOf(file);
+        Index index = Files.exists(indexFile) ? Index.read(indexFile) : null;
+        if (index == null) {
+          // The program stopped before the segment was finished
+          index = rebuild(file);
+          index.write(indexFile);
+        }
+        if (index.count == 0) {
+          Files.delete(file);
+          Files.delete(indexFile);
+          continue;
+        }
+        log.sealed.add(new Segment(file, index));
+        log.lastTime = Math.max(log.lastTime, index.maxTime);
+      }
+    }
+    log.startSegment(number);
+    return log;
+  }
+
+  /**
+   * Adds an event that happens now.
+   *
+   * @param kind kind of event
+   * @param actor id of the employee who made it happen, or null
+   * @param table number of the table involved, or 0
+   * @param order id of the order involved, or 0
+   * @param food name of the food or ingredient involved, or null
+   * @param amount the price, bill total or quantity of the event
+   * @throws IOException if the record cannot be written
+   */
+  void append(Kind kind, String actor, int table, long order, String food, double amount)
+      throws IOException {
+    append(System.currentTimeMillis(), kind, actor, table, order, food, amount);
+  }
+
+  /**
+   * Adds an event that happened at the given time. Records are kept in time order, so a time
+   * earlier than the last record's is taken as the last record's time.
+   */
+  synchronized void append(long time, Kind kind, String actor, int table, long order, String food,
+      double amount) throws IOException {
+    time = Math.max(time, lastTime);
+    lastTime = time;
+    record.reset();
+    recordOut.writeLong(time);
+    recordOut.writeByte(kind.ordinal());
+    recordOut.writeUTF(actor == null ? "" : actor);
+    RestaurantSnapshot.writeVarLong(table, recordOut);
+    RestaurantSnapshot.writeVarLong(order, recordOut);
+    recordOut.writeUTF(food == null ? "" : food);
+    recordOut.writeDouble(amount);
+    if (out.size() + record.size() + 5 > SEGMENT_BYTES && current.index.count > 0) {
+      sealCurrent();
+      startSegment(currentNumber + 1);
+    }
+    long offset = out.size();
+    RestaurantSnapshot.writeVarLong(record.size(), out);
+    record.writeTo(out);
+    current.index.add(kind, time, offset);
+  }
+
+  /**
+   * Queues an event that happens now, to be written by writeQueued. A caller that finds the queue
+   * full writes it itself, so the queue never grows without bound.
+   *
+   * @param kind kind of event
+   * @param actor id of the employee who made it happen, or null
+   * @param table number of the table involved, or 0
+   * @param order id of the order involved, or 0
+   * @param food name of the food or ingredient involved, or null
+   * @param amount the price, bill total or quantity of the event
+   * @throws IOException if the queue was full and could not be written
+   */
+  void enqueue(Kind kind, String actor, int table, long order, String food, double amount)
+      throws IOException {
+    Event event = new Event(System.currentTimeMillis(), kind, actor, table, order, food, amount);
+    while (!queued.offer(event)) {
+      writeQueued();
+    }
+  }
+
+  /**
+   * Writes the queued events, oldest first.
+   *
+   * @return the number of events written
+   * @throws IOException if a record cannot be written
+   */
+  synchronized int writeQueued() throws IOException {
+    int count = 0;
+    Event event;
+    while ((event = queued.poll()) != null) {
+      append(event.time, event.kind, event.actor, event.table, event.order, event.food,
+          event.amount);
+      count += 1;
+    }
+    return count;
+  }
+
+  /**
+   * Finds the events of a kind in a time range, oldest first.
+   *
+   * @param kind the kind of event to find, or null for every kind
+   * @param from the earliest time to include, in milliseconds since the epoch
+   * @param to the latest time to include
+   * @param filter only events it accepts are returned
+   * @return the events found
+   * @throws IOException if a segment cannot be read
+   */
+  List<Event> query(Kind kind, long from, long to, Predicate<Event> filter) throws IOException {
+    List<Segment> segments;
+    synchronized (this) {
+      writeQueued();
+      out.flush();
+      segments = new ArrayList<>(sealed);
+      segments.add(new Segment(current.file, current.index.copy()));
+    }
+    List<Event> events = new ArrayList<>();
+    for (Segment segment : segments) {
+      Index index = segment.index;
+      if (index.count == 0 || index.maxTime < from || index.minTime > to) {
+        continue;
+      }
+      try (FileChannel channel = FileChannel.open(segment.file, StandardOpenOption.READ)) {
+        if (kind != null) {
+          Postings postings = index.kinds[kind.ordinal()];
+          ByteBuffer buffer = ByteBuffer.allocate(256);
+          for (int i = postings.firstAtOrAfter(from); i < postings.size; i++) {
+            if (postings.times[i] > to) {
+              break;
+            }
+            Event event = readAt(channel, postings.offsets[i], buffer);
+            if (filter.test(event)) {
+              events.add(event);
+            }
+          }
+        } else {
+          scan(channel, index, from, to, filter, events);
+        }
+      }
+    }
+    return events;
+  }
+
+  /** Writes the queued and buffered records and the index of the current segment. */
+  @Override
+  public synchronized void close() throws IOException {
+    writeQueued();
+    sealCurrent();
+  }
+
+  /** Reads the records of a segment in a time range in order, starting from the time index. */
+  private static void scan(FileChannel channel, Index index, long from, long to,
+      Predicate<Event> filter, List<Event> events) throws IOException {
+    int start = Math.max(0, index.all.firstAtOrAfter(from) - 1);
+    int remaining = index.count - start * TIME_INDEX_INTERVAL;
+    channel.position(index.all.size == 0 ? HEADER_SIZE : index.all.offsets[start]);
+    DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+    for (; remaining > 0; remaining--) {
+      RestaurantSnapshot.readVarLong(in);
+      Event event = readEvent(in);
+      if (event.time > to) {
+        break;
+      }
+      if (event.time >= from && filter.test(event)) {
+        events.add(event);
+      }
+    }
+  }
+
+  /** Reads the record at an offset of a segment. */
+  private static Event readAt(FileChannel channel, long offset, ByteBuffer buffer)
+      throws IOException {
+    buffer.clear();
+    channel.read(buffer, offset);
+    byte[] bytes = buffer.array();
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, buffer.position()));
+    int length = (int) RestaurantSnapshot.readVarLong(in);
+    if (length > in.available()) {
+      // A record too long for the buffer; food names are rarely this long
+      int start = buffer.position() - in.available();
+      ByteBuffer whole = ByteBuffer.allocate(length);
+      channel.read(whole, offset + start);
+      in = new DataInputStream(new ByteArrayInputStream(whole.array()));
+    }
+    return readEvent(in);
+  }
+
+  private static Event readEvent(DataInputStream in) throws IOException {
+    long time = in.readLong();
+    Kind kind = Kind.values()[in.readUnsignedByte()];
+    String actor = in.readUTF();
+    int table = (int) RestaurantSnapshot.readVarLong(in);
+    long order = RestaurantSnapshot.readVarLong(in);
+    String food = in.readUTF();
+    return new Event(time, kind, actor, table, order, food, in.readDouble());
+  }
+
+  /**
+   * Indexes a segment whose index was not written, and cuts off a record left unfinished at its
+   * end. A segment cut short before the end of its header has no records.
+   */
+  private static Index rebuild(Path file) throws IOException {
+    byte[] bytes = Files.readAllBytes(file);
+    if (bytes.length < HEADER_SIZE) {
+      return new Index();
+    }
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+    if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+      throw new IOException("Not an event log segment: " + file);
+    }
+    Index index = new Index();
+    int offset = HEADER_SIZE;
+    try {
+      while (in.available() > 0) {
+        int length = (int) RestaurantSnapshot.readVarLong(in);
+        if (length > in.available()) {
+          break;
+        }
+        Event event = readEvent(in);
+        index.add(event.kind, event.time, offset);
+        offset = bytes.length - in.available();
+      }
+    } catch (EOFException | ArrayIndexOutOfBoundsException e) {
+      // What follows offset is an unfinished record
+    }
+    if (offset < bytes.length) {
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+        channel.truncate(offset);
+      }
+    }
+    return index;
+  }
+
+  private void startSegment(long number) throws IOException {
+    Path file = directory.resolve(String.format("%010d%s", number, SUFFIX));
+    out = new DataOutputStream(new BufferedOutputStream(
+        Files.newOutputStream(file, StandardOpenOption.CREATE_NEW), 1 << 16));
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.flush(); // so a segment left by a crash can be told from a file that is not one
+    current = new Segment(file, new Index());
+    currentNumber = number;
+  }
+
+  /** Finishes the current segment: its records are written out, then its index. */
+  private void sealCurrent() throws IOException {
+    out.close();
+    if (current.index.count == 0) {
+      Files.deleteIfExists(current.file);
+      return;
+    }
+    current.index.write(indexFileOf(current.file));
+    sealed.add(current);
+  }
+
+  private static Path indexFileOf(Path file) {
+    String name = file.getFileName().toString();
+    return file.resolveSibling(name.substring(0, name.length() - SUFFIX.length()) + INDEX_SUFFIX);
+  }
+
+  /** A segment file and its index. */
+  private static class Segment {
+    private final Path file;
+    private final Index index;
+
+    Segment(Path file, Index index) {
+      this.file = file;
+      this.index = index;
+    }
+  }
+
+  /** The index of one segment. */
+  private static class Index {
+    private int count;
+    private long minTime = Long.MAX_VALUE;
+    private long maxTime = Long.MIN_VALUE;
+    private final Postings all = new Postings(); // every TIME_INDEX_INTERVAL-th record
+    private final Postings[] kinds = new Postings[Kind.values().length];
+
+    Index() {
+      for (int i = 0; i < kinds.length; i++) {
+        kinds[i] = new Postings();
+      }
+    }
+
+    void add(Kind kind, long time, long offset) {
+      if (count % TIME_INDEX_INTERVAL == 0) {
+        all.add(time, offset);
+      }
+      kinds[kind.ordinal()].add(time, offset);
+      count += 1;
+      minTime = Math.min(minTime, time);
+      maxTime = Math.max(maxTime, time);
+    }
+
+    Index copy() {
+      Index copy = new Index();
+      copy.count = count;
+      copy.minTime = minTime;
+      copy.maxTime = maxTime;
+      copy.all.copyFrom(all);
+      for (int i = 0; i < kinds.length; i++) {
+        copy.kinds[i].copyFrom(kinds[i]);
+      }
+      return copy;
+    }
+
+    /** Writes the index to a file, replacing it only once it is whole. */
+    void write(Path file) throws IOException {
+      Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+      try (DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(Files.newOutputStream(temp)))) {
+        out.writeInt(INDEX_MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(count);
+        out.writeLong(minTime);
+        out.writeLong(maxTime);
+        all.write(out);
+        RestaurantSnapshot.writeVarLong(kinds.length, out);
+        for (Postings postings : kinds) {
+          postings.write(out);
+        }
+      }
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Reads an index, or returns null if the file is not a whole index. */
+    static Index read(Path file) throws IOException {
+      try (DataInputStream in = new DataInputStream(
+          new BufferedInputStream(Files.newInputStream(file)))) {
+        if (in.readInt() != INDEX_MAGIC || in.readInt() != VERSION) {
+          return null;
+        }
+        Index index = new Index();
+        index.count = in.readInt();
+        index.minTime = in.readLong();
+        index.maxTime = in.readLong();
+        index.all.read(in);
+        int numKinds = (int) RestaurantSnapshot.readVarLong(in);
+        for (int i = 0; i < numKinds; i++) {
+          index.kinds[i].read(in);
+        }
+        return index;
+      } catch (EOFException e) {
+        return null;
+      }
+    }
+  }
+
+  /** The times and offsets of a list of records, in time order. */
+  private static class Postings {
+    private long[] times = new long[16];
+    private long[] offsets = new long[16];
+    private int size;
+
+    void add(long time, long offset) {
+      if (size == times.length) {
+        times = Arrays.copyOf(times, size * 2);
+        offsets = Arrays.copyOf(offsets, size * 2);
+      }
+      times[size] = time;
+      offsets[size] = offset;
+      size += 1;
+    }
+
+    /** @return the index of the first record at or after a time, or size if there is none */
+    int firstAtOrAfter(long time) {
+      int low = 0;
+      int high = size;
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        if (times[middle] < time) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      return low;
+    }
+
+    void copyFrom(Postings other) {
+      times = Arrays.copyOf(other.times, Math.max(1, other.size));
+      offsets = Arrays.copyOf(other.offsets, Math.max(1, other.size));
+      size = other.size;
+    }
+
+    /** Writes the postings as differences from the one before, which are small numbers. */
+    void write(DataOutputStream out) throws IOException {
+      RestaurantSnapshot.writeVarLong(size, out);
+      long time = 0;
+      long offset = 0;
+      for (int i = 0; i < size; i++) {
+        RestaurantSnapshot.writeVarLong(times[i] - time, out);
+        RestaurantSnapshot.writeVarLong(offsets[i] - offset, out);
+        time = times[i];
+        offset = offsets[i];
+      }
+    }
+
+    void read(DataInputStream in) throws IOException {
+      int count = (int) RestaurantSnapshot.readVarLong(in);
+      long time = 0;
+      long offset = 0;
+      for (int i = 0; i < count; i++) {
+        time += RestaurantSnapshot.readVarLong(in);
+        offset += RestaurantSnapshot.readVarLong(in);
+        add(time, offset);
+      }
+    }
+  }
+}
@@ -0,0 +1,93 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Compares answering questions from the EventLog's indexes against reading every record. An event
+ * log with the given number of events spread over 30 days is written, then two questions are
+ * answered both ways: all returns in the last week, and all of Cook 3's prepared food on the last
+ * day. The times and the number of events found are printed. Run it from the command line with the
+ * number of events.
+ */
+public class EventLogBenchmark {
+  private static final long DAY = 24 * 60 * 60 * 1000L;
+  private static final String[] FOODS = {"Poutine", "Monster Burger", "Fries", "Caesar Salad"};
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args number of events, optional
+   */
+  public static void main(String[] args) throws IOException {
+    int numEvents = args.length > 0 ? Integer.parseInt(args[0]) : 2000000;
+    Path directory = Files.createTempDirectory("events");
+    long start = System.currentTimeMillis() - 30 * DAY;
+    long end = System.currentTimeMillis();
+    EventLog.Kind[] kinds = EventLog.Kind.values();
+    Random random = new Random(42);
+
+    long writeStart = System.nanoTime();
+    try (EventLog log = EventLog.open(directory)) {
+      for (int i = 0; i < numEvents; i++) {
+        long time = start + (end - start) * i / numEvents;
+        // One event in a hundred is a return, the rest are spread over the other kinds
+        EventLog.Kind kind = random.nextInt(100) == 0
+            ? EventLog.Kind.FOOD_RETURNED : kinds[random.nextInt(kinds.length)];
+        log.append(time, kind, String.valueOf(1 + random.nextInt(8)), 1 + random.nextInt(20),
+            i + 1, FOODS[random.nextInt(FOODS.length)], 5 + random.nextInt(20));
+      }
+    }
+    double writeNanos = (double) (System.nanoTime() - writeStart) / numEvents;
+    long bytes;
+    try (Stream<Path> files = Files.list(directory)) {
+      bytes = files.mapToLong(file -> file.toFile().length()).sum();
+    }
+    System.out.println(String.format("%d events, %.0f ns per append, %d bytes on disk",
+        numEvents, writeNanos, bytes));
+
+    try (EventLog log = EventLog.open(directory)) {
+      System.out.println(String.format("%-36s %10s %12s %10s", "question", "found", "indexed ms",
+          "scan ms"));
+      compare(log, "returns in the last week", EventLog.Kind.FOOD_RETURNED, end - 7 * DAY, end,
+          null);
+      compare(log, "Cook 3's prepared food today", EventLog.Kind.FOOD_PREPARED, end - DAY, end,
+          "3");
+    }
+    try (Stream<Path> files = Files.walk(directory)) {
+      files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+    }
+  }
+
+  /** Answers a question with the indexes and by reading every record, and prints both times. */
+  private static void compare(EventLog log, String question, EventLog.Kind kind, long from,
+      long to, String actor) throws IOException {
+    long indexed = Long.MAX_VALUE;
+    long scanned = Long.MAX_VALUE;
+    int found = 0;
+    int scanFound = 0;
+    for (int round = 0; round < 5; round++) {
+      long begin = System.nanoTime();
+      List<EventLog.Event> events = log.query(kind, from, to,
+          event -> actor == null || event.getActor().equals(actor));
+      indexed = Math.min(indexed, System.nanoTime() - begin);
+      found = events.size();
+
+      begin = System.nanoTime();
+      events = log.query(null, Long.MIN_VALUE, Long.MAX_VALUE,
+          event -> event.getKind() == kind && event.getTime() >= from && event.getTime() <= to
+              && (actor == null || event.getActor().equals(actor)));
+      scanned = Math.min(scanned, System.nanoTime() - begin);
+      scanFound = events.size();
+    }
+    if (found != scanFound) {
+      throw new IllegalStateException(question + ": index found " + found + ", scan found "
+          + scanFound);
+    }
+    System.out.println(String.format("%-36s %10d %12.1f %10.1f", question, found,
+        indexed / 1e6, scanned / 1e6));
+  }
+}
@@ -0,0 +1,384 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Replays an Events.txt script against a Restaurant without the user interface, and measures how
+ * long each operation takes. Each line of the script is one action by one employee, in the format
+ * described in README.txt, such as "Server | 2 | Fills Table | 3 | 2 | 8 |". The script is read one
+ * line at a time, so a script of any length can be replayed, and every action is sent to the same
+ * method the user interface would call, one after another, as fast as they complete.
+ *
+ * <p>Both forms of script are accepted: the one in README.txt, and the one with labels such as
+ * "Order:" and "Subtract:" before the values. Employees, tables and bills a script mentions but the
+ * restaurant does not have are added when they are first needed; a Cook is hired for the type of
+ * the food named after the order number, as in "Cook | 1 | Cooks Order | 4 | Poutine |", or else of
+ * the first food they are asked to prepare. The same script replayed against the same restaurant
+ * therefore always does the same thing.
+ *
+ * <p>A line fails when it cannot be carried out at all, such as one naming food that is not on the
+ * menu. A line the restaurant turns down, such as a Cook seeing orders out of turn or a Server
+ * delivering an order that is not ready, is counted as rejected. Whether it was turned down is told
+ * by what the employee's method returns, not by the log: a Cook asked to cook an order with food of
+ * other types, or food that is already prepared, still prepares the rest, and is not rejected.
+ */
+public class EventReplay {
+  private final Restaurant restaurant;
+  private final Map<String, Latencies> latencies = new LinkedHashMap<>();
+  private long numLines;
+  private long numFailed;
+  private long numRejected;
+  private long elapsedNanos;
+
+  /**
+   * Constructor for a replay against a restaurant.
+   *
+   * @param restaurant the restaurant the script acts on
+   */
+  EventReplay(Restaurant restaurant) {
+    this.restaurant = restaurant;
+  }
+
+  /**
+   * Runs a script from the command line against a new Restaurant and prints the report.
+   *
+   * @param args the script to replay, Events.txt if not given
+   */
+  public static void main(String[] args) throws IOException {
+    String script = args.length > 0 ? args[0] : "Events.txt";
+    Config.createConfiguration();
+    RestaurantLog.logger.setUseParentHandlers(false);
+    EventReplay replay = new EventReplay(new Restaurant());
+    try (BufferedReader in = Files.newBufferedReader(Paths.get(script), StandardCharsets.UTF_8)) {
+      replay.run(in);
+    }
+    System.out.print(replay.report());
+  }
+
+  /**
+   * Replays every line of a script.
+   *
+   * @param script the script
+   * @throws IOException if the script cannot be read
+   */
+  void run(Reader script) throws IOException {
+    BufferedReader in = script instanceof BufferedReader
+        ? (BufferedReader) script : new BufferedReader(script);
+    long start = System.nanoTime();
+    String line;
+    while ((line = in.readLine()) != null) {
+      replay(line);
+    }
+    elapsedNanos += System.nanoTime() - start;
+  }
+
+  /**
+   * Replays one line of a script. Blank lines are skipped. A line that cannot be carried out is
+   * counted as failed, one the restaurant turns down is counted as rejected, and either way the
+   * replay goes on.
+   *
+   * @param line the line
+   */
+  void replay(String line) {
+    List<String> fields = parse(line);
+    if (fields.isEmpty()) {
+      return;
+    }
+    numLines += 1;
+    if (fields.size() < 3) {
+      numFailed += 1;
+      return;
+    }
+    String job = fields.get(0);
+    String action = fields.get(2).toLowerCase(Locale.ROOT);
+    List<String> args = fields.subList(3, fields.size());
+    boolean accepted;
+    long start = System.nanoTime();
+    try {
+      switch (job) {
+        case "Server":
+          accepted = replayServer(fields.get(1), action, args);
+          break;
+        case "Cook":
+          accepted = replayCook(fields.get(1), action, args);
+          break;
+        case "Manager":
+          accepted = replayManager(fields.get(1), action, args);
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown employee " + job);
+      }
+    } catch (RuntimeException e) {
+      numFailed += 1;
+      return;
+    }
+    long nanos = System.nanoTime() - start;
+    if (!accepted) {
+      numRejected += 1;
+    }
+    latencies.computeIfAbsent(job + " " + action, name -> new Latencies()).add(nanos);
+  }
+
+  /**
+   * Splits a line into its fields. Labels, which are the fields that end with a colon, are left
+   * out, so both forms of script give the same fields.
+   */
+  static List<String> parse(String line) {
+    List<String> fields = new ArrayList<>();
+    for (String field : line.split("\\|")) {
+      String value = field.trim();
+      if (!value.isEmpty() && !value.endsWith(":")) {
+        fields.add(value);
+      }
+    }
+    return fields;
+  }
+
+  /** Replays a Server's line, and returns false if the Server turned it down. */
+  private boolean replayServer(String id, String action, List<String> args) {
+    Server server = (Server) worker("Server", id, null);
+    Table table = table(args.get(0));
+    switch (action) {
+      case "fills table": {
+        boolean occupied = table.isOccupied;
+        server.fillTable(table, args.get(1), args.get(2));
+        return !occupied && table.isOccupied;
+      }
+      case "record food from":
+        return server.recordFoodOrder(table, food(server, args.get(1), args, 2), bill(args, 4));
+      case "delete food from":
+        return server.deleteFoodOrder(table, food(server, args.get(1), args, 2), bill(args, 4));
+      case "place order(s) from":
+        return !server.placeOrder(table).startsWith("Cannot");
+      case "deliver order to":
+        return !server.deliverOrder(Long.parseLong(args.get(1)), table).startsWith("Cannot");
+      case "return order from": {
+        // Like the return scene: the same food is ordered again, then leaves the old order. The
+        // scene has no way to change the new food, so the script's new changes are not used.
+        long orderNum = Long.parseLong(args.get(1));
+        Food returned = food(server, args.get(2), args, 3);
+        if (!server.returnOrder(orderNum, table, returned).equals(Server.FOOD_RETURNED)) {
+          return false;
+        }
+        server.deleteOldFoodOrder(orderNum, returned, args.size() > 7 ? args.get(7) : "");
+        return true;
+      }
+      case "confirm order in":
+        return server.confirmOrder(Long.parseLong(args.get(1)), table);
+      case "clear table":
+        return !server.clearTable(table).startsWith("Cannot");
+      case "cancel food item from":
+        return server.cancelFoodItem(Long.parseLong(args.get(1)),
+            food(server, args.get(2), args, 3), table);
+      default:
+        throw new IllegalArgumentException("Unknown Server action " + action);
+    }
+  }
+
+  /**
+   * Replays a Cook's line, and returns false if the Cook turned it down. A Cook only turns down
+   * seeing an order out of turn, and cooking an order they have not seen.
+   */
+  private boolean replayCook(String id, String action, List<String> args) {
+    Order order = restaurant.getKitchen().getOrder(Long.parseLong(args.get(0)));
+    if (order == null) {
+      throw new IllegalArgumentException("No Order " + args.get(0) + " in the kitchen");
+    }
+    Cook cook = (Cook) worker("Cook", id, cookType(order, args));
+    switch (action) {
+      case "sees order":
+        return !cook.hasSeenOrder(order).startsWith("Can't");
+      case "cooks order": {
+        boolean seen = cook.hasSeen(order);
+        cook.prepFood(order);
+        return seen;
+      }
+      default:
+        throw new IllegalArgumentException("Unknown Cook action " + action);
+    }
+  }
+
+  /** Replays a Manager's line, and returns false if the Manager turned it down. */
+  private boolean replayManager(String id, String action, List<String> args) {
+    Manager manager = (Manager) worker("Manager", id, null);
+    switch (action) {
+      case "change threshold":
+        return !manager.changeThreshold(args.get(0), args.get(1)).startsWith("Cannot");
+      case "generate inventory":
+        manager.generateInventory();
+        return true;
+      case "read request":
+        manager.readRequests();
+        return true;
+      case "restock ingredient":
+        if (args.size() > 1) {
+          return !manager.restockInventory(args.get(0), args.get(1)).startsWith("Cannot");
+        }
+        return !manager.restockInventory(args.get(0)).startsWith("Cannot");
+      default:
+        throw new IllegalArgumentException("Unknown Manager action " + action);
+    }
+  }
+
+  /** Returns the employee with the id, hiring them first if the restaurant does not have them. */
+  private Employee worker(String job, String id, String cookType) {
+    Employee worker = restaurant.getWorker(job, id);
+    if (worker == null) {
+      worker = restaurant.addEmployee(job, id, cookType);
+    }
+    return worker;
+  }
+
+  /**
+   * Returns the type to hire a Cook as: the type of the food named after the order number, or of
+   * the first food in the order that is not ready.
+   */
+  private String cookType(Order order, List<String> args) {
+    if (args.size() > 1 && restaurant.getMenu().hasFood(args.get(1))) {
+      return restaurant.getMenu().getFood(args.get(1)).getType();
+    }
+    for (Food food : order.getFoods()) {
+      if (!food.getReady()) {
+        return food.getType();
+      }
+    }
+    return order.getFoods().isEmpty() ? "Main" : order.getFoods().get(0).getType();
+  }
+
+  /** Returns the table with the number, adding it first if the restaurant does not have it. */
+  private Table table(String number) {
+    int tableNum = Integer.parseInt(number);
+    Table table = restaurant.getTable(tableNum);
+    if (table == null) {
+      table = new Table(tableNum);
+      restaurant.getTables().add(table);
+    }
+    return table;
+  }
+
+  /**
+   * Creates a food from the menu with ingredients taken out and added. The ingredients to take out
+   * and to add are at args[from] and args[from + 1], separated by commas, or "None".
+   */
+  private Food food(Server server, String name, List<String> args, int from) {
+    MenuItem item = restaurant.getMenu().getFood(name);
+    if (item == null) {
+      throw new IllegalArgumentException(name + " is not on the menu");
+    }
+    Food food = server.createFoodItem(item);
+    if (args.size() > from) {
+      for (String ingredient : ingredients(args.get(from))) {
+        food.remIngredient(ingredient);
+      }
+    }
+    if (args.size() > from + 1) {
+      for (String ingredient : ingredients(args.get(from + 1))) {
+        food.addIngredient(ingredient);
+      }
+    }
+    return food;
+  }
+
+  private static List<String> ingredients(String field) {
+    List<String> ingredients = new ArrayList<>();
+    if (!field.equalsIgnoreCase("None")) {
+      for (String ingredient : field.split(",")) {
+        if (!ingredient.trim().isEmpty()) {
+          ingredients.add(ingredient.trim());
+        }
+      }
+    }
+    return ingredients;
+  }
+
+  /** Returns the bill at args[index], such as "1" for "Bill 1", or Bill 1 if there is none. */
+  private static String bill(List<String> args, int index) {
+    if (args.size() <= index) {
+      return "Bill 1";
+    }
+    String bill = args.get(index);
+    return bill.startsWith("Bill") ? bill : "Bill " + bill;
+  }
+
+  /** @return the number of lines replayed */
+  long getNumLines() {
+    return numLines;
+  }
+
+  /** @return the number of lines that could not be carried out */
+  long getNumFailed() {
+    return numFailed;
+  }
+
+  /** @return the number of lines the restaurant turned down */
+  long getNumRejected() {
+    return numRejected;
+  }
+
+  /**
+   * Returns a report of the replay: the number of lines, the lines replayed per second, how many
+   * failed or were rejected, and for each operation how many times it ran and how long it took.
+   *
+   * @return the report
+   */
+  String report() {
+    StringBuilder report = new StringBuilder();
+    double seconds = elapsedNanos / 1e9;
+    report.append(String.format("%d lines in %.3f s, %.0f lines/s, %d failed, %d rejected%n",
+        numLines, seconds, seconds > 0 ? numLines / seconds : 0.0, numFailed, numRejected));
+    report.append(String.format("%-32s %9s %9s %9s %9s %9s %9s%n",
+        "operation", "count", "mean us", "p50 us", "p90 us", "p99 us", "max us"));
+    for (Map.Entry<String, Latencies> entry : latencies.entrySet()) {
+      Latencies operation = entry.getValue();
+      report.append(String.format("%-32s %9d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+          entry.getKey(), operation.size, operation.mean() / 1e3, operation.percentile(50) / 1e3,
+          operation.percentile(90) / 1e3, operation.percentile(99) / 1e3,
+          operation.percentile(100) / 1e3));
+    }
+    return report.toString();
+  }
+
+  /** The times one operation took. */
+  private static class Latencies {
+    private long[] nanos = new long[64];
+    private int size;
+    private long total;
+    private boolean sorted;
+
+    void add(long time) {
+      if (size == nanos.length) {
+        nanos = Arrays.copyOf(nanos, size * 2);
+      }
+      nanos[size] = time;
+      size += 1;
+      total += time;
+      sorted = false;
+    }
+
+    double mean() {
+      return size == 0 ? 0 : (double) total / size;
+    }
+
+    /** Returns the time that the given percent of the operations took at most. */
+    long percentile(double percent) {
+      if (size == 0) {
+        return 0;
+      }
+      if (!sorted) {
+        Arrays.sort(nanos, 0, size);
+        sorted = true;
+      }
+      int index = (int) Math.ceil(percent / 100 * size) - 1;
+      return nanos[Math.max(0, Math.min(size - 1, index))];
+    }
+  }
+}
@@ -1,57 +1,84 @@
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 /**
- * A Food class. A Food Object contains has a name, price, type, and a list of ingredients that is
- * needed to create it.
+ * A Food class. A Food is one line of an order: a MenuItem as ordered by a customer, along with any
+ * changes to its ingredients and whether it has been prepared yet. The name, price, type and usual
+ * ingredients are shared with the MenuItem, so a Food only holds what is particular to this order.
  */
 public class Food implements Serializable {
 
-  private String name;
+  private MenuItem item;
   private boolean isReady;
-  private String type;
-  private double price;
-  private ArrayList<String> ingredients;
-  private boolean isDiscounted;
+  private ArrayList<String> ingredients; // null unless this Food's ingredients were changed
+  private Recipe recipe;
 
   /**
-   * A Food object has its own unique name, base price, type, and list of ingredients required to
-   * cook it. Unless specified, Food has no subtractions or additions, thus is only priced according
-   * to its base price. Only additions of ingredients affects a Food's price Only a Cook can prepare
-   * a Food of the same type
+   * A Food is ordered from a MenuItem. Unless changed, Food has no subtractions or additions and is
+   * priced according to the item's price. Only a Cook of the same type can prepare a Food.
    *
-   * @param name this Food's name
-   * @param price this Food's base price, which does not include any additions
-   * @param type this Food's type, "main", "appetizer", or "desert"
-   * @param ingredients the ingredients needed to prepare this Food
+   * @param item the MenuItem this Food was ordered from
    */
-  Food(String name, double price, String type, ArrayList<String> ingredients) {
-    this.name = name;
-    this.price = price;
-    this.type = type;
-    this.ingredients = ingredients;
+  Food(MenuItem item) {
+    this.item = item;
+    this.recipe = item.getRecipe();
     this.isReady = false;
-    this.isDiscounted = false;
+  }
+
+  /**
+   * Constructor for a Food restored from a save.
+   *
+   * @param item the MenuItem this Food was ordered from
+   * @param ingredients this Food's changed ingredients, or null if they were not changed
+   * @param isReady true if this Food has been prepared
+   */
+  Food(MenuItem item, List<String> ingredients, boolean isReady) {
+    this(item);
+    if (ingredients != null) {
+      this.ingredients = new ArrayList<>(ingredients);
+      this.recipe = Recipe.of(ingredients);
+    }
+    this.isReady = isReady;
+  }
+
+  /** @return true if this Food's ingredients differ from its MenuItem's. */
+  boolean isModified() {
+    return ingredients != null;
   }
 
   /** @return name of this food. */
   public String getName() {
-    return name;
+    return item.getName();
   }
 
-  double getDiscountedPrice(){
-    return this.price * 0.9;
+  /** @return the MenuItem this food was ordered from. */
+  MenuItem getItem() {
+    return item;
   }
 
   /** @return price of this food. */
   double getPrice() {
-    return this.price;
+    return item.getPrice();
   }
 
-  /** @return list of ingredients this food has */
-  ArrayList<String> getIngredients() {
-    return ingredients;
+  /** @return price of this food in cents. */
+  long getPriceCents() {
+    return item.getPriceCents();
+  }
+
+  /** @return read-only list of ingredients this food has */
+  List<String> getIngredients() {
+    if (ingredients == null) {
+      return item.getIngredients();
+    }
+    return Collections.unmodifiableList(ingredients);
+  }
+
+  /** @return the ingredients of this food as an interned multiset */
+  Recipe getRecipe() {
+    return recipe;
   }
 
   /** Sets this Food to be ready. */
@@ -68,42 +95,39 @@ public class Food implements Serializable {
     return this.isReady;
   }
 
-  public void setPrice(double price){
-    this.price = price;
-  }
-
-  /** Sets the food true if discounted */
-  void setIsDiscounted(){this.isDiscounted = true;}
-
-  /**
-   * Checks if the food is discounted
-   * @return true if the food is discounted
-   */
-  boolean checkIsDiscounted(){return this.isDiscounted;}
-
-
   /**
    * Returns the type of this Food. Only a Cook of this type can prepare this Food.
    *
    * @return the String type of this Food
    */
   String getType() {
-    return this.type;
+    return item.getType();
   }
 
-  /** Returns true this this Food is equivalent to Food other. */
+  /**
+   * Returns true this this Food is equivalent to Food other: both have the same name and need the
+   * same ingredients, in any order.
+   */
   @Override
   public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
     if (o instanceof Food) {
-      Collections.sort(((Food) o).getIngredients());
-      Collections.sort(this.getIngredients());
-      if (((Food) o).getIngredients().equals(this.getIngredients())) {
-        return this.name.equals(((Food) o).name);
-      }
+      return this.recipe == ((Food) o).recipe && getName().equals(((Food) o).getName());
     }
     return false;
   }
 
+  /**
+   * Returns a hash code consistent with equals. Only the name is hashed, since the ingredients can
+   * change while this Food is in a hashed collection.
+   */
+  @Override
+  public int hashCode() {
+    return getName().hashCode();
+  }
+
   /**
    * Returns the String representation of this Food.
    *
@@ -111,15 +135,6 @@ public class Food implements Serializable {
    */
   @Override
   public String toString() {
-//    return "Food("
-//        + this.name
-//        + ", "
-//        + Double.toString(this.price)
-//        + ", "
-//        + this.type
-//        + ", "
-//        + ingredients.toString()
-//        + ")";
     return getName();
   }
 
@@ -128,7 +143,8 @@ public class Food implements Serializable {
    * @param ingredient ingredient being added
    */
   void addIngredient(String ingredient) {
-    this.ingredients.add(ingredient);
+    modifiableIngredients().add(ingredient);
+    this.recipe = Recipe.of(ingredients);
   }
 
   /**
@@ -137,12 +153,21 @@ public class Food implements Serializable {
    * @return the ingredient
    */
   String remIngredient(String ingredient) {
-    if (!this.ingredients.contains(ingredient)) {
+    if (!getIngredients().contains(ingredient)) {
       return "Cannot remove " + ingredient;
     } else {
-      this.ingredients.remove(ingredient);
+      modifiableIngredients().remove(ingredient);
+      this.recipe = Recipe.of(ingredients);
       return "Removed " + ingredient;
     }
   }
 
+  /** Copies the item's ingredients the first time this Food's ingredients are changed. */
+  private ArrayList<String> modifiableIngredients() {
+    if (ingredients == null) {
+      ingredients = new ArrayList<>(item.getIngredients());
+    }
+    return ingredients;
+  }
+
 }
@@ -0,0 +1,371 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Measures the order lifecycle's hot paths: recording, placing and preparing orders, checking
+ * ingredients, comparing food, adding up bills, building the menu and logging. Every operation is
+ * measured in a restaurant with each combination of the number of open orders, tables and menu
+ * items, since those are what the operations get slower with.
+ *
+ * <p>Each measurement follows the way JMH works: a few warm up iterations, then timed iterations of
+ * a fixed length, each running the operation over and over and reporting the average time per
+ * call. Operations that change the restaurant are run in batches, and the restaurant is put back
+ * between batches without the clock running. The results are printed and written as JSON in the
+ * format JMH uses, so they can be compared between releases with the same tools.
+ *
+ * <p>Run it from the command line with any of these settings, given as name=value: orders, tables
+ * and menu, each a comma separated list of values; warmup and iterations, the number of each kind
+ * of iteration; millis, the length of an iteration; and out, the JSON file to write. mvn -Pbenchmark
+ * verify runs it from Maven and writes target/hotpath-benchmark.json.
+ */
+public class HotPathBenchmark {
+  private static final String LOG_MESSAGE = "Server 1 records an order of Poutine, from Table 1\n";
+
+  private static volatile Object sink; // keeps results alive so the JIT cannot remove the work
+
+  private final int warmup;
+  private final int iterations;
+  private final long iterationNanos;
+
+  /** An operation to measure, run in batches. */
+  private interface Batch {
+    /** Prepares a batch, without the clock running. */
+    default void before() {
+    }
+
+    /** Runs the operation once; i counts the calls in the batch. */
+    void run(int i);
+
+    /** Puts the restaurant back after a batch, without the clock running. */
+    default void after() {
+    }
+  }
+
+  private HotPathBenchmark(int warmup, int iterations, long iterationMillis) {
+    this.warmup = warmup;
+    this.iterations = iterations;
+    this.iterationNanos = iterationMillis * 1000000;
+  }
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args settings given as name=value, all optional
+   */
+  public static void main(String[] args) throws IOException {
+    Map<String, String> settings = new LinkedHashMap<>();
+    for (String arg : args) {
+      int equals = arg.indexOf('=');
+      settings.put(arg.substring(0, equals), arg.substring(equals + 1));
+    }
+    int[] orderCounts = ints(settings.getOrDefault("orders", "10,1000"));
+    int[] tableCounts = ints(settings.getOrDefault("tables", "10,100"));
+    int[] menuSizes = ints(settings.getOrDefault("menu", "4,64"));
+    Path out = Paths.get(settings.getOrDefault("out", "hotpath-benchmark.json"));
+    HotPathBenchmark benchmark = new HotPathBenchmark(
+        Integer.parseInt(settings.getOrDefault("warmup", "3")),
+        Integer.parseInt(settings.getOrDefault("iterations", "5")),
+        Long.parseLong(settings.getOrDefault("millis", "200")));
+
+    Config.createConfiguration();
+    RestaurantLog.logger.setUseParentHandlers(false);
+    // Log as the restaurant does, without the log file's speed deciding the results
+    Path logFile = Files.createTempFile("log", ".txt");
+    new RestaurantLog(logFile.toString(), 1 << 16, RestaurantLog.FullPolicy.DROP);
+
+    List<Result> results = new ArrayList<>();
+    System.out.println(String.format("%-36s %7s %7s %7s %12s %10s", "benchmark", "orders",
+        "tables", "menu", "ns/op", "error"));
+    for (int orders : orderCounts) {
+      for (int tables : tableCounts) {
+        for (int menu : menuSizes) {
+          results.addAll(benchmark.runAll(new Fixture(orders, tables, menu)));
+        }
+      }
+    }
+    RestaurantLog.close();
+    Files.deleteIfExists(logFile);
+    try (Writer json = Files.newBufferedWriter(out)) {
+      writeJson(results, json);
+    }
+    System.out.println("Results written to " + out);
+  }
+
+  /** Measures every operation in one restaurant. */
+  private List<Result> runAll(Fixture f) {
+    List<Result> results = new ArrayList<>();
+    results.add(measure("Server.recordFoodOrder", f, 100, new Batch() {
+      public void run(int i) {
+        sink = f.server.recordFoodOrder(f.table, f.food(i), "Bill 1");
+      }
+
+      public void after() {
+        f.releaseRequests();
+      }
+    }));
+    results.add(measure("Server.placeOrder", f, 1, new Batch() {
+      public void before() {
+        f.server.recordFoodOrder(f.table, f.food(0), "Bill 1");
+      }
+
+      public void run(int i) {
+        sink = f.server.placeOrder(f.table);
+      }
+
+      public void after() {
+        f.removeNewestOrder();
+      }
+    }));
+    results.add(measure("Kitchen.isEnoughIngredients", f, 1000, new Batch() {
+      public void run(int i) {
+        sink = f.kitchen.isEnoughIngredients(f.food(i));
+      }
+
+      public void after() {
+        for (int i = 0; i < 1000; i++) {
+          f.kitchen.releaseIngredients(f.food(i));
+        }
+      }
+    }));
+    results.add(measure("Cook.prepFood", f, 1, new Batch() {
+      private Order order;
+
+      public void before() {
+        f.server.recordFoodOrder(f.table, f.food(0), "Bill 1");
+        f.server.placeOrder(f.table);
+        order = f.newestOrder();
+        f.cook.hasSeenOrder(order);
+      }
+
+      public void run(int i) {
+        sink = f.cook.prepFood(order);
+      }
+
+      public void after() {
+        f.removeNewestOrder();
+      }
+    }));
+    results.add(measure("Cook.getOrdersToPrepare", f, 1000,
+        i -> sink = f.cook.getOrdersToPrepare()));
+    results.add(measure("Food.equals", f, 1000,
+        i -> sink = f.food(i).equals(f.food(i + 1)) || f.food(i).equals(f.copies.get(i % f.copies.size()))));
+    results.add(measure("Table.getBill", f, 1000, i -> sink = f.table.getBill("Bill 1")));
+    results.add(measure("Table.getReceipts", f, 10, i -> sink = f.table.getReceipts()));
+    results.add(measure("Menu.generateMenu", f, 10, i -> sink = f.restaurant.getMenu().generateMenu()));
+    results.add(measure("RestaurantLog.entry", f, 1000, i -> RestaurantLog.entry("Fine", LOG_MESSAGE)));
+    return results;
+  }
+
+  /** Runs the warm up and timed iterations of an operation. */
+  private Result measure(String name, Fixture f, int batchSize, Batch batch) {
+    for (int i = 0; i < warmup; i++) {
+      iteration(batchSize, batch);
+    }
+    double[] scores = new double[iterations];
+    for (int i = 0; i < iterations; i++) {
+      scores[i] = iteration(batchSize, batch);
+    }
+    Result result = new Result(name, f, scores);
+    System.out.println(String.format("%-36s %7d %7d %7d %12.1f %10.1f", name, f.orders, f.tables,
+        f.menuSize, result.score(), result.error()));
+    return result;
+  }
+
+  /** Runs batches for one iteration's time and returns the average ns per call. */
+  private double iteration(int batchSize, Batch batch) {
+    long timed = 0;
+    long calls = 0;
+    long end = System.nanoTime() + iterationNanos;
+    while (System.nanoTime() < end) {
+      batch.before();
+      long start = System.nanoTime();
+      for (int i = 0; i < batchSize; i++) {
+        batch.run(i);
+      }
+      timed += System.nanoTime() - start;
+      calls += batchSize;
+      batch.after();
+    }
+    return (double) timed / calls;
+  }
+
+  /** Writes the results as a JSON array in the format of JMH's JSON output. */
+  private static void writeJson(List<Result> results, Writer json) throws IOException {
+    json.write("[\n");
+    for (int r = 0; r < results.size(); r++) {
+      Result result = results.get(r);
+      StringBuilder raw = new StringBuilder();
+      for (int i = 0; i < result.scores.length; i++) {
+        raw.append(i == 0 ? "" : ", ").append(format(result.scores[i]));
+      }
+      json.write(String.format("  {%n"
+          + "    \"benchmark\" : \"%s\",%n"
+          + "    \"mode\" : \"avgt\",%n"
+          + "    \"measurementIterations\" : %d,%n"
+          + "    \"params\" : {\"orders\" : \"%d\", \"tables\" : \"%d\", \"menu\" : \"%d\"},%n"
+          + "    \"primaryMetric\" : {%n"
+          + "      \"score\" : %s,%n"
+          + "      \"scoreError\" : %s,%n"
+          + "      \"scoreUnit\" : \"ns/op\",%n"
+          + "      \"rawData\" : [[%s]]%n"
+          + "    }%n"
+          + "  }%s%n",
+          result.name, result.scores.length, result.orders, result.tables, result.menuSize,
+          format(result.score()), format(result.error()), raw, r < results.size() - 1 ? "," : ""));
+    }
+    json.write("]\n");
+  }
+
+  private static String format(double value) {
+    return String.format(Locale.ROOT, "%.3f", value);
+  }
+
+  private static int[] ints(String list) {
+    String[] values = list.split(",");
+    int[] ints = new int[values.length];
+    for (int i = 0; i < values.length; i++) {
+      ints[i] = Integer.parseInt(values[i].trim());
+    }
+    return ints;
+  }
+
+  /** The timed iterations of one operation in one restaurant. */
+  private static class Result {
+    private final String name;
+    private final int orders;
+    private final int tables;
+    private final int menuSize;
+    private final double[] scores;
+
+    Result(String name, Fixture f, double[] scores) {
+      this.name = name;
+      this.orders = f.orders;
+      this.tables = f.tables;
+      this.menuSize = f.menuSize;
+      this.scores = scores;
+    }
+
+    double score() {
+      double total = 0;
+      for (double score : scores) {
+        total += score;
+      }
+      return total / scores.length;
+    }
+
+    /** Half the width of the 99.9% confidence interval of the score, as JMH reports it. */
+    double error() {
+      if (scores.length < 2) {
+        return 0;
+      }
+      double mean = score();
+      double squares = 0;
+      for (double score : scores) {
+        squares += (score - mean) * (score - mean);
+      }
+      return 3.291 * Math.sqrt(squares / (scores.length - 1)) / Math.sqrt(scores.length);
+    }
+  }
+
+  /**
+   * A restaurant with the given number of tables and menu items, and open orders spread over its
+   * tables. Every ingredient is stocked far beyond what the benchmark uses.
+   */
+  private static class Fixture {
+    private final int orders;
+    private final int tables;
+    private final int menuSize;
+    private final Restaurant restaurant = new Restaurant();
+    private final Kitchen kitchen = restaurant.getKitchen();
+    private final List<Food> foods = new ArrayList<>();
+    private final List<Food> copies = new ArrayList<>();
+    private final Server server;
+    private final Cook cook;
+    private final Table table;
+
+    Fixture(int orders, int tables, int menuSize) {
+      this.orders = orders;
+      this.tables = tables;
+      this.menuSize = menuSize;
+      Menu menu = restaurant.getMenu();
+      List<MenuItem> items = new ArrayList<>();
+      for (String name : new ArrayList<>(menu.getFoodNameList())) {
+        items.add(menu.getFood(name));
+      }
+      for (int i = items.size(); i < menuSize; i++) {
+        MenuItem item = items.get(i % items.size());
+        menu.addFoodMenu(new MenuItem(item.getName() + " " + i, item.getPrice(), item.getType(),
+            item.getIngredients()));
+      }
+      Set<String> ingredients = new HashSet<>();
+      for (String name : menu.getFoodNameList()) {
+        Food food = new Food(menu.getFood(name));
+        foods.add(food);
+        copies.add(new Food(menu.getFood(name)));
+        ingredients.addAll(food.getIngredients());
+      }
+      for (String ingredient : ingredients) {
+        kitchen.restockIngredients(ingredient, 100000000);
+      }
+      for (int i = restaurant.getTables().size() + 1; i <= tables; i++) {
+        restaurant.getTables().add(new Table(i));
+      }
+
+      server = (Server) restaurant.addEmployee("Server", "1", null);
+      String type = foods.get(0).getType();
+      cook = (Cook) restaurant.addEmployee("Cook", "1", type);
+      for (Table each : restaurant.getTables()) {
+        server.fillTable(each, "1", "2");
+      }
+      for (int i = 0; i < orders; i++) {
+        Table each = restaurant.getTables().get(i % restaurant.getTables().size());
+        server.recordFoodOrder(each, food(i), "Bill 1");
+        server.placeOrder(each);
+      }
+      for (Order order : new ArrayList<>(kitchen.getOrderList())) {
+        cook.hasSeenOrder(order);
+      }
+      table = restaurant.getTables().get(0);
+      // Food of the cook's type first, so the orders placed for Cook.prepFood have some
+      foods.sort((a, b) -> Boolean.compare(!a.getType().equals(type), !b.getType().equals(type)));
+    }
+
+    Food food(int i) {
+      return foods.get(i % foods.size());
+    }
+
+    /** Puts back the ingredients of the food recorded on the table and forgets the food. */
+    void releaseRequests() {
+      for (Food food : table.foodsToOrder.get("Bill 1")) {
+        kitchen.releaseIngredients(food);
+      }
+      table.foodsToOrder.get("Bill 1").clear();
+    }
+
+    Order newestOrder() {
+      List<Order> assigned = server.getAssignedOrders();
+      return assigned.get(assigned.size() - 1);
+    }
+
+    /** Takes the order placed last out of the restaurant again. */
+    void removeNewestOrder() {
+      Order order = newestOrder();
+      server.getAssignedOrders().remove(order);
+      kitchen.removeOrder(order);
+      table.removeOrder(order);
+      for (Food food : order.getFoods()) {
+        kitchen.releaseIngredients(food);
+      }
+    }
+  }
+}
@@ -0,0 +1,266 @@
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A registry of the ingredients stocked by a Kitchen. Each ingredient name is given a dense int id
+ * the first time it is registered, and its quantity and threshold are kept in parallel int arrays
+ * indexed by that id, so reading or changing stock never boxes or allocates.
+ *
+ * <p>Stock is guarded by a fixed set of striped locks, where ingredient id i belongs to stripe
+ * i % STRIPES. A reservation takes the stripes of all its ingredients in ascending order, so two
+ * servers ordering overlapping dishes can never deadlock, and dishes with no ingredient in common
+ * never wait on each other. Registering a new ingredient may grow the arrays, so it takes every
+ * stripe and publishes a fresh copy of the name-to-id map for lock-free lookups.
+ */
+public class IngredientRegistry implements Serializable {
+  private static final int INITIAL_CAPACITY = 16;
+  private static final int STRIPES = 16;
+
+  private volatile LinkedHashMap<String, Integer> ids;
+  private String[] names;
+  private int[] quantities;
+  private int[] thresholds;
+  private int size;
+  private final ReentrantLock[] stripes;
+
+  /** Constructor for an empty IngredientRegistry. */
+  IngredientRegistry() {
+    this.ids = new LinkedHashMap<>();
+    this.names = new String[INITIAL_CAPACITY];
+    this.quantities = new int[INITIAL_CAPACITY];
+    this.thresholds = new int[INITIAL_CAPACITY];
+    this.size = 0;
+    this.stripes = new ReentrantLock[STRIPES];
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new ReentrantLock();
+    }
+  }
+
+  /**
+   * Registers an ingredient with its starting quantity and threshold. If the ingredient is already
+   * registered, its stock is left untouched.
+   *
+   * @param ingredient name of the ingredient
+   * @param quantity starting quantity
+   * @param threshold quantity under which a restock is requested
+   * @return the id of the ingredient
+   */
+  int register(String ingredient, int quantity, int threshold) {
+    lockAll();
+    try {
+      Integer id = ids.get(ingredient);
+      if (id != null) {
+        return id;
+      }
+      if (size == names.length) {
+        int capacity = size * 2;
+        names = Arrays.copyOf(names, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        thresholds = Arrays.copyOf(thresholds, capacity);
+      }
+      names[size] = ingredient;
+      quantities[size] = quantity;
+      thresholds[size] = threshold;
+      LinkedHashMap<String, Integer> newIds = new LinkedHashMap<>(ids);
+      newIds.put(ingredient, size);
+      size += 1;
+      ids = newIds;
+      return size - 1;
+    } finally {
+      unlockAll();
+    }
+  }
+
+  /**
+   * Returns the id of an ingredient.
+   *
+   * @param ingredient name of the ingredient
+   * @return the id, or -1 if the ingredient is not registered
+   */
+  int idOf(String ingredient) {
+    Integer id = ids.get(ingredient);
+    return id == null ? -1 : id;
+  }
+
+  /**
+   * Checks if this ingredient has been registered.
+   *
+   * @param ingredient name of the ingredient
+   * @return true if the ingredient is registered
+   */
+  boolean contains(String ingredient) {
+    return ids.containsKey(ingredient);
+  }
+
+  /** @return number of registered ingredients */
+  int size() {
+    return ids.size();
+  }
+
+  /** @return name of the ingredient with this id */
+  String getName(int id) {
+    ReentrantLock lock = stripeOf(id);
+    lock.lock();
+    try {
+      return names[id];
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** @return quantity of the ingredient with this id */
+  int getQuantity(int id) {
+    ReentrantLock lock = stripeOf(id);
+    lock.lock();
+    try {
+      return quantities[id];
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** @return threshold of the ingredient with this id */
+  int getThreshold(int id) {
+    ReentrantLock lock = stripeOf(id);
+    lock.lock();
+    try {
+      return thresholds[id];
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Adds to the quantity of an ingredient. A negative amount takes stock away.
+   *
+   * @param id id of the ingredient
+   * @param amount amount to add
+   * @return the new quantity
+   */
+  int addQuantity(int id, int amount) {
+    ReentrantLock lock = stripeOf(id);
+    lock.lock();
+    try {
+      quantities[id] += amount;
+      return quantities[id];
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Sets the threshold of an ingredient.
+   *
+   * @param id id of the ingredient
+   * @param threshold the new threshold
+   */
+  void setThreshold(int id, int threshold) {
+    ReentrantLock lock = stripeOf(id);
+    lock.lock();
+    try {
+      thresholds[id] = threshold;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Takes the given amounts of several ingredients out of stock, all or nothing. Either every
+   * ingredient has enough stock and all of them are subtracted, or nothing changes.
+   *
+   * @param reservedIds ids of the ingredients, without repeats
+   * @param amounts amount of each ingredient, at the same index as its id
+   * @param count number of ingredients to reserve from the start of the arrays
+   * @return true if the ingredients were reserved
+   */
+  boolean reserve(int[] reservedIds, int[] amounts, int count) {
+    int locked = lockStripes(reservedIds, count);
+    try {
+      for (int i = 0; i < count; i++) {
+        if (quantities[reservedIds[i]] < amounts[i]) {
+          return false;
+        }
+      }
+      for (int i = 0; i < count; i++) {
+        quantities[reservedIds[i]] -= amounts[i];
+      }
+      return true;
+    } finally {
+      unlockStripes(locked);
+    }
+  }
+
+  /**
+   * Puts the given amounts of several ingredients back into stock, such as when a reserved food is
+   * deleted before it is ordered.
+   *
+   * @param reservedIds ids of the ingredients, without repeats
+   * @param amounts amount of each ingredient, at the same index as its id
+   * @param count number of ingredients to release from the start of the arrays
+   */
+  void release(int[] reservedIds, int[] amounts, int count) {
+    int locked = lockStripes(reservedIds, count);
+    try {
+      for (int i = 0; i < count; i++) {
+        quantities[reservedIds[i]] += amounts[i];
+      }
+    } finally {
+      unlockStripes(locked);
+    }
+  }
+
+  /**
+   * Read-only view of the registered ingredient names, in the order they were registered.
+   *
+   * @return set of ingredient names
+   */
+  Set<String> getNames() {
+    return Collections.unmodifiableSet(ids.keySet());
+  }
+
+  private ReentrantLock stripeOf(int id) {
+    return stripes[id % STRIPES];
+  }
+
+  /**
+   * Locks the stripes covering these ids in ascending stripe order.
+   *
+   * @return bit mask of the stripes that were locked
+   */
+  private int lockStripes(int[] lockIds, int count) {
+    int mask = 0;
+    for (int i = 0; i < count; i++) {
+      mask |= 1 << (lockIds[i] % STRIPES);
+    }
+    for (int i = 0; i < STRIPES; i++) {
+      if ((mask & (1 << i)) != 0) {
+        stripes[i].lock();
+      }
+    }
+    return mask;
+  }
+
+  private void unlockStripes(int mask) {
+    for (int i = STRIPES - 1; i >= 0; i--) {
+      if ((mask & (1 << i)) != 0) {
+        stripes[i].unlock();
+      }
+    }
+  }
+
+  private void lockAll() {
+    for (ReentrantLock stripe : stripes) {
+      stripe.lock();
+    }
+  }
+
+  private void unlockAll() {
+    for (int i = STRIPES - 1; i >= 0; i--) {
+      stripes[i].unlock();
+    }
+  }
+}
@@ -0,0 +1,762 @@
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An append-only journal of the changes made to a Restaurant, so that nothing is lost if the
+ * program stops without saving. Servers, Cooks, Managers and the Kitchen write an entry for every
+ * change they make, and on start up the journal is replayed on top of the last snapshot.
+ *
+ * <p>The journal is a directory of fixed-size JournalSegments mapped into memory. Writing an entry
+ * copies it into the current segment, with no system call, and a full segment is followed by a new
+ * one. A committer thread forces everything written so far to disk in one go, so the entries that
+ * arrive while one batch is being forced are all forced together by the next. Callers never wait
+ * for the disk unless they ask to with sync.
+ *
+ * <p>A checkpoint moves the journal on to a new segment, saves a snapshot that records the
+ * position of the last entry before it, and then deletes the older segments. If the program stops
+ * before they are deleted, their entries are already part of the snapshot and are skipped when
+ * the journal is replayed.
+ */
+public class Journal implements Closeable {
+  /** A journal that writes nothing, used by a Kitchen until a journal is attached. */
+  static final Journal DISABLED = new Journal();
+
+  private static final long CHECKPOINT_BYTES = 4 << 20;
+  private static final long COMMIT_INTERVAL_MILLIS = 2;
+
+  /** The kinds of change written to the journal. New kinds must be added at the end. */
+  enum Kind {
+    TABLE_FILLED,
+    FOOD_RECORDED,
+    FOOD_DELETED,
+    ORDER_PLACED,
+    ORDER_SEEN,
+    FOOD_PREPARED,
+    ORDER_DELIVERED,
+    FOOD_RETURNED,
+    FOOD_REMOVED,
+    FOOD_CANCELLED,
+    ORDER_CONFIRMED,
+    TABLE_CLEARED,
+    RESTOCKED,
+    THRESHOLD_CHANGED,
+    EMPLOYEE_ADDED,
+    EMPLOYEE_DELETED,
+    EMPLOYEE_UPDATED
+  }
+
+  /** Writes the fields of one entry. */
+  private interface Fields {
+    void write(DataOutputStream out) throws IOException;
+  }
+
+  /** A reusable buffer for encoding one entry, whose bytes can be copied out without a copy. */
+  private static class EntryBuffer extends ByteArrayOutputStream {
+    byte[] bytes() {
+      return buf;
+    }
+  }
+
+  private final Path directory;
+  private final Object fileLock = new Object(); // held while forcing or deleting segments
+  private final EntryBuffer entry = new EntryBuffer();
+  private final DataOutputStream entryOut = new DataOutputStream(entry);
+  private JournalSegment segment; // the segment entries are written to
+  private int offset; // where the next entry goes in the segment
+  private int forcedOffset; // everything in the segment before this offset is on disk
+  private final ArrayList<JournalSegment> filled = new ArrayList<>(); // full, not yet forced
+  private long position; // the last entry written
+  private long durablePosition; // the last entry forced to disk
+  private long bytesSinceCheckpoint;
+  private boolean checkpointRequested;
+  private Runnable checkpointHandler;
+  private IOException failure;
+  private boolean closed;
+  private boolean committerIdle; // the committer is waiting for entries to force
+  private int syncWaiters; // threads waiting in sync for their entries to be forced
+  private final Thread committer;
+
+  private Journal() {
+    this.directory = null;
+    this.committer = null;
+  }
+
+  private Journal(Path directory, JournalSegment segment, int offset, long position) {
+    this.directory = directory;
+    this.segment = segment;
+    this.offset = offset;
+    this.forcedOffset = offset;
+    this.position = position;
+    this.durablePosition = position;
+    this.committer = new Thread(this::commitLoop, "journal-committer");
+    this.committer.setDaemon(true);
+    this.committer.start();
+  }
+
+  /**
+   * Opens the journal directory, replays the entries the restaurant does not have yet, and
+   * attaches the journal to the restaurant's kitchen so that every change from now on is written
+   * to it. An entry cut short by a crash, and anything written after it, is discarded.
+   *
+   * @param directory the journal directory, created if it does not exist
+   * @param restaurant the restaurant loaded from the last snapshot
+   * @return the open journal
+   * @throws IOException if the journal cannot be read or written
+   */
+  static Journal open(Path directory, Restaurant restaurant) throws IOException {
+    Files.createDirectories(directory);
+    long position = restaurant.getJournalPosition();
+    JournalReader reader = new JournalReader(directory);
+    int replayed = 0;
+    for (ByteBuffer record = reader.next(); record != null; record = reader.next()) {
+      long entryPosition = record.getLong();
+      long time = record.getLong();
+      if (entryPosition > restaurant.getJournalPosition()) {
+        try {
+          apply(Kind.values()[record.get()], time,
+              new DataInputStream(new ByteBufferInput(record)), restaurant);
+          replayed += 1;
+        } catch (IOException | RuntimeException e) {
+          RestaurantLog.entry("warning", String.format(
+              "Cannot replay journal entry %d: %s%n", entryPosition, e));
+        }
+      }
+      position = Math.max(position, entryPosition);
+    }
+    if (replayed > 0) {
+      RestaurantLog.entry("Info", String.format("Replayed %d journal entries%n", replayed));
+    }
+
+    JournalSegment segment = reader.getSegment();
+    int offset = reader.getOffset();
+    if (segment == null) {
+      segment = JournalSegment.create(directory, position + 1);
+      offset = JournalSegment.HEADER_SIZE;
+    } else {
+      segment.clearFrom(offset);
+      List<Path> files = JournalSegment.list(directory);
+      for (Path file : files.subList(files.indexOf(segment.getFile()) + 1, files.size())) {
+        Files.delete(file);
+      }
+    }
+    restaurant.setJournalPosition(position);
+    Journal journal = new Journal(directory, segment, offset, position);
+    restaurant.getKitchen().setJournal(journal);
+    return journal;
+  }
+
+  /**
+   * Sets what to do once the journal has grown large enough to be worth a checkpoint. The handler
+   * is run once on the thread that wrote the entry, and again only after the next checkpoint.
+   *
+   * @param handler the handler, usually one that arranges for checkpoint to be called
+   */
+  synchronized void setCheckpointHandler(Runnable handler) {
+    this.checkpointHandler = handler;
+  }
+
+  /**
+   * Saves a snapshot of the restaurant and deletes the journal entries it includes. No changes may
+   * be made to the restaurant while the checkpoint runs, so it should be called from the thread
+   * that makes them.
+   *
+   * @param restaurant the restaurant to save
+   * @param snapshot the snapshot file
+   * @throws IOException if the snapshot or the journal cannot be written
+   */
+  void checkpoint(Restaurant restaurant, Path snapshot) throws IOException {
+    if (directory == null) {
+      RestaurantSnapshot.save(restaurant, snapshot);
+      return;
+    }
+    sync();
+    synchronized (fileLock) {
+      long upTo;
+      List<Path> old;
+      synchronized (this) {
+        upTo = position;
+        old = JournalSegment.list(directory);
+        // Every segment written so far is in the snapshot, so none of them is needed any more
+        for (JournalSegment done : filled) {
+          done.close();
+        }
+        filled.clear();
+        if (segment.getBasePosition() <= position) {
+          segment.close();
+          segment = JournalSegment.create(directory, position + 1);
+          offset = JournalSegment.HEADER_SIZE;
+          forcedOffset = offset;
+        }
+        old.remove(segment.getFile());
+        bytesSinceCheckpoint = 0;
+        checkpointRequested = false;
+      }
+      restaurant.setJournalPosition(upTo);
+      RestaurantSnapshot.save(restaurant, snapshot);
+      for (Path file : old) {
+        try {
+          Files.deleteIfExists(file);
+        } catch (IOException e) {
+          // Some systems keep a file while it is still mapped; its entries are skipped on open,
+          // and the next checkpoint deletes it
+          RestaurantLog.entry("warning", String.format("Cannot delete %s yet: %s%n", file, e));
+        }
+      }
+    }
+  }
+
+  /**
+   * Waits until every entry written so far has been forced to disk.
+   *
+   * @throws IOException if the journal could not be written
+   */
+  void sync() throws IOException {
+    if (directory == null) {
+      return;
+    }
+    synchronized (this) {
+      long target = position;
+      syncWaiters += 1;
+      notifyAll();
+      try {
+        while (durablePosition < target && failure == null) {
+          wait();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while waiting for the journal", e);
+      } finally {
+        syncWaiters -= 1;
+      }
+      if (failure != null) {
+        throw failure;
+      }
+    }
+  }
+
+  /** @return the position of the last entry written to this journal */
+  synchronized long getPosition() {
+    return position;
+  }
+
+  /**
+   * Forces every entry to disk, stops the committer and lets go of the segments. Changes made after
+   * the journal is closed are not written to it.
+   *
+   * @throws IOException if the journal could not be written
+   */
+  @Override
+  public void close() throws IOException {
+    if (directory == null) {
+      return;
+    }
+    try {
+      sync();
+    } finally {
+      synchronized (this) {
+        closed = true;
+        notifyAll();
+      }
+      try {
+        committer.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      synchronized (this) {
+        for (JournalSegment done : filled) {
+          done.close();
+        }
+        filled.clear();
+        segment.close();
+      }
+    }
+  }
+
+  void tableFilled(Table table, int numBills) {
+    append(Kind.TABLE_FILLED, System.currentTimeMillis(), out -> {
+      out.writeInt(table.getTableNum());
+      out.writeInt(numBills);
+      out.writeInt(table.numCustomers);
+    });
+  }
+
+  void foodRecorded(Table table, String billId, Food food) {
+    append(Kind.FOOD_RECORDED, System.currentTimeMillis(), out -> {
+      out.writeInt(table.getTableNum());
+      out.writeUTF(billId);
+      writeFood(food, out);
+    });
+  }
+
+  void foodDeleted(Table table, String billId, int index) {
+    append(Kind.FOOD_DELETED, System.currentTimeMillis(), out -> {
+      out.writeInt(table.getTableNum());
+      out.writeUTF(billId);
+      out.writeInt(index);
+    });
+  }
+
+  void orderPlaced(Server server, Order order) {
+    append(Kind.ORDER_PLACED, order.getStateTime(order.getState()), out -> {
+      out.writeUTF(server.getId());
+      out.writeInt(order.getTableNum());
+      out.writeUTF(order.billId);
+      out.writeLong(order.getId());
+    });
+  }
+
+  void orderSeen(Cook cook, Order order) {
+    append(Kind.ORDER_SEEN, order.getStateTime(order.getState()), out -> {
+      out.writeUTF(cook.getId());
+      out.writeLong(order.getId());
+    });
+  }
+
+  void foodPrepared(Cook cook, Order order) {
+    append(Kind.FOOD_PREPARED, order.getStateTime(order.getState()), out -> {
+      out.writeUTF(cook.getType());
+      out.writeLong(order.getId());
+    });
+  }
+
+  void orderDelivered(Table table, Order order) {
+    append(Kind.ORDER_DELIVERED, order.getStateTime(order.getState()), out -> {
+      out.writeInt(table.getTableNum());
+      out.writeLong(order.getId());
+    });
+  }
+
+  void foodReturned(Table table, Order order, Food food) {
+    append(Kind.FOOD_RETURNED, order.getStateTime(order.getState()), out -> {
+      out.writeInt(table.getTableNum());
+      out.writeLong(order.getId());
+      writeFood(food, out);
+    });
+  }
+
+  void foodRemoved(Order order, int index) {
+    append(Kind.FOOD_REMOVED, System.currentTimeMillis(), out -> {
+      out.writeLong(order.getId());
+      out.writeInt(index);
+    });
+  }
+
+  void foodCancelled(Table table, Order order, int index) {
+    append(Kind.FOOD_CANCELLED, order.getStateTime(order.getState()), out -> {
+      out.writeInt(table.getTableNum());
+      out.writeLong(order.getId());
+      out.writeInt(index);
+    });
+  }
+
+  void orderConfirmed(Server server, Order order) {
+    append(Kind.ORDER_CONFIRMED, order.getStateTime(order.getState()), out -> {
+      out.writeUTF(server.getId());
+      out.writeLong(order.getId());
+    });
+  }
+
+  void tableCleared(Table table) {
+    append(Kind.TABLE_CLEARED, System.currentTimeMillis(),
+        out -> out.writeInt(table.getTableNum()));
+  }
+
+  void restocked(String ingredient, int quantity) {
+    append(Kind.RESTOCKED, System.currentTimeMillis(), out -> {
+      out.writeUTF(ingredient);
+      out.writeInt(quantity);
+    });
+  }
+
+  void thresholdChanged(String ingredient, int threshold) {
+    append(Kind.THRESHOLD_CHANGED, System.currentTimeMillis(), out -> {
+      out.writeUTF(ingredient);
+      out.writeInt(threshold);
+    });
+  }
+
+  void employeeAdded(String job, String id, String cookType) {
+    append(Kind.EMPLOYEE_ADDED, System.currentTimeMillis(), out -> {
+      out.writeUTF(job);
+      out.writeUTF(id);
+      out.writeUTF(cookType);
+    });
+  }
+
+  void employeeDeleted(String job, String id) {
+    append(Kind.EMPLOYEE_DELETED, System.currentTimeMillis(), out -> {
+      out.writeUTF(job);
+      out.writeUTF(id);
+    });
+  }
+
+  void employeeUpdated(Employee employee) {
+    append(Kind.EMPLOYEE_UPDATED, System.currentTimeMillis(), out -> {
+      out.writeUTF(employee.getJob());
+      out.writeUTF(employee.getId());
+      out.writeUTF(employee.getAttendance());
+      out.writeUTF(employee.getPassword());
+    });
+  }
+
+  /**
+   * Copies one entry into the current segment, moving on to a new segment if it does not fit.
+   * Entries about an order carry the time the order entered its current state, which replaying
+   * restores.
+   */
+  private void append(Kind kind, long time, Fields fields) {
+    if (directory == null) {
+      return;
+    }
+    Runnable handler = null;
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      try {
+        entry.reset();
+        entryOut.writeLong(position + 1);
+        entryOut.writeLong(time);
+        entryOut.writeByte(kind.ordinal());
+        fields.write(entryOut);
+        if (!segment.append(offset, entry.bytes(), entry.size())) {
+          segment.markEnd(offset);
+          filled.add(segment);
+          segment = JournalSegment.create(directory, position + 1);
+          offset = JournalSegment.HEADER_SIZE;
+          forcedOffset = offset;
+          if (!segment.append(offset, entry.bytes(), entry.size())) {
+            throw new IllegalArgumentException("Journal entry too large: " + entry.size());
+          }
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      offset += JournalSegment.RECORD_HEADER_SIZE + entry.size();
+      position += 1;
+      bytesSinceCheckpoint += JournalSegment.RECORD_HEADER_SIZE + entry.size();
+      if (bytesSinceCheckpoint >= CHECKPOINT_BYTES && !checkpointRequested) {
+        checkpointRequested = true;
+        handler = checkpointHandler;
+      }
+      if (committerIdle) {
+        notifyAll();
+      }
+    }
+    if (handler != null) {
+      handler.run();
+    }
+  }
+
+  /** Forces each batch of written entries to disk until the journal is closed. */
+  private void commitLoop() {
+    while (true) {
+      long upTo;
+      JournalSegment current;
+      int from;
+      int to;
+      ArrayList<JournalSegment> full;
+      synchronized (this) {
+        while (durablePosition == position && !closed) {
+          committerIdle = true;
+          try {
+            wait();
+          } catch (InterruptedException e) {
+            return;
+          } finally {
+            committerIdle = false;
+          }
+        }
+        if (durablePosition == position) {
+          return;
+        }
+        upTo = position;
+        current = segment;
+        from = forcedOffset;
+        to = offset;
+        forcedOffset = offset;
+        full = new ArrayList<>(filled);
+        filled.clear();
+      }
+      try {
+        synchronized (fileLock) {
+          for (JournalSegment done : full) {
+            done.force(0, JournalSegment.SIZE);
+          }
+          current.force(from, to);
+        }
+        synchronized (this) {
+          durablePosition = upTo;
+          notifyAll();
+          // Let a few entries gather before the next force, unless someone is waiting for them
+          long deadline = System.currentTimeMillis() + COMMIT_INTERVAL_MILLIS;
+          long remaining = COMMIT_INTERVAL_MILLIS;
+          while (syncWaiters == 0 && !closed && remaining > 0) {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+          }
+        }
+      } catch (InterruptedException e) {
+        return;
+      } catch (UncheckedIOException e) {
+        RestaurantLog.entry("warning", String.format("Cannot write the journal: %s%n", e));
+        synchronized (this) {
+          failure = e.getCause();
+          notifyAll();
+        }
+        return;
+      }
+    }
+  }
+
+  /** Reads the fields of an entry straight from its segment. */
+  private static class ByteBufferInput extends InputStream {
+    private final ByteBuffer buffer;
+
+    ByteBufferInput(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int off, int len) {
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      int count = Math.min(len, buffer.remaining());
+      buffer.get(bytes, off, count);
+      return count;
+    }
+  }
+
+  private static void writeFood(Food food, DataOutputStream out) throws IOException {
+    MenuItem item = food.getItem();
+    out.writeUTF(item.getName());
+    out.writeDouble(item.getPrice());
+    out.writeUTF(item.getType());
+    out.writeBoolean(item.checkIsDiscounted());
+    writeStrings(item.getIngredients(), out);
+    out.writeBoolean(food.getReady());
+    out.writeBoolean(food.isModified());
+    if (food.isModified()) {
+      writeStrings(food.getIngredients(), out);
+    }
+  }
+
+  /** Reads a food, sharing the menu's item when the journaled item is the one on the menu. */
+  private static Food readFood(Menu menu, DataInputStream in) throws IOException {
+    String name = in.readUTF();
+    double price = in.readDouble();
+    String type = in.readUTF();
+    boolean isDiscounted = in.readBoolean();
+    List<String> ingredients = readStrings(in);
+    MenuItem item = menu.getFood(name);
+    if (item == null || item.getPrice() != price || !item.getType().equals(type)
+        || item.checkIsDiscounted() != isDiscounted || !item.getIngredients().equals(ingredients)) {
+      item = new MenuItem(name, price, type, ingredients, isDiscounted);
+    }
+    boolean isReady = in.readBoolean();
+    List<String> modified = in.readBoolean() ? readStrings(in) : null;
+    return new Food(item, modified, isReady);
+  }
+
+  private static void writeStrings(List<String> strings, DataOutputStream out)
+      throws IOException {
+    out.writeShort(strings.size());
+    for (String string : strings) {
+      out.writeUTF(string);
+    }
+  }
+
+  private static List<String> readStrings(DataInputStream in) throws IOException {
+    int size = in.readUnsignedShort();
+    ArrayList<String> strings = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      strings.add(in.readUTF());
+    }
+    return strings;
+  }
+
+  /**
+   * Makes the change described by one entry, the same way the Server, Cook or Manager did. Orders
+   * moved to a new state get the time of the entry rather than the time of the replay.
+   */
+  private static void apply(Kind kind, long time, DataInputStream in, Restaurant restaurant)
+      throws IOException {
+    Kitchen kitchen = restaurant.getKitchen();
+    switch (kind) {
+      case TABLE_FILLED: {
+        Table table = restaurant.getTable(in.readInt());
+        table.setCustomers(String.valueOf(in.readInt()), String.valueOf(in.readInt()));
+        table.isOccupied = true;
+        break;
+      }
+      case FOOD_RECORDED: {
+        Table table = restaurant.getTable(in.readInt());
+        String billId = in.readUTF();
+        Food food = readFood(restaurant.getMenu(), in);
+        kitchen.isEnoughIngredients(food);
+        table.addFoodOrder(food, billId);
+        break;
+      }
+      case FOOD_DELETED: {
+        Table table = restaurant.getTable(in.readInt());
+        Food food = table.foodsToOrder.get(in.readUTF()).remove(in.readInt());
+        kitchen.releaseIngredients(food);
+        break;
+      }
+      case ORDER_PLACED: {
+        Server server = (Server) restaurant.getWorker("Server", in.readUTF());
+        Table table = restaurant.getTable(in.readInt());
+        String billId = in.readUTF();
+        long id = in.readLong();
+        server.placeBill(table, billId, id).restoreStateTime(time);
+        kitchen.getOrderIds().advancePast(id);
+        break;
+      }
+      case ORDER_SEEN: {
+        Cook cook = (Cook) restaurant.getWorker("Cook", in.readUTF());
+        Order order = findOrder(restaurant, in.readLong());
+        cook.setSeenUpTo(Math.max(cook.getSeenUpTo(), order.getId()));
+        if (order.setSeen()) {
+          order.restoreStateTime(time);
+        }
+        break;
+      }
+      case FOOD_PREPARED: {
+        String type = in.readUTF();
+        Order order = findOrder(restaurant, in.readLong());
+        boolean filled = true;
+        for (Food food : order.getFoods()) {
+          if (type.equals(food.getType())) {
+            food.setReady();
+          }
+          filled &= food.getReady();
+        }
+        kitchen.dispatch(order);
+        if (filled && order.setFilled()) {
+          order.restoreStateTime(time);
+        }
+        break;
+      }
+      case ORDER_DELIVERED: {
+        Table table = restaurant.getTable(in.readInt());
+        Order order = findOrder(restaurant, in.readLong());
+        if (order.setDelivered()) {
+          order.restoreStateTime(time);
+        }
+        table.addOrder(order);
+        kitchen.removeOrder(order);
+        break;
+      }
+      case FOOD_RETURNED: {
+        Table table = restaurant.getTable(in.readInt());
+        Order order = findOrder(restaurant, in.readLong());
+        Food food = readFood(restaurant.getMenu(), in);
+        kitchen.isEnoughIngredients(food);
+        table.addFoodOrder(food, order.billId);
+        if (order.setReturned()) {
+          order.restoreStateTime(time);
+        }
+        break;
+      }
+      case FOOD_REMOVED: {
+        Order order = findOrder(restaurant, in.readLong());
+        order.deleteFood(in.readInt());
+        break;
+      }
+      case FOOD_CANCELLED: {
+        Table table = restaurant.getTable(in.readInt());
+        Order order = findOrder(restaurant, in.readLong());
+        order.deleteFood(in.readInt());
+        if (order.getFoods().isEmpty()) {
+          if (order.setCancelled()) {
+            order.restoreStateTime(time);
+          }
+          kitchen.removeOrder(order);
+          table.removeOrder(order);
+        } else {
+          kitchen.dispatch(order);
+        }
+        break;
+      }
+      case ORDER_CONFIRMED: {
+        Server server = (Server) restaurant.getWorker("Server", in.readUTF());
+        Order order = findOrder(restaurant, in.readLong());
+        if (order.setConfirmed()) {
+          order.restoreStateTime(time);
+        }
+        server.getAssignedOrders().remove(order);
+        break;
+      }
+      case TABLE_CLEARED: {
+        Table table = restaurant.getTable(in.readInt());
+        table.isOccupied = false;
+        // Not added to Server's revenue, which is only the revenue since the restaurant was started
+        table.clearOrders();
+        table.clearFoodsToOrder();
+        table.numCustomers = 0;
+        break;
+      }
+      case RESTOCKED:
+        kitchen.restockIngredients(in.readUTF(), in.readInt());
+        break;
+      case THRESHOLD_CHANGED:
+        kitchen.setThreshold(in.readUTF(), in.readInt());
+        break;
+      case EMPLOYEE_ADDED:
+        restaurant.addEmployee(in.readUTF(), in.readUTF(), in.readUTF());
+        break;
+      case EMPLOYEE_DELETED:
+        restaurant.deleteEmployee(in.readUTF(), in.readUTF());
+        break;
+      case EMPLOYEE_UPDATED: {
+        Employee employee = restaurant.getWorker(in.readUTF(), in.readUTF());
+        employee.attendance = in.readUTF();
+        employee.setPassword(employee.getPassword(), in.readUTF());
+        break;
+      }
+      default:
+        throw new IOException("Unknown journal entry " + kind);
+    }
+  }
+
+  /** Finds an order by id wherever it is: in the kitchen, with a server or on a table. */
+  private static Order findOrder(Restaurant restaurant, long id) throws IOException {
+    Order order = restaurant.getKitchen().getOrder(id);
+    if (order != null) {
+      return order;
+    }
+    for (Server server : restaurant.getServers()) {
+      for (Order assigned : server.getAssignedOrders()) {
+        if (assigned.getId() == id) {
+          return assigned;
+        }
+      }
+    }
+    for (Table table : restaurant.getTables()) {
+      for (ArrayList<Order> bill : table.orders.values()) {
+        for (Order placed : bill) {
+          if (placed.getId() == id) {
+            return placed;
+          }
+        }
+      }
+    }
+    throw new IOException("Journal refers to unknown Order " + id);
+  }
+}
@@ -0,0 +1,79 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Reads the records of a Journal in order, segment by segment. Records are returned as read-only
+ * views of the mapped segments, so reading one copies nothing and makes no system call.
+ *
+ * <p>A reader can tail a journal that is still being written: once it has read every record it
+ * returns null, and later calls return the records written since, following the journal into new
+ * segments as they are created.
+ */
+class JournalReader {
+  private final Path directory;
+  private JournalSegment segment;
+  private int offset;
+
+  /**
+   * Constructor for a reader that starts at the first record of the journal.
+   *
+   * @param directory the journal directory
+   */
+  JournalReader(Path directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Returns the next record.
+   *
+   * @return a read-only view of the next record, or null if no complete record follows yet
+   * @throws IOException if a segment cannot be read
+   */
+  ByteBuffer next() throws IOException {
+    while (true) {
+      if (segment == null || segment.lengthAt(offset) == JournalSegment.END) {
+        JournalSegment following = nextSegment();
+        if (following == null) {
+          return null;
+        }
+        segment = following;
+        offset = JournalSegment.HEADER_SIZE;
+        continue;
+      }
+      ByteBuffer record = segment.read(offset);
+      if (record == null) {
+        if (Files.exists(segment.getFile())) {
+          return null;
+        }
+        // A checkpoint deleted this segment; go on from the oldest one left
+        segment = null;
+        continue;
+      }
+      offset += JournalSegment.RECORD_HEADER_SIZE + record.remaining();
+      return record;
+    }
+  }
+
+  /** @return the segment the reader is in, or null if the journal has no segments yet */
+  JournalSegment getSegment() {
+    return segment;
+  }
+
+  /** @return the offset in the current segment just after the last record read */
+  int getOffset() {
+    return offset;
+  }
+
+  /** Opens the segment written after the current one, or returns null if there is none yet. */
+  private JournalSegment nextSegment() throws IOException {
+    List<Path> files = JournalSegment.list(directory);
+    int index = segment == null ? 0 : files.indexOf(segment.getFile()) + 1;
+    if (index >= files.size()) {
+      return null;
+    }
+    return JournalSegment.open(files.get(index));
+  }
+}
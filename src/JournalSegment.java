@@ -0,0 +1,220 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * One fixed-size file of the Journal, mapped into memory. Records are written one after another
+ * after a short header, each as its length, a checksum of its bytes and the bytes themselves.
+ * Writing or reading a record is a copy to or from memory; nothing reaches the disk until the
+ * segment is forced.
+ *
+ * <p>The length of a record is written last, so a record whose length is 0 has not been written
+ * yet, and a record whose checksum does not match was cut short by a crash. A segment that filled
+ * up ends with the length END, and the Journal goes on in the next segment. Segment files are named
+ * after the position of their first entry, so they sort in the order they were written.
+ */
+class JournalSegment {
+  static final int SIZE = 1 << 20;
+  static final int HEADER_SIZE = 16;
+  static final int RECORD_HEADER_SIZE = 8;
+  static final int END = -1;
+  private static final int MAGIC = 0x524D534A; // "RMSJ"
+  private static final int VERSION = 2;
+  private static final String SUFFIX = ".seg";
+
+  private final Path file;
+  private final long basePosition;
+  private MappedByteBuffer buffer; // null once the segment is closed
+
+  private JournalSegment(Path file, long basePosition, MappedByteBuffer buffer) {
+    this.file = file;
+    this.basePosition = basePosition;
+    this.buffer = buffer;
+  }
+
+  /**
+   * Creates a new, empty segment. The file only appears under its name once its header is on
+   * disk, so a reader never finds a segment that is not ready.
+   *
+   * @param directory the journal directory
+   * @param basePosition position of the first entry that will be written to the segment
+   * @return the new segment
+   * @throws IOException if the file cannot be created
+   */
+  static JournalSegment create(Path directory, long basePosition) throws IOException {
+    Path file = directory.resolve(String.format("%020d%s", basePosition, SUFFIX));
+    Path temp = directory.resolve(file.getFileName() + ".tmp");
+    MappedByteBuffer buffer = map(temp, StandardOpenOption.CREATE);
+    buffer.putInt(0, MAGIC);
+    buffer.putInt(4, VERSION);
+    buffer.putLong(8, basePosition);
+    buffer.force();
+    if (Files.exists(file)) {
+      throw new IOException("Journal segment already exists: " + file);
+    }
+    Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+    return new JournalSegment(file, basePosition, buffer);
+  }
+
+  /**
+   * Opens an existing segment.
+   *
+   * @param file the segment file
+   * @return the segment
+   * @throws IOException if the file cannot be read or is not a journal segment
+   */
+  static JournalSegment open(Path file) throws IOException {
+    if (Files.size(file) != SIZE) {
+      throw new IOException("Not a journal segment: " + file);
+    }
+    MappedByteBuffer buffer = map(file, StandardOpenOption.WRITE);
+    if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+      throw new IOException("Not a journal segment: " + file);
+    }
+    return new JournalSegment(file, buffer.getLong(8), buffer);
+  }
+
+  /**
+   * Lists the segment files of a journal in the order they were written.
+   *
+   * @param directory the journal directory
+   * @return the segment files, oldest first
+   * @throws IOException if the directory cannot be read
+   */
+  static List<Path> list(Path directory) throws IOException {
+    ArrayList<Path> files = new ArrayList<>();
+    try (Stream<Path> entries = Files.list(directory)) {
+      entries.filter(file -> file.getFileName().toString().endsWith(SUFFIX)).forEach(files::add);
+    }
+    Collections.sort(files);
+    return files;
+  }
+
+  private static MappedByteBuffer map(Path file, StandardOpenOption mode) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, mode, StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      return channel.map(FileChannel.MapMode.READ_WRITE, 0, SIZE);
+    }
+  }
+
+  /** @return the segment file */
+  Path getFile() {
+    return file;
+  }
+
+  /** @return position of the first entry in this segment */
+  long getBasePosition() {
+    return basePosition;
+  }
+
+  /**
+   * Returns the length written at an offset: the length of a record, 0 if nothing has been written
+   * there yet, or END if the segment ends there.
+   */
+  int lengthAt(int offset) {
+    if (offset > SIZE - RECORD_HEADER_SIZE) {
+      return END;
+    }
+    return buffer.getInt(offset);
+  }
+
+  /**
+   * Returns the bytes of the record at an offset, without copying them.
+   *
+   * @param offset where the record starts
+   * @return a read-only view of the record, or null if there is no complete record there
+   */
+  ByteBuffer read(int offset) {
+    int length = lengthAt(offset);
+    if (length <= 0 || length > SIZE - offset - RECORD_HEADER_SIZE) {
+      return null;
+    }
+    ByteBuffer record = buffer.duplicate();
+    record.limit(offset + RECORD_HEADER_SIZE + length).position(offset + RECORD_HEADER_SIZE);
+    record = record.slice().asReadOnlyBuffer();
+    CRC32C checksum = new CRC32C();
+    checksum.update(record.duplicate());
+    if ((int) checksum.getValue() != buffer.getInt(offset + 4)) {
+      return null;
+    }
+    return record;
+  }
+
+  /**
+   * Writes a record at an offset. The length is written after the rest, so the record only counts
+   * once it is whole.
+   *
+   * @param offset where the record starts
+   * @param bytes the record's bytes
+   * @param length the number of bytes in the record
+   * @return false if the record does not fit in the rest of this segment
+   */
+  boolean append(int offset, byte[] bytes, int length) {
+    if (length > SIZE - offset - RECORD_HEADER_SIZE) {
+      return false;
+    }
+    CRC32C checksum = new CRC32C();
+    checksum.update(bytes, 0, length);
+    buffer.putInt(offset + 4, (int) checksum.getValue());
+    ByteBuffer body = buffer.duplicate();
+    body.position(offset + RECORD_HEADER_SIZE);
+    body.put(bytes, 0, length);
+    buffer.putInt(offset, length);
+    return true;
+  }
+
+  /**
+   * Marks the end of this segment, so readers go on to the next one.
+   *
+   * @param offset the offset after the last record
+   */
+  void markEnd(int offset) {
+    if (offset <= SIZE - 4) {
+      buffer.putInt(offset, END);
+    }
+  }
+
+  /**
+   * Clears everything from an offset to the end, such as what is left of a record cut short.
+   *
+   * @param offset the offset to clear from
+   */
+  void clearFrom(int offset) {
+    for (int i = offset; i < SIZE; i++) {
+      buffer.put(i, (byte) 0);
+    }
+  }
+
+  /**
+   * Forces this segment to disk and lets go of its mapping. Java only unmaps a file once nothing
+   * refers to its buffer, so a closed segment must not be used, and should not be kept either.
+   */
+  void close() {
+    if (buffer != null) {
+      buffer.force();
+      buffer = null;
+    }
+  }
+
+  /**
+   * Forces the bytes between two offsets to disk. Nothing is left to force in a closed segment.
+   *
+   * @param from the first offset to force
+   * @param to the offset after the last one to force
+   */
+  void force(int from, int to) {
+    if (to > from && buffer != null) {
+      buffer.force(from, to - from);
+    }
+  }
+}
@@ -1,6 +1,9 @@
-import java.io.*;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongFunction;
 import java.io.Serializable;
 
 /**
@@ -10,15 +13,32 @@ import java.io.Serializable;
  */
 
 public class Kitchen implements Serializable {
-    private HashMap<String, ArrayList> ingredients;
-    private ArrayList<Order> orderList;
+    private IngredientRegistry ingredients;
+    private ConcurrentSkipListMap<Long, Order> orders; // order id to order, oldest first
+    private ConcurrentHashMap<String, StationQueue> stations; // food type to its station's queue
+    private OrderIdAllocator orderIds;
+    private transient RestockRequests requests;
+    private transient volatile Journal journal;
+    private transient volatile OrderBus bus;
+    private transient volatile KitchenActor writer; // runs every change when the kitchen has one
 
     /**
      * Constructor for Kitchen class.
      */
     Kitchen(){
-        ingredients = new HashMap<>();
-        orderList = new ArrayList<>();
+        this(new OrderIdAllocator());
+    }
+
+    /**
+     * Constructor for a Kitchen that hands out order ids from the given allocator, such as one
+     * restored from a save.
+     * @param orderIds allocator for order ids
+     */
+    Kitchen(OrderIdAllocator orderIds){
+        ingredients = new IngredientRegistry();
+        orders = new ConcurrentSkipListMap<>();
+        stations = new ConcurrentHashMap<>();
+        this.orderIds = orderIds;
     }
 
     /**
@@ -27,13 +47,13 @@ public class Kitchen implements Serializable {
      * @param quantity quantity of ingredient
      * @param threshold threshold of quantity
      */
-    void addIngredients(String ingredient, Integer quantity, Integer threshold){
-        if(!ingredients.containsKey(ingredient)){
-            ArrayList<Integer> num = new ArrayList<>();
-            num.add(quantity);
-            num.add(threshold);
-            ingredients.put(ingredient,num);
+    void addIngredients(String ingredient, int quantity, int threshold){
+        KitchenActor other = otherWriter();
+        if (other != null) {
+            other.run(() -> addIngredients(ingredient, quantity, threshold));
+            return;
         }
+        ingredients.register(ingredient, quantity, threshold);
     }
 
     /**
@@ -41,14 +61,54 @@ public class Kitchen implements Serializable {
      * @param ingredient ingredient to subtract
      * @param quantity quantity of ingredient
      */
-    void subtractIngredients(String ingredient, Integer quantity) {
-        if(ingredients.containsKey(ingredient)) {
-            ArrayList<Integer> num = new ArrayList<>();
-            int initialQuantity = (int)this.ingredients.get(ingredient).get(0);
-            int finalQuantity = initialQuantity - quantity;
-            num.add(finalQuantity);
-            num.add((Integer) ingredients.get(ingredient).get(1));
-            ingredients.put(ingredient, num);
+    void subtractIngredients(String ingredient, int quantity) {
+        KitchenActor other = otherWriter();
+        if (other != null) {
+            other.run(() -> subtractIngredients(ingredient, quantity));
+            return;
+        }
+        int id = ingredients.idOf(ingredient);
+        if(id != -1) {
+            ingredients.addQuantity(id, -quantity);
+        }
+    }
+
+    /**
+     * A method in Kitchen that restocks an ingredient. An ingredient that is not stocked yet is
+     * added with the given quantity as both its quantity and threshold.
+     * @param ingredient ingredient to restock
+     * @param quantity quantity to add
+     * @return quantity of ingredient before the restock
+     */
+    int restockIngredients(String ingredient, int quantity) {
+        KitchenActor other = otherWriter();
+        if (other != null) {
+            return other.call(() -> restockIngredients(ingredient, quantity));
+        }
+        getJournal().restocked(ingredient, quantity);
+        int id = ingredients.idOf(ingredient);
+        if(id == -1) {
+            ingredients.register(ingredient, quantity, quantity);
+            return 0;
+        }
+        return ingredients.addQuantity(id, quantity) - quantity;
+    }
+
+    /**
+     * A method in Kitchen that changes the threshold of an ingredient.
+     * @param ingredient the ingredient involved
+     * @param threshold new threshold of ingredient
+     */
+    void setThreshold(String ingredient, int threshold) {
+        KitchenActor other = otherWriter();
+        if (other != null) {
+            other.run(() -> setThreshold(ingredient, threshold));
+            return;
+        }
+        int id = ingredients.idOf(ingredient);
+        if(id != -1) {
+            ingredients.setThreshold(id, threshold);
+            getJournal().thresholdChanged(ingredient, threshold);
         }
     }
 
@@ -59,8 +119,9 @@ public class Kitchen implements Serializable {
      */
 
     int getQuantity(String ingredient){
-        if(ingredients.containsKey(ingredient)){
-            return (int)ingredients.get(ingredient).get(0);
+        int id = ingredients.idOf(ingredient);
+        if(id != -1){
+            return ingredients.getQuantity(id);
         }
         return 0;
     }
@@ -71,64 +132,242 @@ public class Kitchen implements Serializable {
      * @return int, threshold of ingredient
      */
     int getThreshold(String ingredient){
-        if(ingredients.containsKey(ingredient)){
-            return (int)ingredients.get(ingredient).get(1);
+        int id = ingredients.idOf(ingredient);
+        if(id != -1){
+            return ingredients.getThreshold(id);
         }
         return 0;
     }
 
     /**
-     * A method to return the list of orders.
-     * @return list of orders
+     * A method that checks if the kitchen stocks this ingredient.
+     * @param ingredient the ingredient involved
+     * @return true if the ingredient is stocked
+     */
+    boolean hasIngredient(String ingredient) {
+        return ingredients.contains(ingredient);
+    }
+
+    /**
+     * A method to return a read-only view of the orders in the kitchen, oldest first. The view may
+     * be read while orders are added and removed, and sees each order at most once.
+     * @return collection of orders
+     */
+    Collection<Order> getOrderList() {
+        return Collections.unmodifiableCollection(orders.values());
+    }
+
+    /**
+     * A method that sends an order to the kitchen.
+     * @param order order to add
+     */
+    void addOrder(Order order) {
+        KitchenActor other = otherWriter();
+        if (other != null) {
+            other.run(() -> addOrder(order));
+            return;
+        }
+        orders.put(order.getId(), order);
+        for (Food food : order.getFoods()) {
+            getStation(food.getType());
+        }
+        dispatch(order);
+        publish(order);
+    }
+
+    /**
+     * A method that hands out a new order id and has the order made with it sent to the kitchen, as
+     * one step. Ids only go up and are never reused, even after a restart, and since no other
+     * order is placed in between, an order reaches the kitchen only after every order with a
+     * smaller id did. Cooks rely on this to skip the ids that are not in the kitchen.
+     * @param place makes the order with the given id and sends it to the kitchen
+     * @return the new order
+     */
+    Order placeOrder(LongFunction<Order> place) {
+        synchronized (orderIds) { // places orders one at a time
+            return place.apply(orderIds.nextId());
+        }
+    }
+
+    /**
+     * A method to return the journal that changes to the restaurant are written to, which is a
+     * journal that writes nothing until one is attached.
+     * @return the journal
+     */
+    Journal getJournal() {
+        Journal attached = journal;
+        return attached != null ? attached : Journal.DISABLED;
+    }
+
+    /**
+     * A method to attach the journal that changes to the restaurant are written to.
+     * @param journal the journal, or null to stop journaling
+     */
+    void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * A method to return the bus that tells subscribers when an order changes. The bus is only
+     * created the first time this is called.
+     * @return the order bus
+     */
+    synchronized OrderBus getOrderBus() {
+        if (bus == null) {
+            bus = new OrderBus();
+        }
+        return bus;
+    }
+
+    /**
+     * A method that tells the subscribers of the order bus, if there are any, that an order
+     * changed. Called after every change to the state or food of an order.
+     * @param order the order that changed
+     */
+    void publish(Order order) {
+        OrderBus subscribed = bus;
+        if (subscribed != null) {
+            subscribed.publish(order);
+        }
+    }
+
+    /**
+     * A method that starts running every change to this kitchen on a writer thread of its own,
+     * instead of on the thread asking for it. The methods that change the kitchen then hand the
+     * change to the writer and wait for it; the writer's futures can be used instead to not wait.
+     * @return the writer
      */
-    ArrayList<Order> getOrderList() {
-        return orderList;
+    synchronized KitchenActor startWriter() {
+        if (writer == null) {
+            writer = new KitchenActor(this);
+        }
+        return writer;
+    }
+
+    /**
+     * A method that goes back to changing this kitchen on the thread asking for the change, once
+     * the changes already handed to the writer are done.
+     */
+    synchronized void stopWriter() {
+        KitchenActor stopped = writer;
+        writer = null;
+        if (stopped != null) {
+            stopped.close();
+        }
     }
 
     /**
-     * A method to return the HashMap of ingredients.
-     * @return HashMap of ingredients
+     * A method to return the writer that runs every change to this kitchen.
+     * @return the writer, or null if changes run on the thread asking for them
      */
-    HashMap<String, ArrayList> getIngredients() {
-        return ingredients;
+    KitchenActor getWriter() {
+        return writer;
+    }
+
+    /**
+     * Returns the writer a change must be handed to, which is none when there is no writer or the
+     * calling thread is the writer.
+     * @return the writer, or null to make the change on this thread
+     */
+    private KitchenActor otherWriter() {
+        KitchenActor current = writer;
+        return current != null && !current.isWriter() ? current : null;
+    }
+
+    /**
+     * A method to return the allocator that hands out order ids.
+     * @return the order id allocator
+     */
+    OrderIdAllocator getOrderIds() {
+        return orderIds;
+    }
+
+    /**
+     * A method that takes an order out of the kitchen.
+     * @param order order to remove
+     */
+    void removeOrder(Order order) {
+        KitchenActor other = otherWriter();
+        if (other != null) {
+            other.run(() -> removeOrder(order));
+            return;
+        }
+        orders.remove(order.getId());
+        for (StationQueue station : stations.values()) {
+            station.remove(order);
+        }
+    }
+
+    /**
+     * A method that routes an order to the station queue of every food type it still has unready
+     * food of, and takes it out of the others. Called whenever the food of an order changes, often
+     * with the order's lock held. That is safe with a writer, since the only order lock the writer
+     * takes is that of an order being sent to the kitchen, whose table is locked until it is sent.
+     * @param order order to route
+     */
+    void dispatch(Order order) {
+        KitchenActor other = otherWriter();
+        if (other != null) {
+            other.run(() -> dispatch(order));
+            return;
+        }
+        for (StationQueue station : stations.values()) {
+            station.route(order);
+        }
+    }
+
+    /**
+     * A method to return the queue of orders for a station, creating it if needed.
+     * @param type food type prepared at the station
+     * @return the station's queue
+     */
+    StationQueue getStation(String type) {
+        return stations.computeIfAbsent(type, StationQueue::new);
+    }
+
+    /**
+     * A method to return a read-only view of the stocked ingredient names.
+     * @return set of ingredient names
+     */
+    Set<String> getIngredients() {
+        return ingredients.getNames();
     }
 
   /**
-   * A method that updates the inventory and makes a request in the file to restock the ingredients.
+   * A method that updates the inventory and makes a request to restock the ingredient if there is
+   * not one pending already.
    *
    * @param ingredient the ingredient involved
    */
   void updateInventory(String ingredient) {
-        if((int)ingredients.get(ingredient).get(0) < (int)ingredients.get(ingredient).get(1)){
-            int curQuantity = (int)ingredients.get(ingredient).get(0);
-            int curThreshold = (int)ingredients.get(ingredient).get(1);
+        int id = ingredients.idOf(ingredient);
+        if(ingredients.getQuantity(id) < ingredients.getThreshold(id)){
+            int curQuantity = ingredients.getQuantity(id);
+            int curThreshold = ingredients.getThreshold(id);
             RestaurantLog.entry("Info",ingredient + " currently has " + curQuantity + ", " +
                     "below threshold of " + curThreshold + String.format("%n"));
-            boolean containsRequest = false;
-
-            // First check if request is in file already
-            try (BufferedReader fileReader = new BufferedReader(new FileReader("Request.txt"))) {
-                String line = fileReader.readLine();
-                while (line != null) {
-                    if (line.contains(ingredient)) {
-                        containsRequest = true;
-                    }
-                    line = fileReader.readLine();
-                }
-            } catch (IOException ioe) {
-                ioe.printStackTrace();
-            }
+            getRequests().request(ingredient);
+        }
+    }
 
-            // If not in file, write the request
-            if (!containsRequest) {
-        try (BufferedWriter fileWriter = new BufferedWriter(new FileWriter("Request.txt", true))) {
-                    String request = ingredient + " is less than the threshold: Requesting 20";
-                    fileWriter.write(request);
-                    fileWriter.newLine();
-                } catch (IOException ioe) {
-                    ioe.printStackTrace();
-                }
-            }
+    /**
+     * A method to return the pending restock requests. The request file is only read the first
+     * time this is called.
+     * @return the pending restock requests
+     */
+    synchronized RestockRequests getRequests() {
+        if (requests == null) {
+            requests = new RestockRequests("Request.txt");
+        }
+        return requests;
+    }
+
+    /**
+     * A method that closes the request file when the restaurant is closed.
+     */
+    synchronized void closeRequests() {
+        if (requests != null) {
+            requests.close();
         }
     }
 
@@ -137,14 +376,8 @@ public class Kitchen implements Serializable {
      * @param id Order id
      * @return boolean to check correct order id
      */
-    boolean checkOrderId(int id){
-        for(int i = 0; i < getOrderList().size(); i++){
-            if(getOrderList().get(i).getId() == id){
-                return true;
-            }
-        }
-        return false;
-
+    boolean checkOrderId(long id){
+        return orders.containsKey(id);
     }
 
     /**
@@ -152,55 +385,72 @@ public class Kitchen implements Serializable {
      * @param id Order id
      * @return order
      */
-    Order getOrder(int id){
-        for(int i = 0; i<getOrderList().size(); i++){
-            if(getOrderList().get(i).getId() == id){
-                return getOrderList().get(i);
-            }
-        }
-        return null;
-    }
-
-    ArrayList<Order> getPrevOrders(int orderID) {
-        ArrayList<Order> prevOrders = new ArrayList<>();
-        for (Order order : this.orderList) {
-            if (order.getId() < orderID) {
-                prevOrders.add(order);
-            } else {
-                break;
-            }
-        } return prevOrders;
+    Order getOrder(long id){
+        return orders.get(id);
     }
 
     /**
-     * Checks if there's enough ingredient in the kitchen inventory to make the food.
+     * Checks if there's enough ingredient in the kitchen inventory to make the food, and if so
+     * takes the ingredients out of the inventory. The check and the subtraction happen as one step,
+     * so servers recording orders at the same time can never drive an ingredient below zero.
      *
      * @param food food to be checked
      * @return true if there's enough ingredient
      */
     protected boolean isEnoughIngredients(Food food) {
-        HashMap<String, Integer> ingredientMap = new HashMap<>();
-        ArrayList<String> ingredientList = food.getIngredients();
-        for (String ingredient : ingredientList) {
-            if (ingredientMap.containsKey(ingredient)) {
-                ingredientMap.put(ingredient, ingredientMap.get(ingredient) + 1);
-            } else {
-                ingredientMap.put(ingredient, 1);
-            }
+        KitchenActor other = otherWriter();
+        if (other != null) {
+            return other.call(() -> isEnoughIngredients(food));
         }
-
-        for (String ingredient : ingredientMap.keySet()) {
-            if (!this.getIngredients().containsKey(ingredient)
-                    || this.getQuantity(ingredient) < ingredientMap.get(ingredient)) {
-                return false;
-            }
+        int[] ids = new int[food.getRecipe().size()];
+        int[] amounts = new int[ids.length];
+        int count = countIngredients(food, ids, amounts);
+        if (count == -1 || !ingredients.reserve(ids, amounts, count)) {
+            return false;
         }
-
-        for (String ingredient : ingredientMap.keySet()) {
-            this.subtractIngredients(ingredient, ingredientMap.get(ingredient));
-            this.updateInventory(ingredient);
+        for (int i = 0; i < count; i++) {
             // Kitchen checks for threshold and make request if below
+            this.updateInventory(ingredients.getName(ids[i]));
         }
         return true;
     }
+
+    /**
+     * Puts the ingredients of a food that was taken by isEnoughIngredients back into the inventory.
+     *
+     * @param food food whose ingredients are returned
+     */
+    void releaseIngredients(Food food) {
+        KitchenActor other = otherWriter();
+        if (other != null) {
+            other.run(() -> releaseIngredients(food));
+            return;
+        }
+        int[] ids = new int[food.getRecipe().size()];
+        int[] amounts = new int[ids.length];
+        int count = countIngredients(food, ids, amounts);
+        if (count != -1) {
+            ingredients.release(ids, amounts, count);
+        }
+    }
+
+    /**
+     * Counts how many of each ingredient the food needs.
+     *
+     * @param food food to be counted
+     * @param ids filled with the distinct ingredient ids of the food
+     * @param amounts filled with the amount needed of each ingredient in ids
+     * @return number of distinct ingredients, or -1 if the kitchen does not stock one of them
+     */
+    private int countIngredients(Food food, int[] ids, int[] amounts) {
+        Recipe recipe = food.getRecipe();
+        for (int i = 0; i < recipe.size(); i++) {
+            ids[i] = ingredients.idOf(recipe.getIngredient(i));
+            if (ids[i] == -1) {
+                return -1;
+            }
+            amounts[i] = recipe.getCount(i);
+        }
+        return recipe.size();
+    }
 }
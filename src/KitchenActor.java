@@ -0,0 +1,230 @@
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Runs every change to a Kitchen on one thread of its own, the kitchen's writer. Servers, Cooks and
+ * Managers on any number of terminals hand it commands, such as taking the ingredients of a food or
+ * sending an order to the kitchen, and get a CompletableFuture of the result. Since only the writer
+ * changes the kitchen, the kitchen's locks are never fought over; terminals only meet at the
+ * command queue, which they add to without locking.
+ *
+ * <p>The writer runs commands in the order they were submitted. It sleeps when there have been none
+ * for a little while and is woken by the next one, so an idle kitchen costs nothing. Commands
+ * submitted after the actor is closed fail with a RejectedExecutionException; those submitted
+ * before are still run.
+ */
+class KitchenActor implements AutoCloseable {
+  // How many times the writer looks for a command before it sleeps; waking it costs more than
+  // looking a while, but looking only helps when a terminal can run on another processor
+  private static final int SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 1000 : 0;
+
+  private final Kitchen kitchen;
+  private final ConcurrentLinkedQueue<Command<?>> commands = new ConcurrentLinkedQueue<>();
+  private final Thread writer;
+  private volatile boolean sleeping; // the writer has found no commands and may be parked
+  private volatile boolean closed;
+
+  /** A change to the kitchen and the future of its result. */
+  private static class Command<T> {
+    private final Supplier<T> change;
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+
+    private Command(Supplier<T> change) {
+      this.change = change;
+    }
+
+    private void run() {
+      try {
+        result.complete(change.get());
+      } catch (Throwable t) {
+        result.completeExceptionally(t);
+      }
+    }
+  }
+
+  /**
+   * Starts the writer of a kitchen.
+   *
+   * @param kitchen the kitchen the writer changes
+   */
+  KitchenActor(Kitchen kitchen) {
+    this.kitchen = kitchen;
+    this.writer = new Thread(this::runCommands, "kitchen-writer");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  /**
+   * Hands a change to the writer.
+   *
+   * @param change the change, run on the writer
+   * @return the future of what the change returns
+   */
+  <T> CompletableFuture<T> submit(Supplier<T> change) {
+    Command<T> command = new Command<>(change);
+    commands.offer(command);
+    if (closed && commands.remove(command)) {
+      // Closed meanwhile, and the writer may have stopped before it took the command
+      command.result.completeExceptionally(
+          new RejectedExecutionException("The kitchen's writer is closed"));
+    } else if (sleeping) {
+      LockSupport.unpark(writer);
+    }
+    return command.result;
+  }
+
+  /**
+   * Runs a change on the writer and waits for it. A change asked for by the writer itself is run
+   * right away, so commands can make other changes to the kitchen.
+   *
+   * @param change the change
+   * @return what the change returned
+   */
+  <T> T call(Supplier<T> change) {
+    if (isWriter()) {
+      return change.get();
+    }
+    try {
+      return submit(change).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      } else if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Runs a change on the writer and waits for it, like call.
+   *
+   * @param change the change
+   */
+  void run(Runnable change) {
+    call(() -> {
+      change.run();
+      return null;
+    });
+  }
+
+  /** @return true if the calling thread is the writer */
+  boolean isWriter() {
+    return Thread.currentThread() == writer;
+  }
+
+  /**
+   * Takes the ingredients of a food, if the kitchen has enough of each.
+   *
+   * @param food the food
+   * @return the future of true if the ingredients were taken
+   */
+  CompletableFuture<Boolean> reserve(Food food) {
+    return submit(() -> kitchen.isEnoughIngredients(food));
+  }
+
+  /**
+   * Puts back the ingredients of a food taken by reserve.
+   *
+   * @param food the food
+   * @return the future of the change
+   */
+  CompletableFuture<Void> release(Food food) {
+    return submit(() -> {
+      kitchen.releaseIngredients(food);
+      return null;
+    });
+  }
+
+  /**
+   * Sends an order to the kitchen.
+   *
+   * @param order the order
+   * @return the future of the change
+   */
+  CompletableFuture<Void> addOrder(Order order) {
+    return submit(() -> {
+      kitchen.addOrder(order);
+      return null;
+    });
+  }
+
+  /**
+   * Takes an order out of the kitchen.
+   *
+   * @param order the order
+   * @return the future of the change
+   */
+  CompletableFuture<Void> removeOrder(Order order) {
+    return submit(() -> {
+      kitchen.removeOrder(order);
+      return null;
+    });
+  }
+
+  /**
+   * Restocks an ingredient.
+   *
+   * @param ingredient the ingredient
+   * @param quantity the quantity to add
+   * @return the future of the quantity before the restock
+   */
+  CompletableFuture<Integer> restock(String ingredient, int quantity) {
+    return submit(() -> kitchen.restockIngredients(ingredient, quantity));
+  }
+
+  /**
+   * Stops taking commands and waits for the writer to run those already taken. A thread
+   * interrupted while waiting keeps waiting, and is interrupted again once the writer has stopped.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    LockSupport.unpark(writer);
+    if (isWriter()) {
+      return;
+    }
+    boolean interrupted = false;
+    while (writer.isAlive()) {
+      try {
+        writer.join();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /** The writer's loop. */
+  private void runCommands() {
+    int idle = 0;
+    while (true) {
+      Command<?> command = commands.poll();
+      if (command != null) {
+        command.run();
+        idle = 0;
+      } else if (idle < SPINS) {
+        idle++;
+        Thread.onSpinWait();
+      } else if (closed) {
+        // A command submitted just as the actor closed may still be in the queue
+        while ((command = commands.poll()) != null) {
+          command.run();
+        }
+        return;
+      } else {
+        sleeping = true;
+        if (commands.isEmpty() && !closed) {
+          LockSupport.park(this);
+        }
+        sleeping = false;
+      }
+    }
+  }
+}
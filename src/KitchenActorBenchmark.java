@@ -0,0 +1,184 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the two ways the kitchen can be changed from many terminals at once: each terminal
+ * changing it on its own thread under the kitchen's locks, and every change handed to the
+ * kitchen's single writer (see KitchenActor). Each terminal serves orders over and over: it takes
+ * the ingredients of a burger and a poutine, sends the order to the kitchen, takes it out again
+ * and puts the ingredients back, so the stock never runs out. The time each order takes is
+ * recorded, and the benchmark reports the orders served per second and the median and tail of
+ * those times.
+ *
+ * <p>There are three modes: locks, where terminals change the kitchen themselves; actor, where
+ * the kitchen's methods hand each change to the writer and wait for it; and actor-async, where a
+ * terminal hands the writer all the changes of an order at once and only waits for the last.
+ *
+ * <p>Run it from the command line with any of these settings, given as name=value: terminals and
+ * modes, each a comma separated list; warmup and millis, how long to serve orders before and
+ * while measuring.
+ */
+public class KitchenActorBenchmark {
+  private static final int STOCK = 100000000;
+
+  private final Kitchen kitchen = new Kitchen();
+  private final MenuItem burger = new MenuItem("Monster Burger", 10.00, "Main",
+      Arrays.asList("beef patty", "beef patty", "cheese", "cheese", "bun"));
+  private final MenuItem poutine = new MenuItem("Poutine", 4.00, "Appetizer",
+      Arrays.asList("fries", "cheese", "gravy"));
+  private final AtomicLong orderIds = new AtomicLong();
+
+  private KitchenActorBenchmark() {
+    for (String ingredient : new String[] {"beef patty", "bun", "cheese", "fries", "gravy"}) {
+      kitchen.addIngredients(ingredient, STOCK, 0);
+    }
+  }
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args settings given as name=value, all optional
+   */
+  public static void main(String[] args) throws InterruptedException {
+    Map<String, String> settings = new LinkedHashMap<>();
+    for (String arg : args) {
+      int equals = arg.indexOf('=');
+      settings.put(arg.substring(0, equals), arg.substring(equals + 1));
+    }
+    String[] modes = settings.getOrDefault("modes", "locks,actor,actor-async").split(",");
+    String[] terminalCounts = settings.getOrDefault("terminals", "1,4,16,64").split(",");
+    long warmupMillis = Long.parseLong(settings.getOrDefault("warmup", "500"));
+    long millis = Long.parseLong(settings.getOrDefault("millis", "2000"));
+    RestaurantLog.logger.setUseParentHandlers(false);
+
+    System.out.println(String.format("%-12s %9s %12s %10s %10s %10s %10s", "mode", "terminals",
+        "orders/s", "p50 us", "p99 us", "p99.9 us", "max us"));
+    for (String mode : modes) {
+      for (String terminals : terminalCounts) {
+        KitchenActorBenchmark benchmark = new KitchenActorBenchmark();
+        if (!mode.equals("locks")) {
+          benchmark.kitchen.startWriter();
+        }
+        benchmark.serve(mode, Integer.parseInt(terminals.trim()), warmupMillis);
+        long[] times = benchmark.serve(mode, Integer.parseInt(terminals.trim()), millis);
+        benchmark.kitchen.stopWriter();
+        Arrays.sort(times);
+        System.out.println(String.format("%-12s %9s %12.0f %10.1f %10.1f %10.1f %10.1f", mode,
+            terminals.trim(), times.length * 1000.0 / millis, percentile(times, 0.5) / 1e3,
+            percentile(times, 0.99) / 1e3, percentile(times, 0.999) / 1e3,
+            times[times.length - 1] / 1e3));
+      }
+    }
+  }
+
+  /**
+   * Has terminals serve orders at the same time for a while.
+   *
+   * @param mode how the terminals change the kitchen
+   * @param numTerminals the number of terminals
+   * @param millis how long to serve orders
+   * @return the time each order took, in nanoseconds
+   */
+  private long[] serve(String mode, int numTerminals, long millis) throws InterruptedException {
+    CountDownLatch start = new CountDownLatch(1);
+    long[][] times = new long[numTerminals][];
+    int[] counts = new int[numTerminals];
+    Thread[] threads = new Thread[numTerminals];
+    for (int i = 0; i < numTerminals; i++) {
+      int terminal = i;
+      threads[i] = new Thread(() -> {
+        long[] mine = new long[1024];
+        int count = 0;
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        long end = System.nanoTime() + millis * 1000000;
+        long now;
+        while ((now = System.nanoTime()) < end) {
+          if (mode.equals("actor-async")) {
+            serveAsync(terminal);
+          } else {
+            serveOrder(terminal);
+          }
+          if (count == mine.length) {
+            mine = Arrays.copyOf(mine, count * 2);
+          }
+          mine[count++] = System.nanoTime() - now;
+        }
+        times[terminal] = mine;
+        counts[terminal] = count;
+      });
+      threads[i].start();
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    int total = 0;
+    for (int count : counts) {
+      total += count;
+    }
+    long[] all = new long[total];
+    int at = 0;
+    for (int i = 0; i < numTerminals; i++) {
+      System.arraycopy(times[i], 0, all, at, counts[i]);
+      at += counts[i];
+    }
+    return all;
+  }
+
+  /** Serves one order through the kitchen's methods, waiting for each change. */
+  private void serveOrder(int terminal) {
+    ArrayList<Food> foods = new ArrayList<>();
+    foods.add(new Food(burger));
+    foods.add(new Food(poutine));
+    List<Food> reserved = new ArrayList<>();
+    for (Food food : foods) {
+      if (kitchen.isEnoughIngredients(food)) {
+        reserved.add(food);
+      }
+    }
+    Order order = new Order(orderIds.incrementAndGet(), foods, terminal + 1, "Bill 1");
+    kitchen.addOrder(order);
+    kitchen.removeOrder(order);
+    for (Food food : reserved) {
+      kitchen.releaseIngredients(food);
+    }
+  }
+
+  /** Serves one order by handing the writer all its changes at once. */
+  private void serveAsync(int terminal) {
+    KitchenActor writer = kitchen.getWriter();
+    ArrayList<Food> foods = new ArrayList<>();
+    foods.add(new Food(burger));
+    foods.add(new Food(poutine));
+    List<CompletableFuture<Boolean>> reserved = new ArrayList<>();
+    for (Food food : foods) {
+      reserved.add(writer.reserve(food));
+    }
+    Order order = new Order(orderIds.incrementAndGet(), foods, terminal + 1, "Bill 1");
+    writer.addOrder(order);
+    CompletableFuture<Void> last = writer.removeOrder(order);
+    // The writer runs changes in the order they were handed to it
+    last.join();
+    for (int i = 0; i < foods.size(); i++) {
+      if (reserved.get(i).join()) {
+        last = writer.release(foods.get(i));
+      }
+    }
+    last.join();
+  }
+
+  /** @return the time at a fraction of the way through the sorted times */
+  private static double percentile(long[] sorted, double fraction) {
+    return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)];
+  }
+}
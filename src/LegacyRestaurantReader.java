@@ -0,0 +1,422 @@
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.ObjectStreamConstants;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a Restaurant saved in Restaurant.ser, by Java serialization, before snapshots replaced it.
+ * The classes that wrote it have changed since, so it cannot be read back with an
+ * ObjectInputStream: the serialization stream is read here field by field instead, and a Restaurant
+ * of the classes of today is built from the fields, as RestaurantSnapshot builds one from a
+ * snapshot.
+ *
+ * <p>Everything the old classes saved is carried over: the menu and its specials, the kitchen's
+ * stock, every order with its food and its state, the tables with their bills, and the employees.
+ * Old orders only recorded which Cooks had seen them, not when each state was entered, so their
+ * states are restored without times. Orders keep their ids, and new ids continue after the
+ * highest.
+ */
+public class LegacyRestaurantReader {
+  private final DataInputStream in;
+  private final List<Object> handles = new ArrayList<>();
+
+  private LegacyRestaurantReader(DataInputStream in) {
+    this.in = in;
+  }
+
+  /**
+   * Reads a restaurant saved by Java serialization before snapshots.
+   *
+   * @param file the saved restaurant, Restaurant.ser
+   * @return the restored restaurant
+   * @throws IOException if the file cannot be read or does not hold a restaurant of the old layout
+   */
+  static Restaurant load(Path file) throws IOException {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+        Files.newInputStream(file)))) {
+      if (in.readShort() != ObjectStreamConstants.STREAM_MAGIC
+          || in.readShort() != ObjectStreamConstants.STREAM_VERSION) {
+        throw new IOException(file + " is not a saved restaurant");
+      }
+      Object saved = new LegacyRestaurantReader(in).readContent();
+      if (!(saved instanceof Saved) || !((Saved) saved).className.equals("Restaurant")) {
+        throw new IOException(file + " is not a saved restaurant");
+      }
+      return new Builder().restaurant((Saved) saved);
+    } catch (ClassCastException | NullPointerException | IndexOutOfBoundsException e) {
+      throw new IOException(file + " does not have the layout of a saved restaurant: " + e, e);
+    }
+  }
+
+  /** An object of one of the restaurant's classes, as it was saved: its class and its fields. */
+  private static class Saved {
+    private final String className;
+    private final Map<String, Object> fields = new HashMap<>();
+
+    Saved(String className) {
+      this.className = className;
+    }
+
+    Object get(String field) {
+      return fields.get(field);
+    }
+
+    String string(String field) {
+      return (String) fields.get(field);
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> List<T> list(String field) {
+      Object list = fields.get(field);
+      return list == null ? new ArrayList<>() : (List<T>) list;
+    }
+
+    @SuppressWarnings("unchecked")
+    <K, V> Map<K, V> map(String field) {
+      Object map = fields.get(field);
+      return map == null ? new LinkedHashMap<>() : (Map<K, V>) map;
+    }
+  }
+
+  /** A class as the stream describes it: its name, how it was written, and its fields. */
+  private static class ClassDesc {
+    private final String name;
+    private byte flags;
+    private char[] types;
+    private String[] names;
+    private ClassDesc superDesc;
+
+    ClassDesc(String name) {
+      this.name = name;
+    }
+  }
+
+  /**
+   * Reads the next object in the stream. Strings and boxed numbers are read as themselves,
+   * ArrayLists as Lists and HashMaps as Maps, and objects of the restaurant's classes as Saved.
+   */
+  private Object readContent() throws IOException {
+    byte tag = in.readByte();
+    switch (tag) {
+      case ObjectStreamConstants.TC_NULL:
+        return null;
+      case ObjectStreamConstants.TC_REFERENCE:
+        return handles.get(in.readInt() - ObjectStreamConstants.baseWireHandle);
+      case ObjectStreamConstants.TC_STRING:
+        return newHandle(in.readUTF());
+      case ObjectStreamConstants.TC_LONGSTRING:
+        return newHandle(readLongUtf());
+      case ObjectStreamConstants.TC_CLASSDESC:
+        return readClassDesc(tag);
+      case ObjectStreamConstants.TC_OBJECT:
+        return readObject();
+      default:
+        throw new IOException(String.format("Unexpected tag 0x%02X in the saved restaurant", tag));
+    }
+  }
+
+  private Object newHandle(Object object) {
+    handles.add(object);
+    return object;
+  }
+
+  private String readLongUtf() throws IOException {
+    long length = in.readLong();
+    if (length > Integer.MAX_VALUE) {
+      throw new IOException("String too long in the saved restaurant");
+    }
+    byte[] bytes = new byte[(int) length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /** Reads a class description, which is null for the superclass of the topmost saved class. */
+  private ClassDesc readClassDesc(byte tag) throws IOException {
+    switch (tag) {
+      case ObjectStreamConstants.TC_NULL:
+        return null;
+      case ObjectStreamConstants.TC_REFERENCE:
+        return (ClassDesc) handles.get(in.readInt() - ObjectStreamConstants.baseWireHandle);
+      case ObjectStreamConstants.TC_CLASSDESC:
+        break;
+      default:
+        throw new IOException(String.format("Unexpected tag 0x%02X in the saved restaurant", tag));
+    }
+    ClassDesc desc = new ClassDesc(in.readUTF());
+    in.readLong(); // the serialVersionUID, which no longer matches the classes of today
+    newHandle(desc);
+    desc.flags = in.readByte();
+    if ((desc.flags & ObjectStreamConstants.SC_EXTERNALIZABLE) != 0) {
+      throw new IOException(desc.name + " cannot be read from the saved restaurant");
+    }
+    int numFields = in.readShort();
+    desc.types = new char[numFields];
+    desc.names = new String[numFields];
+    for (int i = 0; i < numFields; i++) {
+      desc.types[i] = (char) in.readByte();
+      desc.names[i] = in.readUTF();
+      if (desc.types[i] == 'L' || desc.types[i] == '[') {
+        readContent(); // the field's class name
+      }
+    }
+    skipAnnotation();
+    desc.superDesc = readClassDesc(in.readByte());
+    return desc;
+  }
+
+  /** Reads an object's fields, superclass first, and converts it as readContent describes. */
+  private Object readObject() throws IOException {
+    ClassDesc desc = readClassDesc(in.readByte());
+    Saved saved = new Saved(desc.name);
+    int handle = handles.size();
+    newHandle(saved);
+    List<ClassDesc> hierarchy = new ArrayList<>();
+    for (ClassDesc each = desc; each != null; each = each.superDesc) {
+      hierarchy.add(0, each);
+    }
+    List<Object> written = new ArrayList<>(); // what writeObject methods wrote after the fields
+    for (ClassDesc each : hierarchy) {
+      for (int i = 0; i < each.names.length; i++) {
+        saved.fields.put(each.names[i], readValue(each.types[i]));
+      }
+      if ((each.flags & ObjectStreamConstants.SC_WRITE_METHOD) != 0) {
+        readAnnotation(written);
+      }
+    }
+
+    Object object;
+    switch (desc.name) {
+      case "java.lang.Integer":
+      case "java.lang.Double":
+      case "java.lang.Boolean":
+      case "java.lang.Long":
+        object = saved.get("value");
+        break;
+      case "java.util.ArrayList":
+        object = written;
+        break;
+      case "java.util.HashMap":
+        Map<Object, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < written.size(); i += 2) {
+          map.put(written.get(i), written.get(i + 1));
+        }
+        object = map;
+        break;
+      default:
+        if (desc.name.startsWith("java.")) {
+          throw new IOException(desc.name + " cannot be read from the saved restaurant");
+        }
+        object = saved;
+    }
+    handles.set(handle, object);
+    return object;
+  }
+
+  private Object readValue(char type) throws IOException {
+    switch (type) {
+      case 'B':
+        return in.readByte();
+      case 'C':
+        return in.readChar();
+      case 'D':
+        return in.readDouble();
+      case 'F':
+        return in.readFloat();
+      case 'I':
+        return in.readInt();
+      case 'J':
+        return in.readLong();
+      case 'S':
+        return in.readShort();
+      case 'Z':
+        return in.readBoolean();
+      default:
+        return readContent();
+    }
+  }
+
+  /** Reads what a writeObject method wrote, up to its end, keeping the objects and not the data. */
+  private void readAnnotation(List<Object> objects) throws IOException {
+    while (true) {
+      in.mark(1);
+      byte tag = in.readByte();
+      if (tag == ObjectStreamConstants.TC_ENDBLOCKDATA) {
+        return;
+      } else if (tag == ObjectStreamConstants.TC_BLOCKDATA) {
+        in.skipNBytes(in.readUnsignedByte());
+      } else if (tag == ObjectStreamConstants.TC_BLOCKDATALONG) {
+        in.skipNBytes(in.readInt());
+      } else {
+        in.reset();
+        objects.add(readContent());
+      }
+    }
+  }
+
+  private void skipAnnotation() throws IOException {
+    readAnnotation(new ArrayList<>());
+  }
+
+  /** Builds a Restaurant of the classes of today from the saved one. */
+  private static class Builder {
+    private final Map<String, MenuItem> items = new HashMap<>();
+    private final IdentityHashMap<Saved, Order> orders = new IdentityHashMap<>();
+    private final Map<String, Long> seenUpTo = new HashMap<>();
+    private Kitchen kitchen;
+
+    Restaurant restaurant(Saved saved) {
+      Saved savedMenu = (Saved) saved.get("menu");
+      Menu menu = new Menu();
+      Map<String, Double> prices = savedMenu.map("ingredientToPrice");
+      for (Map.Entry<String, Double> price : prices.entrySet()) {
+        menu.setIngredientToPrice(price.getKey(), price.getValue());
+      }
+      for (Saved food : savedMenu.<Saved>list("foodList")) {
+        menu.addFoodMenu(item(food));
+      }
+      for (Saved food : savedMenu.<Saved>list("specialFood")) {
+        menu.addSpecialMenu(item(food));
+      }
+
+      Saved savedKitchen = (Saved) saved.get("kitchen");
+      List<Saved> kitchenOrders = savedKitchen.list("orderList");
+      long lastId = 0;
+      for (Saved order : allOrders(saved, kitchenOrders)) {
+        lastId = Math.max(lastId, ((Number) order.get("id")).longValue());
+      }
+      kitchen = new Kitchen(new OrderIdAllocator(lastId + 1));
+      Map<String, List<Integer>> stock = savedKitchen.map("ingredients");
+      for (Map.Entry<String, List<Integer>> ingredient : stock.entrySet()) {
+        kitchen.addIngredients(ingredient.getKey(), ingredient.getValue().get(0),
+            ingredient.getValue().get(1));
+      }
+      Restaurant restaurant = new Restaurant(kitchen, menu);
+      for (Saved order : kitchenOrders) {
+        kitchen.addOrder(order(order));
+      }
+
+      for (Saved savedTable : saved.<Saved>list("tables")) {
+        Table table = new Table((Integer) savedTable.get("tableNum"));
+        table.isOccupied = (Boolean) savedTable.get("isOccupied");
+        table.numCustomers = (Integer) savedTable.get("numCustomers");
+        Map<String, List<Saved>> bills = savedTable.map("orders");
+        for (Map.Entry<String, List<Saved>> bill : bills.entrySet()) {
+          ArrayList<Order> billOrders = new ArrayList<>();
+          for (Saved order : bill.getValue()) {
+            billOrders.add(order(order));
+          }
+          table.orders.put(bill.getKey(), billOrders);
+        }
+        Map<String, List<Saved>> requests = savedTable.map("foodsToOrder");
+        for (Map.Entry<String, List<Saved>> bill : requests.entrySet()) {
+          table.foodsToOrder.put(bill.getKey(), foods(bill.getValue()));
+        }
+        restaurant.getTables().add(table);
+      }
+
+      for (Saved savedServer : saved.<Saved>list("servers")) {
+        Server server = new Server(savedServer.string("id"), kitchen, menu);
+        employee(server, savedServer);
+        for (Saved order : savedServer.<Saved>list("assignedOrders")) {
+          server.getAssignedOrders().add(order(order));
+        }
+        restaurant.getServers().add(server);
+      }
+      for (Saved savedCook : saved.<Saved>list("cooks")) {
+        Cook cook = new Cook(savedCook.string("id"), savedCook.string("type"), kitchen);
+        employee(cook, savedCook);
+        cook.setSeenUpTo(seenUpTo.getOrDefault(cook.getId(), 0L));
+        restaurant.getCooks().add(cook);
+      }
+      for (Saved savedManager : saved.<Saved>list("managers")) {
+        Manager manager = new Manager(savedManager.string("id"), kitchen, menu);
+        employee(manager, savedManager);
+        restaurant.getManagers().add(manager);
+      }
+      return restaurant;
+    }
+
+    /** Returns every saved order the kitchen, the tables and the Servers refer to. */
+    private List<Saved> allOrders(Saved restaurant, List<Saved> kitchenOrders) {
+      List<Saved> all = new ArrayList<>(kitchenOrders);
+      for (Saved table : restaurant.<Saved>list("tables")) {
+        Map<String, List<Saved>> bills = table.map("orders");
+        for (List<Saved> bill : bills.values()) {
+          all.addAll(bill);
+        }
+      }
+      for (Saved server : restaurant.<Saved>list("servers")) {
+        all.addAll(server.list("assignedOrders"));
+      }
+      return all;
+    }
+
+    /** Returns the menu item of a saved food, the same item for every food of the same name. */
+    private MenuItem item(Saved food) {
+      return items.computeIfAbsent(food.string("name"), name -> new MenuItem(name,
+          (Double) food.get("price"), food.string("type"), food.<String>list("ingredients"),
+          (Boolean) food.get("isDiscounted")));
+    }
+
+    private ArrayList<Food> foods(List<Saved> savedFoods) {
+      ArrayList<Food> foods = new ArrayList<>(savedFoods.size());
+      for (Saved food : savedFoods) {
+        MenuItem item = item(food);
+        List<String> ingredients = food.list("ingredients");
+        foods.add(new Food(item, ingredients.equals(item.getIngredients()) ? null : ingredients,
+            (Boolean) food.get("isReady")));
+      }
+      return foods;
+    }
+
+    /**
+     * Returns the order of a saved order, the same Order for every reference to it. Old orders
+     * recorded the Cooks that had seen them; each Cook is restored as having seen every order up
+     * to the last one they saw.
+     */
+    private Order order(Saved saved) {
+      Order order = orders.get(saved);
+      if (order != null) {
+        return order;
+      }
+      long id = ((Number) saved.get("id")).longValue();
+      order = new Order(id, foods(saved.list("foods")), (Integer) saved.get("tableNum"),
+          saved.string("billId"));
+      List<String> seenCooks = saved.list("seenCooks");
+      for (String cook : seenCooks) {
+        seenUpTo.merge(cook, id, Math::max);
+      }
+      OrderState state;
+      if ((Boolean) saved.get("isConfirmed")) {
+        state = OrderState.CONFIRMED;
+      } else if ((Boolean) saved.get("isDelivered")) {
+        state = OrderState.DELIVERED;
+      } else if ((Boolean) saved.get("isFilled")) {
+        state = OrderState.FILLED;
+      } else if (!seenCooks.isEmpty()) {
+        state = OrderState.SEEN;
+      } else {
+        state = OrderState.PLACED;
+      }
+      order.restoreState(state, new long[OrderState.values().length]);
+      orders.put(saved, order);
+      return order;
+    }
+
+    private void employee(Employee employee, Saved saved) {
+      employee.attendance = saved.string("attendance");
+      if (saved.string("password") != null) {
+        employee.setPassword(employee.getPassword(), saved.string("password"));
+      }
+    }
+  }
+}
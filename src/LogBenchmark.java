@@ -0,0 +1,85 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.logging.FileHandler;
+import java.util.logging.Level;
+
+/**
+ * Measures how long a call to RestaurantLog.entry takes for the caller, writing as entries are
+ * made and writing asynchronously. Several threads log at once, like Servers and Cooks do, and the
+ * average time per call is printed for each mode. Run it from the command line with the number of
+ * threads and the number of entries each thread logs.
+ */
+public class LogBenchmark {
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args number of threads and number of entries per thread, both optional
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    int numThreads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+    int numEntries = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+    RestaurantLog.logger.setUseParentHandlers(false);
+    RestaurantLog.logger.setLevel(Level.ALL);
+    // Every entry is counted in the one file, so it must not roll over
+    System.setProperty("restaurant.log.maxBytes", String.valueOf(Long.MAX_VALUE));
+    Path file = Files.createTempFile("log", ".txt");
+
+    FileHandler handler = new FileHandler(file.toString(), true);
+    handler.setFormatter(new RestaurantLog.LineFormatter());
+    RestaurantLog.logger.addHandler(handler);
+    run(numThreads, numEntries / 10); // warm up
+    double syncNanos = run(numThreads, numEntries);
+    RestaurantLog.logger.removeHandler(handler);
+    handler.close();
+
+    System.out.println(String.format("%d threads, %d entries each", numThreads, numEntries));
+    System.out.println(String.format("%-24s %12s %10s", "mode", "ns per call", "dropped"));
+    System.out.println(String.format("%-24s %12.0f %10s", "synchronous", syncNanos, "-"));
+    for (RestaurantLog.FullPolicy policy : RestaurantLog.FullPolicy.values()) {
+      Files.write(file, new byte[0]);
+      new RestaurantLog(file.toString(), 8192, policy);
+      run(numThreads, numEntries / 10);
+      double nanos = run(numThreads, numEntries);
+      RestaurantLog.close();
+      long written = Files.lines(file).filter(line -> line.contains("Server")).count();
+      System.out.println(String.format("%-24s %12.0f %10d", "async " + policy, nanos,
+          numThreads * (numEntries + numEntries / 10) - written));
+    }
+    Files.delete(file);
+  }
+
+  /** Has numThreads threads log numEntries entries each, and returns the average ns per call. */
+  private static double run(int numThreads, int numEntries) throws InterruptedException {
+    CountDownLatch start = new CountDownLatch(1);
+    long[] nanos = new long[numThreads];
+    Thread[] threads = new Thread[numThreads];
+    for (int i = 0; i < numThreads; i++) {
+      int thread = i;
+      String message = String.format("Server %d records an order of Poutine, from Table %d%n",
+          i + 1, i + 1);
+      threads[i] = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        long begin = System.nanoTime();
+        for (int j = 0; j < numEntries; j++) {
+          RestaurantLog.entry("Fine", message);
+        }
+        nanos[thread] = System.nanoTime() - begin;
+      });
+      threads[i].start();
+    }
+    start.countDown();
+    long total = 0;
+    for (int i = 0; i < numThreads; i++) {
+      threads[i].join();
+      total += nanos[i];
+    }
+    return (double) total / numThreads / numEntries;
+  }
+}
@@ -0,0 +1,98 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Level;
+
+/**
+ * A bounded ring buffer of log entries that many threads can add to without locking and one
+ * thread takes from. Each slot has a sequence number that says whose turn it is: a writer claims
+ * the next slot with a compare-and-set, fills it in and then publishes it by advancing the slot's
+ * sequence, and the reader only takes slots that have been published.
+ */
+class LogRing {
+    /** Receives the entries taken from the ring. */
+    interface Sink {
+        void accept(Level level, long millis, String message);
+    }
+
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final Level[] levels;
+    private final long[] times;
+    private final String[] messages;
+    private final AtomicLong tail = new AtomicLong(); // next slot to be claimed by a writer
+    private long head; // next slot to be taken, only used by the reader
+
+    /**
+     * Constructor for a LogRing.
+     *
+     * @param capacity the number of entries the ring holds, rounded up to a power of two
+     */
+    LogRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.levels = new Level[size];
+        this.times = new long[size];
+        this.messages = new String[size];
+    }
+
+    /**
+     * Adds an entry to the ring.
+     *
+     * @param level level of the entry
+     * @param millis time of the entry
+     * @param message the entry
+     * @return false if the ring is full
+     */
+    boolean offer(Level level, long millis, String message) {
+        long slot;
+        while (true) {
+            slot = tail.get();
+            long sequence = sequences.get((int) slot & mask);
+            if (sequence == slot) {
+                if (tail.compareAndSet(slot, slot + 1)) {
+                    break;
+                }
+            } else if (sequence < slot) {
+                return false;
+            }
+        }
+        int index = (int) slot & mask;
+        levels[index] = level;
+        times[index] = millis;
+        messages[index] = message;
+        sequences.set(index, slot + 1);
+        return true;
+    }
+
+    /**
+     * Takes up to max entries from the ring, oldest first. Only one thread may call this.
+     *
+     * @param sink receives the entries
+     * @param max the most entries to take
+     * @return the number of entries taken
+     */
+    int drainTo(Sink sink, int max) {
+        int count = 0;
+        while (count < max) {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) {
+                break;
+            }
+            sink.accept(levels[index], times[index], messages[index]);
+            messages[index] = null;
+            sequences.set(index, head + mask + 1);
+            head += 1;
+            count += 1;
+        }
+        return count;
+    }
+
+    /** @return true if the ring has no entries waiting */
+    boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+}
@@ -1,9 +1,6 @@
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.IOException;
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 /**
  * A class that represents Manager of a restaurant. Manager is responsible for restocking the
@@ -38,11 +35,10 @@ class Manager extends Employee implements Serializable {
    */
   public String changeThreshold(String ingredient, String threshold) {
     if (threshold.chars().allMatch( Character::isDigit )) {
-      Integer oldThreshold = getKitchen().getThreshold(ingredient);
-      ArrayList<Integer> ingredientInfo = new ArrayList<>();
-      ingredientInfo.add(getKitchen().getQuantity(ingredient));
-      ingredientInfo.add(Integer.parseInt(threshold));
-      getKitchen().getIngredients().replace(ingredient, ingredientInfo);
+      int oldThreshold = getKitchen().getThreshold(ingredient);
+      getKitchen().setThreshold(ingredient, Integer.parseInt(threshold));
+      RestaurantLog.event(EventLog.Kind.THRESHOLD_CHANGED, getId(), 0, 0, ingredient,
+              Integer.parseInt(threshold));
       String change = toString()
               + " changed threshold of "
               + ingredient
@@ -65,13 +61,10 @@ class Manager extends Employee implements Serializable {
    * @param ingredient the ingredient to restock
    */
   String restockInventory(String ingredient) {
-    if (getKitchen().getIngredients().containsKey(ingredient)) {
-      Integer oldQuantity = getKitchen().getQuantity(ingredient);
-      Integer newQuantity = oldQuantity + 20;
-      ArrayList<Integer> ingredientInfo = new ArrayList<>();
-      ingredientInfo.add(newQuantity);
-      ingredientInfo.add(getKitchen().getThreshold(ingredient));
-      getKitchen().getIngredients().replace(ingredient, ingredientInfo);
+    if (getKitchen().hasIngredient(ingredient)) {
+      int oldQuantity = getKitchen().restockIngredients(ingredient, 20);
+      RestaurantLog.event(EventLog.Kind.RESTOCKED, getId(), 0, 0, ingredient, 20);
+      int newQuantity = oldQuantity + 20;
       String restock =
               toString()
                       + " restocked "
@@ -83,10 +76,8 @@ class Manager extends Employee implements Serializable {
       RestaurantLog.entry("Fine", restock + String.format("%n"));
       return restock;
     } else {
-      ArrayList<Integer> ingredientInfo = new ArrayList<>();
-      ingredientInfo.add(20);
-      ingredientInfo.add(20);
-      getKitchen().getIngredients().put(ingredient, ingredientInfo);
+      getKitchen().restockIngredients(ingredient, 20);
+      RestaurantLog.event(EventLog.Kind.RESTOCKED, getId(), 0, 0, ingredient, 20);
 
       String newIngredient = toString() + " stocked " + ingredient + " to " + 20;
       RestaurantLog.entry("Fine", newIngredient + String.format("%n"));
@@ -104,13 +95,11 @@ class Manager extends Employee implements Serializable {
   String restockInventory(String ingredient, String quantity) {
     if (quantity.chars().allMatch( Character::isDigit )) {
 
-      if (getKitchen().getIngredients().containsKey(ingredient)) {
-        int oldQuantity = getKitchen().getQuantity(ingredient);
+      if (getKitchen().hasIngredient(ingredient)) {
+        int oldQuantity = getKitchen().restockIngredients(ingredient, Integer.parseInt(quantity));
+        RestaurantLog.event(EventLog.Kind.RESTOCKED, getId(), 0, 0, ingredient,
+                Integer.parseInt(quantity));
         int newQuantity = oldQuantity + Integer.parseInt(quantity);
-        ArrayList<Integer> ingredientInfo = new ArrayList<>();
-        ingredientInfo.add(newQuantity);
-        ingredientInfo.add(getKitchen().getThreshold(ingredient));
-        getKitchen().getIngredients().replace(ingredient, ingredientInfo);
         String restock =
                 toString()
                         + " restocked "
@@ -122,10 +111,9 @@ class Manager extends Employee implements Serializable {
         RestaurantLog.entry("Fine", restock + String.format("%n"));
         return restock;
       } else {
-        ArrayList<Integer> ingredientInfo = new ArrayList<>();
-        ingredientInfo.add(Integer.parseInt(quantity));
-        ingredientInfo.add(Integer.parseInt(quantity));
-        getKitchen().getIngredients().put(ingredient, ingredientInfo);
+        getKitchen().restockIngredients(ingredient, Integer.parseInt(quantity));
+        RestaurantLog.event(EventLog.Kind.RESTOCKED, getId(), 0, 0, ingredient,
+                Integer.parseInt(quantity));
         String restock = toString() + " stocked " + ingredient + " to " + quantity;
         RestaurantLog.entry("Fine", restock + String.format("%n"));
         return restock;
@@ -145,9 +133,9 @@ class Manager extends Employee implements Serializable {
     out.append("---------------------------Kitchen Inventory-----------------------------");
     out.append(System.lineSeparator());
 
-    for (String ingredient : getKitchen().getIngredients().keySet()) {
-      Integer quantity = getKitchen().getQuantity(ingredient);
-      Integer threshold = getKitchen().getThreshold(ingredient);
+    for (String ingredient : getKitchen().getIngredients()) {
+      int quantity = getKitchen().getQuantity(ingredient);
+      int threshold = getKitchen().getThreshold(ingredient);
       out.append(System.lineSeparator());
       String result = ingredient + ": quantity = " + quantity + ", threshold = " + threshold;
       out.append(result);
@@ -162,29 +150,18 @@ class Manager extends Employee implements Serializable {
    * decide which ingredient to restock.
    */
   String readRequests() {
-    StringBuilder out = new StringBuilder();
-    try (BufferedReader fileReader = new BufferedReader(new FileReader("Request.txt"))) {
-      String request = fileReader.readLine();
-      while (request != null) {
-        out.append(request);
-        out.append("\n");
-        request = fileReader.readLine();
-      }
-    } catch (IOException e) {
-      e.printStackTrace();
-    }
-    return out.toString();
+    return getKitchen().getRequests().read();
   }
 
   /**
    * Method that updates the menu with special food list
    * @param food food that needs to checked and updated
    */
-  void updateSpecialFood(Food food){
+  void updateSpecialFood(MenuItem food){
     boolean containsFood = this.menu.specialFood.contains(food);
     if(!containsFood){
       HashMap<String, Integer> ingredientsToQuantity = new HashMap<>();
-      ArrayList<String> foodIngredients = food.getIngredients();
+      List<String> foodIngredients = food.getIngredients();
       for (String ingredient: foodIngredients) {
         if (ingredientsToQuantity.containsKey(ingredient)) {
           int curQuantity = ingredientsToQuantity.get(ingredient);
@@ -211,8 +188,6 @@ class Manager extends Employee implements Serializable {
 
       if (overStocked) {
         changeFoodPrice(food);
-        this.menu.specialFood.add(food);
-        this.menu.foodList.remove(food);
       }
       else {
       RestaurantLog.entry("Warning", "One or more of the ingredients is not overstocked"
@@ -222,16 +197,17 @@ class Manager extends Employee implements Serializable {
   }
 
   /**
-   * Method to change the price of special food after discount
+   * Method to put a food on the special menu at its price after discount
    * @param food food for which price needs to be changed
    */
-  void changeFoodPrice(Food food){
+  void changeFoodPrice(MenuItem food){
     boolean containsFood = this.menu.specialFood.contains(food);
     if(containsFood == false && food.checkIsDiscounted() == false){
-      food.setIsDiscounted();
-      food.setPrice(food.getDiscountedPrice());
-        RestaurantLog.entry("Fine", "The new price of the special food " + food + " is "
-                +  food.getDiscountedPrice() + String.format("%n"));
+      MenuItem special = this.menu.putOnSpecial(food);
+      RestaurantLog.event(EventLog.Kind.PRICE_CHANGED, getId(), 0, 0, special.getName(),
+              special.getPrice());
+        RestaurantLog.entry("Fine", "The new price of the special food " + special + " is "
+                +  special.getPrice() + String.format("%n"));
     }
     else{
         RestaurantLog.entry("Warning", food + " is not a special food" + String.format("%n"));
@@ -243,7 +219,7 @@ class Manager extends Employee implements Serializable {
    */
   void generateSpecialFood(){
       RestaurantLog.entry("Info", "====================Special Offer====================");
-    for (Food curFood : menu.specialFood){
+    for (MenuItem curFood : menu.specialFood){
       double beforePrice = curFood.getPrice();
       double afterPrice = curFood.getDiscountedPrice();
 
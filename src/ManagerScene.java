@@ -12,7 +12,7 @@ import javafx.scene.text.Text;
 import javafx.stage.Stage;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Set;
 
 /**
  * This class represents Manager Scenes
@@ -47,14 +47,14 @@ public class ManagerScene {
 
         Button updateSpecials = new Button("Update Specials");
         updateSpecials.setOnAction(e -> {
-            ArrayList<Food> normalFood = restaurant.getMenu().foodList;
+            ArrayList<MenuItem> normalFood = new ArrayList<>(restaurant.getMenu().foodList);
             int specNum = restaurant.getMenu().specialFood.size();
-            for (Food food: normalFood) {
+            for (MenuItem food: normalFood) {
                 manager.updateSpecialFood(food);
             }
 
             if (restaurant.getMenu().specialFood.size() > specNum) {
-                Food newFood = restaurant.getMenu().specialFood.get(restaurant.getMenu().specialFood.size() - 1);
+                MenuItem newFood = restaurant.getMenu().specialFood.get(restaurant.getMenu().specialFood.size() - 1);
                 ScenesHelper.getMessageScene(newFood.toString() + " was added to Special Menu");
             } else {
                 ScenesHelper.getMessageScene("No Food was added to Special Menu");
@@ -107,8 +107,8 @@ public class ManagerScene {
     private ChoiceBox<String> getIngredientsChoiceList(Manager manager){
         ChoiceBox<String> ingredientsListBox = new ChoiceBox<>();
         ingredientsListBox.setStyle("-fx-font: 15 arial;");
-        HashMap<String, ArrayList> ingredientsList = manager.getKitchen().getIngredients();
-        ingredientsListBox.getItems().addAll(ingredientsList.keySet());
+        Set<String> ingredientsList = manager.getKitchen().getIngredients();
+        ingredientsListBox.getItems().addAll(ingredientsList);
 
         return ingredientsListBox;
     }
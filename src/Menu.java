@@ -1,24 +1,30 @@
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Class representation of menu. A restaurant has a default menu set that the customers can order
  * from. A menu holds a map of available food to its price, map of ingredient to its price, map of
  * food to list of ingredients and map of name of food to the food object.
+ *
+ * <p>Servers read the menu from many terminals while a Manager puts food on special, so the maps
+ * are concurrent and the lists are copied on write.
  */
 public class Menu implements Serializable {
-  protected HashMap<String, Double> ingredientToPrice;
-  private HashMap<String, Food> foodMap; // add name to food lis
-  public ArrayList<Food> specialFood;
-  public ArrayList<Food> foodList;
+  protected Map<String, Double> ingredientToPrice;
+  private Map<String, MenuItem> foodMap; // add name to food lis
+  public List<MenuItem> specialFood;
+  public List<MenuItem> foodList;
 
   /** Constructor for menu. */
   Menu() {
-    this.ingredientToPrice = new HashMap<>();
-    this.foodMap = new HashMap<>();
-    this.specialFood = new ArrayList<>();
-    this.foodList = new ArrayList<>();
+    this.ingredientToPrice = new ConcurrentHashMap<>();
+    this.foodMap = new ConcurrentHashMap<>();
+    this.specialFood = new CopyOnWriteArrayList<>();
+    this.foodList = new CopyOnWriteArrayList<>();
   }
 
   /**
@@ -26,11 +32,34 @@ public class Menu implements Serializable {
    *
    * @param food food object to be added to menu
    */
-  void addFoodMenu(Food food) {
+  void addFoodMenu(MenuItem food) {
     this.foodMap.put(food.getName(), food);
     this.foodList.add(food);
   }
 
+  /**
+   * Adds food that is already discounted to the special menu.
+   *
+   * @param food discounted food to be added to the special menu
+   */
+  void addSpecialMenu(MenuItem food) {
+    this.foodMap.put(food.getName(), food);
+    this.specialFood.add(food);
+  }
+
+  /**
+   * Moves a food from the regular menu to the special menu at its discounted price.
+   *
+   * @param food food on the regular menu
+   * @return the discounted food now on the special menu
+   */
+  MenuItem putOnSpecial(MenuItem food) {
+    MenuItem special = food.discounted();
+    addSpecialMenu(special);
+    this.foodList.remove(food);
+    return special;
+  }
+
   /**
    * Registers the price of an ingredient into the menu.
    *
@@ -47,7 +76,7 @@ public class Menu implements Serializable {
    * @param foodName name of food
    * @return food object associated with foodName
    */
-  Food getFood(String foodName) { // need to obtain food from menu
+  MenuItem getFood(String foodName) { // need to obtain food from menu
     return this.foodMap.get(foodName);
   }
 
@@ -87,8 +116,8 @@ public class Menu implements Serializable {
 
   ArrayList<String> getFoodNameList() {
     ArrayList<String> foodNameList = new ArrayList<>();
-    for(String foodName: foodMap.keySet()) {
-      foodNameList.add(foodMap.get(foodName).toString());
+    for(MenuItem food: foodMap.values()) {
+      foodNameList.add(food.toString());
     }
     return foodNameList;
   }
@@ -99,7 +128,7 @@ public class Menu implements Serializable {
    */
   String getSpecialFood() {
     StringBuilder out = new StringBuilder();
-    for (Food food:specialFood) {
+    for (MenuItem food:specialFood) {
       out.append(food.getName());
       out.append("\n");
     }
@@ -116,13 +145,13 @@ public class Menu implements Serializable {
             String.format("%n"));
     menuStr.append("--------------------- Regular Menu ----------------------").append(
             String.format("%n"));
-    for (Food food: this.foodList) {
+    for (MenuItem food: this.foodList) {
       menuStr.append(food.getName()).append("----").append(food.getPrice()).append(String.format("%n"));
     }
 
     menuStr.append("--------------------- Discount Menu ----------------------").append(
             String.format("%n"));
-    for (Food food: this.specialFood) {
+    for (MenuItem food: this.specialFood) {
       menuStr.append(food.getName()).append("----").append(food.getPrice()).append(String.format("%n"));
     }
     menuStr.append("---------------------------- End of Menu ---------------------------------");
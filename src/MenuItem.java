@@ -0,0 +1,152 @@
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An item on the Menu. A MenuItem has a name, price, type and the list of ingredients needed to make
+ * it, and never changes once created, so every Food ordered from it shares the same MenuItem.
+ * Putting an item on special makes a new, discounted MenuItem. Prices are kept in cents (see
+ * Money).
+ */
+public final class MenuItem implements Serializable {
+  private final String name;
+  private final long priceCents;
+  private final String type;
+  private final List<String> ingredients;
+  private final Recipe recipe;
+  private final boolean isDiscounted;
+
+  /**
+   * Constructor for a MenuItem at its base price.
+   *
+   * @param name this item's name
+   * @param price this item's base price
+   * @param type this item's type, "Main", "Appetizer" or "Dessert"
+   * @param ingredients the ingredients needed to prepare this item
+   */
+  MenuItem(String name, double price, String type, List<String> ingredients) {
+    this(name, price, type, ingredients, false);
+  }
+
+  /**
+   * Constructor for a MenuItem that may already be discounted, such as one restored from a save.
+   *
+   * @param name this item's name
+   * @param price this item's price
+   * @param type this item's type, "Main", "Appetizer" or "Dessert"
+   * @param ingredients the ingredients needed to prepare this item
+   * @param isDiscounted true if price is already the discounted price
+   */
+  MenuItem(
+      String name, double price, String type, List<String> ingredients, boolean isDiscounted) {
+    this(name, type, ingredients, Money.cents(price), isDiscounted);
+  }
+
+  /**
+   * Constructor for a MenuItem priced in cents.
+   *
+   * @param name this item's name
+   * @param type this item's type, "Main", "Appetizer" or "Dessert"
+   * @param ingredients the ingredients needed to prepare this item
+   * @param priceCents this item's price in cents
+   * @param isDiscounted true if price is already the discounted price
+   */
+  private MenuItem(
+      String name, String type, List<String> ingredients, long priceCents, boolean isDiscounted) {
+    this.name = name;
+    this.priceCents = priceCents;
+    this.type = type;
+    this.ingredients = Collections.unmodifiableList(new ArrayList<>(ingredients));
+    this.recipe = Recipe.of(ingredients);
+    this.isDiscounted = isDiscounted;
+  }
+
+  /** @return name of this item */
+  public String getName() {
+    return name;
+  }
+
+  /** @return price of this item */
+  double getPrice() {
+    return Money.toDouble(priceCents);
+  }
+
+  /** @return price of this item in cents */
+  long getPriceCents() {
+    return priceCents;
+  }
+
+  /** @return price of this item after the special discount */
+  double getDiscountedPrice() {
+    return Money.toDouble(getDiscountedPriceCents());
+  }
+
+  /** @return price of this item after the special discount, in cents */
+  long getDiscountedPriceCents() {
+    return Money.SPECIAL_DISCOUNT.apply(priceCents);
+  }
+
+  /** @return type of this item. Only a Cook of this type can prepare it */
+  String getType() {
+    return type;
+  }
+
+  /** @return read-only list of the ingredients this item needs */
+  List<String> getIngredients() {
+    return ingredients;
+  }
+
+  /** @return the ingredients of this item as an interned multiset */
+  Recipe getRecipe() {
+    return recipe;
+  }
+
+  /**
+   * Checks if the item is discounted
+   * @return true if the item is discounted
+   */
+  boolean checkIsDiscounted() {
+    return isDiscounted;
+  }
+
+  /**
+   * Returns this item on special: the same item at its discounted price.
+   *
+   * @return the discounted item
+   */
+  MenuItem discounted() {
+    return new MenuItem(name, type, ingredients, getDiscountedPriceCents(), true);
+  }
+
+  /**
+   * Returns true if this item is equivalent to item other: both have the same name and need the
+   * same ingredients.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o instanceof MenuItem) {
+      return this.recipe == ((MenuItem) o).recipe && this.name.equals(((MenuItem) o).name);
+    }
+    return false;
+  }
+
+  /** Returns a hash code consistent with equals. */
+  @Override
+  public int hashCode() {
+    return 31 * name.hashCode() + recipe.hashCode();
+  }
+
+  /**
+   * Returns the String representation of this item.
+   *
+   * @return String representation of item
+   */
+  @Override
+  public String toString() {
+    return getName();
+  }
+}
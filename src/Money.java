@@ -0,0 +1,93 @@
+/**
+ * Amounts of money, kept as a whole number of cents in a long so bills add up exactly. Prices read
+ * as decimals are turned into cents once, when the menu is built, and every total after that is
+ * exact. Only tax, gratuity and discounts produce fractions of a cent, and each rounds once, the
+ * way a till does: to the nearest cent, with half a cent rounded up.
+ */
+final class Money {
+  /** Sales tax, added to each bill. */
+  static final Rate TAX = new Rate(1300);
+  /** Gratuity, added to each bill with tax when the table is cleared. */
+  static final Rate GRATUITY = new Rate(1500);
+  /** The discount on food on the special menu. */
+  static final Rate SPECIAL_DISCOUNT = new Rate(-1000);
+
+  private Money() {
+  }
+
+  /**
+   * Turns a decimal amount, such as a price read from the menu file, into cents.
+   *
+   * @param amount the amount
+   * @return the amount in cents, rounded to the nearest cent
+   */
+  static long cents(double amount) {
+    return Math.round(amount * 100);
+  }
+
+  /**
+   * Turns cents into a decimal amount, for callers that still work in decimals.
+   *
+   * @param cents the amount in cents
+   * @return the amount
+   */
+  static double toDouble(long cents) {
+    return cents / 100.0;
+  }
+
+  /**
+   * Appends an amount with two decimals, such as 12.05, without formatting it through a pattern.
+   *
+   * @param out where to append it
+   * @param cents the amount in cents
+   * @return out
+   */
+  static StringBuilder append(StringBuilder out, long cents) {
+    if (cents < 0) {
+      out.append('-');
+      cents = -cents;
+    }
+    long fraction = cents % 100;
+    out.append(cents / 100).append('.');
+    if (fraction < 10) {
+      out.append('0');
+    }
+    return out.append(fraction);
+  }
+
+  /**
+   * @param cents the amount in cents
+   * @return the amount with two decimals, such as 12.05
+   */
+  static String format(long cents) {
+    return append(new StringBuilder(24), cents).toString();
+  }
+
+  /** A percentage added to or, when negative, taken off an amount, in hundredths of a percent. */
+  static final class Rate {
+    private final int basisPoints;
+
+    /**
+     * @param basisPoints the rate in hundredths of a percent, so 1300 for 13%, or -1000 for a 10%
+     *     discount
+     */
+    Rate(int basisPoints) {
+      this.basisPoints = basisPoints;
+    }
+
+    /**
+     * Applies this rate to an amount, rounding to the nearest cent with half a cent rounded up.
+     *
+     * @param cents the amount in cents
+     * @return the amount with the rate added, in cents
+     */
+    long apply(long cents) {
+      return Math.floorDiv(cents * (10000 + basisPoints) + 5000, 10000);
+    }
+
+    /** @return the rate in hundredths of a percent */
+    int getBasisPoints() {
+      return basisPoints;
+    }
+  }
+}
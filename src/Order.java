@@ -1,36 +1,41 @@
 import java.util.ArrayList;
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * A class that represents an order. When the server has finalized an order, server will create an
  * order to be sent to the kitchen. An order can consist of multiple food item.
+ *
+ * <p>The stage an order is at is a single OrderState that only changes by compare-and-set, so
+ * cooks and servers on different threads can move an order along without locks, and at most one
+ * of them wins any given move. The time each state was entered is recorded for kitchen latency,
+ * and is swapped in along with the state, so whoever sees a state also sees when it was entered.
  */
 public class Order implements Serializable {
-  private static int numOrders = 1; // add static counter for id of Order
-  private int id;
+  private long id;
   private ArrayList<Food> foods;
+  private volatile long subtotalCents; // the price of the foods, kept up to date as they change
   private int tableNum;
-  private boolean isFilled;
-  private boolean isDelivered;
-  private boolean isConfirmed;
-  private ArrayList<String> seenCooks;
+  private AtomicReference<Stage> stage;
   protected String billId; // Customer who made the Order
 
   /**
    * Constructor for an order. An order is associated to a table with tableNum.
    *
+   * @param id id of this order, handed out by the kitchen's OrderIdAllocator
    * @param foods list of foods in this order
    * @param tableNum table number of the table associated with this order
    */
-  Order(ArrayList<Food> foods, int tableNum, String billId) {
+  Order(long id, ArrayList<Food> foods, int tableNum, String billId) {
     this.foods = foods;
-    this.id = numOrders;
-    numOrders += 1;
+    for (Food food : foods) {
+      this.subtotalCents += food.getPriceCents();
+    }
+    this.id = id;
     this.tableNum = tableNum;
-    this.isDelivered = false;
-    this.isFilled = false;
-    this.isConfirmed = false;
-    this.seenCooks = new ArrayList<>();
+    long[] times = new long[OrderState.values().length];
+    times[OrderState.PLACED.ordinal()] = System.currentTimeMillis();
+    this.stage = new AtomicReference<>(new Stage(OrderState.PLACED, times));
     this.billId = billId;
   }
 
@@ -40,25 +45,38 @@ public class Order implements Serializable {
    * @param foodToDelete food object to delete
    */
   void deleteFood(Food foodToDelete) {
-    for (Food food : foods) {
-      if (food.equals(foodToDelete)) {
-        foods.remove(food);
-        break;
-      }
+    int index = foods.indexOf(foodToDelete);
+    if (index != -1) {
+      deleteFood(index);
     }
   }
 
+  /**
+   * Deletes the food at a position in this order's list of food.
+   *
+   * @param index position of the food to delete
+   */
+  void deleteFood(int index) {
+    subtotalCents -= foods.remove(index).getPriceCents();
+  }
+
   /**
    * Get the total bill of this order including the prices of all the food in the list.
    *
    * @return the total bill of this order
    */
   double getBill() {
-    double sumBill = 0;
-    for (Food currentFood : this.foods) {
-      sumBill += currentFood.getPrice();
-    }
-    return sumBill;
+    return Money.toDouble(subtotalCents);
+  }
+
+  /**
+   * Get the total bill of this order in cents. It is kept as food is deleted, so nothing is added
+   * up here.
+   *
+   * @return the total bill of this order in cents
+   */
+  long getBillCents() {
+    return subtotalCents;
   }
 
   /**
@@ -71,16 +89,12 @@ public class Order implements Serializable {
   }
 
 
-  public ArrayList<String> getSeenCooks() {
-    return this.seenCooks;
-  }
-
   /**
    * Get the id associated with this order.
    *
    * @return the id
    */
-  public int getId() {
+  public long getId() {
     return this.id;
   }
 
@@ -109,17 +123,69 @@ public class Order implements Serializable {
   }
 
   /**
-   * Checks if this order has been seen by cook.
+   * Get the stage this order is at.
    *
-   * @return true if cook has seen this order
+   * @return the current state
    */
-  boolean hasSeen(String cookId) {
-    return this.seenCooks.contains(cookId);
+  OrderState getState() {
+    return stage.get().state;
   }
 
-  /** Registers that this order has been seen by the cook. */
-  void setHasSeen(String cookId) {
-    this.seenCooks.add(cookId);
+  /**
+   * Moves this order to the next state if the move is allowed from its current state.
+   *
+   * @param next the state to move to
+   * @return true if this call moved the order
+   */
+  boolean moveTo(OrderState next) {
+    long now = System.currentTimeMillis();
+    Stage current = stage.get();
+    while (current.state.canMoveTo(next)) {
+      if (stage.compareAndSet(current, current.enter(next, now))) {
+        return true;
+      }
+      current = stage.get();
+    }
+    return false;
+  }
+
+  /**
+   * Get the time this order last entered a state.
+   *
+   * @param orderState the state involved
+   * @return the time in milliseconds, or 0 if the order has never been in that state
+   */
+  long getStateTime(OrderState orderState) {
+    return stage.get().times[orderState.ordinal()];
+  }
+
+  /**
+   * Puts this order back in the state it was saved in, along with the times each state was
+   * entered. Only used when restoring a saved restaurant.
+   *
+   * @param savedState the saved state
+   * @param savedTimes when each state was entered, by ordinal
+   */
+  void restoreState(OrderState savedState, long[] savedTimes) {
+    long[] times = new long[OrderState.values().length];
+    System.arraycopy(savedTimes, 0, times, 0, Math.min(savedTimes.length, times.length));
+    stage.set(new Stage(savedState, times));
+  }
+
+  /**
+   * Sets when this order entered the state it is in now. Only used when replaying the journal, so
+   * that a replayed order keeps the times of the changes that were journaled.
+   *
+   * @param millis the time the state was entered
+   */
+  void restoreStateTime(long millis) {
+    Stage current = stage.get();
+    stage.set(current.enter(current.state, millis));
+  }
+
+  /** Registers that this order has been seen by a cook. */
+  boolean setSeen() {
+    return moveTo(OrderState.SEEN);
   }
 
   /**
@@ -128,12 +194,12 @@ public class Order implements Serializable {
    * @return true if order has been filled
    */
   boolean isFilled() {
-    return isFilled;
+    return getState().isFilled();
   }
 
   /** Registers that this order has been filled. */
-  void setFilled() {
-    isFilled = true;
+  boolean setFilled() {
+    return moveTo(OrderState.FILLED);
   }
 
   /**
@@ -142,14 +208,14 @@ public class Order implements Serializable {
    * @return true if the order has been delivered
    */
   boolean isDelivered() {
-    return isDelivered;
+    return getState().isDelivered();
   }
 
   /**
    * Register that the order has been delivered to the table by the server after it has been filled.
    */
-  void setDelivered() {
-    isDelivered = true;
+  boolean setDelivered() {
+    return moveTo(OrderState.DELIVERED);
   }
 
   /**
@@ -158,12 +224,22 @@ public class Order implements Serializable {
    * @return true if order is confirmed
    */
   boolean isConfirmed() {
-    return isConfirmed;
+    return getState() == OrderState.CONFIRMED;
+  }
+
+  /** Registers that the order has been confirmed by the server after it has been delivered. */
+  boolean setConfirmed() {
+    return moveTo(OrderState.CONFIRMED);
+  }
+
+  /** Registers that food from this order has been returned after it was delivered. */
+  boolean setReturned() {
+    return moveTo(OrderState.RETURNED);
   }
 
-  /** Registers that the order has been confirmed by the server. */
-  void setConfirmed() {
-    isConfirmed = true;
+  /** Registers that every food in this order has been cancelled before it was prepared. */
+  boolean setCancelled() {
+    return moveTo(OrderState.CANCELLED);
   }
 
   /**
@@ -215,4 +291,22 @@ public class Order implements Serializable {
     }
     return false;
   }
+
+  /** A state of an order and the time it entered each state, 0 if never, by ordinal. */
+  private static final class Stage implements Serializable {
+    private final OrderState state;
+    private final long[] times;
+
+    private Stage(OrderState state, long[] times) {
+      this.state = state;
+      this.times = times;
+    }
+
+    /** @return a stage in the next state, entered at the given time */
+    private Stage enter(OrderState next, long millis) {
+      long[] entered = times.clone();
+      entered[next.ordinal()] = millis;
+      return new Stage(next, entered);
+    }
+  }
 }
\ No newline at end of file
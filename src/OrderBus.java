@@ -0,0 +1,167 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tells the screens in the kitchen and the servers' handhelds when an order changes, so they do not
+ * have to ask over and over. The kitchen publishes an Update each time an order is placed, seen,
+ * filled, delivered, returned, confirmed or has food cancelled, and every subscriber gets a copy.
+ *
+ * <p>Publishing never waits for a subscriber. Each subscriber has a buffer of its own, and a
+ * subscriber that falls so far behind that its buffer is full is shed: it is unsubscribed, gets
+ * the updates already in its buffer, and is then told it was shed, so it can subscribe again and
+ * catch up by reading the orders afresh. One slow screen therefore never slows the kitchen or the
+ * other screens.
+ */
+class OrderBus {
+  private final CopyOnWriteArrayList<Subscription> subscribers = new CopyOnWriteArrayList<>();
+  private final AtomicLong sequence = new AtomicLong();
+  private final AtomicLong numShed = new AtomicLong();
+
+  /**
+   * Subscribes to the updates published from now on.
+   *
+   * @param capacity the number of updates that may wait for the subscriber before it is shed
+   * @return the subscription
+   */
+  Subscription subscribe(int capacity) {
+    Subscription subscription = new Subscription(capacity);
+    subscribers.add(subscription);
+    return subscription;
+  }
+
+  /**
+   * Publishes the current state of an order to every subscriber. Updates are published one at a
+   * time, so every subscriber gets them in the order of their sequence numbers.
+   *
+   * <p>The order's food is copied while holding the order, as Servers and Cooks change it while
+   * holding the order, and before taking the bus, as they publish while holding the order.
+   *
+   * @param order the order that changed
+   */
+  void publish(Order order) {
+    if (subscribers.isEmpty()) {
+      return;
+    }
+    List<String> foods = new ArrayList<>();
+    synchronized (order) {
+      for (Food food : order.getFoods()) {
+        foods.add(food.getName() + (food.getReady() ? " (ready)" : ""));
+      }
+    }
+    synchronized (this) {
+      Update update = new Update(sequence.incrementAndGet(), order, foods);
+      for (Subscription subscription : subscribers) {
+        if (!subscription.updates.offer(update)) {
+          subscription.shed = true;
+          subscribers.remove(subscription);
+          numShed.incrementAndGet();
+        }
+      }
+    }
+  }
+
+  /** @return the number of subscribers */
+  int getNumSubscribers() {
+    return subscribers.size();
+  }
+
+  /** @return the number of subscribers shed for falling behind */
+  long getNumShed() {
+    return numShed.get();
+  }
+
+  /** A subscriber's buffer of updates. */
+  class Subscription implements AutoCloseable {
+    private final ArrayBlockingQueue<Update> updates;
+    private volatile boolean shed;
+
+    private Subscription(int capacity) {
+      this.updates = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Returns the next update, waiting for one if there is none yet.
+     *
+     * @param timeout how long to wait
+     * @param unit the unit of timeout
+     * @return the update, or null if none came in time or the subscriber was shed and has had
+     *     every update in its buffer
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    Update next(long timeout, TimeUnit unit) throws InterruptedException {
+      Update update = updates.poll();
+      if (update == null && !shed) {
+        update = updates.poll(timeout, unit);
+      }
+      return update;
+    }
+
+    /** @return true if the subscriber fell behind and was unsubscribed */
+    boolean isShed() {
+      return shed;
+    }
+
+    /** Unsubscribes. */
+    @Override
+    public void close() {
+      subscribers.remove(this);
+    }
+  }
+
+  /** The state of an order at the moment it changed. */
+  static class Update {
+    private final long sequence;
+    private final long orderId;
+    private final int tableNum;
+    private final String billId;
+    private final OrderState state;
+    private final long time;
+    private final List<String> foods;
+
+    private Update(long sequence, Order order, List<String> foods) {
+      this.sequence = sequence;
+      this.orderId = order.getId();
+      this.tableNum = order.getTableNum();
+      this.billId = order.billId;
+      this.state = order.getState();
+      this.time = System.currentTimeMillis();
+      this.foods = Collections.unmodifiableList(foods);
+    }
+
+    /** @return the number of this update; later updates have larger numbers */
+    long getSequence() {
+      return sequence;
+    }
+
+    long getOrderId() {
+      return orderId;
+    }
+
+    int getTableNum() {
+      return tableNum;
+    }
+
+    String getBillId() {
+      return billId;
+    }
+
+    OrderState getState() {
+      return state;
+    }
+
+    /** @return when the order changed, in milliseconds since the epoch */
+    long getTime() {
+      return time;
+    }
+
+    /** @return the names of the order's food, with " (ready)" after the food that is prepared */
+    List<String> getFoods() {
+      return foods;
+    }
+  }
+}
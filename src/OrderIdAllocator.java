@@ -0,0 +1,76 @@
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out Order ids. Ids start at 1, only ever go up and are never handed out twice, even when
+ * several Servers create Orders at the same time. The allocator is saved with the Kitchen, so ids
+ * keep going up across restarts instead of starting again from 1.
+ *
+ * <p>Ids are reserved in blocks of BLOCK_SIZE. Only the end of the reserved range needs to be
+ * recorded, and a restored allocator resumes after the last reserved block, so an id handed out
+ * after the state was saved can never be handed out again.
+ */
+public class OrderIdAllocator implements Serializable {
+  static final int BLOCK_SIZE = 64;
+
+  private final AtomicLong next;
+  private volatile long reservedUpTo; // every id below this one has been reserved
+
+  /** Constructor for an OrderIdAllocator that starts at id 1. */
+  OrderIdAllocator() {
+    this(1);
+  }
+
+  /**
+   * Constructor for an OrderIdAllocator restored from a save, which resumes after the reserved
+   * range recorded in it.
+   *
+   * @param reservedUpTo the end of the reserved range when the state was saved
+   */
+  OrderIdAllocator(long reservedUpTo) {
+    this.next = new AtomicLong(reservedUpTo);
+    this.reservedUpTo = reservedUpTo;
+  }
+
+  /**
+   * Returns a new Order id.
+   *
+   * @return an id that has never been returned before
+   */
+  long nextId() {
+    long id = next.getAndIncrement();
+    if (id >= reservedUpTo) {
+      reserveThrough(id);
+    }
+    return id;
+  }
+
+  /**
+   * Makes sure an id that was handed out before a restart is never handed out again, such as one
+   * replayed from the journal.
+   *
+   * @param id an id that has already been handed out
+   */
+  void advancePast(long id) {
+    next.accumulateAndGet(id + 1, Math::max);
+    reserveThrough(id);
+  }
+
+  /** @return the end of the reserved range; every id below it may already have been handed out */
+  long getReservedUpTo() {
+    return reservedUpTo;
+  }
+
+  private synchronized void reserveThrough(long id) {
+    while (reservedUpTo <= id) {
+      reservedUpTo += BLOCK_SIZE;
+    }
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    next.set(reservedUpTo);
+  }
+}
@@ -0,0 +1,46 @@
+/**
+ * The stages of an Order's life. An Order is PLACED by a Server, SEEN by a Cook, FILLED once all of
+ * its food is prepared, DELIVERED to its table and finally CONFIRMED by the Server. An Order can be
+ * CANCELLED before it is filled, and is RETURNED when a delivered food is sent back.
+ */
+public enum OrderState {
+  PLACED,
+  SEEN,
+  FILLED,
+  DELIVERED,
+  RETURNED,
+  CONFIRMED,
+  CANCELLED;
+
+  /**
+   * Checks if an Order in this state may move to the next state.
+   *
+   * @param next the state to move to
+   * @return true if the move is allowed
+   */
+  boolean canMoveTo(OrderState next) {
+    switch (this) {
+      case PLACED:
+        return next == SEEN || next == FILLED || next == CANCELLED;
+      case SEEN:
+        return next == FILLED || next == CANCELLED;
+      case FILLED:
+        return next == DELIVERED;
+      case DELIVERED:
+      case RETURNED:
+        return next == RETURNED || next == CONFIRMED;
+      default:
+        return false;
+    }
+  }
+
+  /** @return true if an Order in this state has had all of its food prepared */
+  boolean isFilled() {
+    return this == FILLED || isDelivered();
+  }
+
+  /** @return true if an Order in this state has been delivered to its table */
+  boolean isDelivered() {
+    return this == DELIVERED || this == RETURNED || this == CONFIRMED;
+  }
+}
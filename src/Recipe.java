@@ -0,0 +1,101 @@
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.List;
+import java.util.WeakHashMap;
+
+/**
+ * The ingredients needed to make a Food, as a multiset: the order ingredients are listed in does
+ * not matter, only how many of each there are. A Recipe is immutable and interned, so two equal
+ * Recipes are always the same object and can be compared with ==. Recipes are interned weakly: one
+ * no Food or MenuItem uses any more is forgotten, so changed Foods do not pile up.
+ */
+public final class Recipe implements Serializable {
+  // Each Recipe to itself; guarded by its own lock
+  private static final WeakHashMap<Recipe, WeakReference<Recipe>> interned = new WeakHashMap<>();
+
+  private final String[] ingredients; // distinct ingredient names, sorted
+  private final int[] counts; // how many of each ingredient, at the same index
+  private final int hash;
+
+  private Recipe(String[] ingredients, int[] counts) {
+    this.ingredients = ingredients;
+    this.counts = counts;
+    this.hash = 31 * Arrays.hashCode(ingredients) + Arrays.hashCode(counts);
+  }
+
+  /**
+   * Returns the Recipe for this list of ingredients.
+   *
+   * @param ingredientList the ingredients, in any order, repeated once per unit needed
+   * @return the interned Recipe
+   */
+  static Recipe of(List<String> ingredientList) {
+    String[] sorted = ingredientList.toArray(new String[0]);
+    Arrays.sort(sorted);
+    int size = 0;
+    int[] counts = new int[sorted.length];
+    for (int i = 0; i < sorted.length; i++) {
+      if (size > 0 && sorted[size - 1].equals(sorted[i])) {
+        counts[size - 1] += 1;
+      } else {
+        sorted[size] = sorted[i];
+        counts[size] = 1;
+        size += 1;
+      }
+    }
+    return intern(new Recipe(Arrays.copyOf(sorted, size), Arrays.copyOf(counts, size)));
+  }
+
+  /** @return the interned Recipe equal to this one, which becomes it if there is none */
+  private static Recipe intern(Recipe recipe) {
+    synchronized (interned) {
+      WeakReference<Recipe> reference = interned.get(recipe);
+      Recipe existing = reference == null ? null : reference.get();
+      if (existing != null) {
+        return existing;
+      }
+      interned.put(recipe, new WeakReference<>(recipe));
+      return recipe;
+    }
+  }
+
+  /** @return number of distinct ingredients */
+  int size() {
+    return ingredients.length;
+  }
+
+  /** @return name of the i-th distinct ingredient, in sorted order */
+  String getIngredient(int i) {
+    return ingredients[i];
+  }
+
+  /** @return how many of the i-th distinct ingredient are needed */
+  int getCount(int i) {
+    return counts[i];
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Recipe)) {
+      return false;
+    }
+    Recipe other = (Recipe) o;
+    return hash == other.hash
+        && Arrays.equals(ingredients, other.ingredients)
+        && Arrays.equals(counts, other.counts);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  /** Keeps Recipes interned when they are read back from a save file. */
+  private Object readResolve() {
+    return intern(this);
+  }
+}
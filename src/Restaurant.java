@@ -3,18 +3,39 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * A Restaurant class. A Restaurant creates instances of Food, Menu, Kitchen, Employees, Tables, and
  * ingredients.
+ *
+ * <p>Many terminals work the restaurant at once, so its parts are safe to use from many threads:
+ *
+ * <ul>
+ *   <li>The lists of employees and tables, and the menu's lists, are copied on write. They are
+ *       read far more often than they change, and may be read while they change.
+ *   <li>A Table is its own lock. A Server holds it for the whole of an action on the table, so
+ *       terminals on different tables never wait for each other.
+ *   <li>An Order is locked while its food changes: while a Cook prepares it, and while a Server
+ *       cancels or returns food from it.
+ *   <li>The kitchen's orders, stations, ingredients, order ids and journal manage their own
+ *       locks, and are only taken after the Table and Order locks above, never before.
+ *   <li>Orders reach the kitchen in the order of their ids, one at a time, and a Cook is locked
+ *       while it sees an order, so it sees orders in the order they were placed.
+ * </ul>
+ *
+ * Saving the restaurant needs it to stand still, so RestaurantService lets actions run together
+ * and waits for them all to finish before it takes a checkpoint.
  */
 public class Restaurant implements Serializable {
   private Kitchen kitchen;
   private Menu menu;
-  private ArrayList<Server> servers = new ArrayList<>();
-  private ArrayList<Cook> cooks = new ArrayList<>();
-  private ArrayList<Table> tables = new ArrayList<>();
-  private ArrayList<Manager> managers = new ArrayList<>();
+  private List<Server> servers = new CopyOnWriteArrayList<>();
+  private List<Cook> cooks = new CopyOnWriteArrayList<>();
+  private List<Table> tables = new CopyOnWriteArrayList<>();
+  private List<Manager> managers = new CopyOnWriteArrayList<>();
+  private long journalPosition; // the last journal entry whose change is part of this state
 
   /** The constructor call methods that creates its own respective component of this Restaurant. */
   Restaurant() {
@@ -25,12 +46,24 @@ public class Restaurant implements Serializable {
     buildIngredients();
   }
 
+  /**
+   * Constructor for a Restaurant restored from a save. Nothing is read from the config files; the
+   * caller fills in the employees and tables.
+   *
+   * @param kitchen the restored kitchen
+   * @param menu the restored menu
+   */
+  Restaurant(Kitchen kitchen, Menu menu) {
+    this.kitchen = kitchen;
+    this.menu = menu;
+  }
+
   /**
    * Return list of Servers
    *
    * @return Server[] servers
    */
-  ArrayList<Server> getServers() {
+  List<Server> getServers() {
     return this.servers;
   }
 
@@ -56,7 +89,7 @@ public class Restaurant implements Serializable {
    *
    * @return Cook[] cooks
    */
-  ArrayList<Cook> getCooks() {
+  List<Cook> getCooks() {
     return this.cooks;
   }
 
@@ -65,7 +98,7 @@ public class Restaurant implements Serializable {
    *
    * @return Table[] tables
    */
-  ArrayList<Table> getTables() {
+  List<Table> getTables() {
     return this.tables;
   }
 
@@ -74,7 +107,7 @@ public class Restaurant implements Serializable {
    *
    * @return Manager[] managers
    */
-  ArrayList<Manager> getManagers() {
+  List<Manager> getManagers() {
     return this.managers;
   }
 
@@ -86,6 +119,25 @@ public class Restaurant implements Serializable {
     return kitchen;
   }
 
+  /**
+   * Returns the position of the last journal entry whose change is already part of this
+   * Restaurant. Entries up to this position are skipped when the journal is replayed.
+   *
+   * @return the journal position
+   */
+  long getJournalPosition() {
+    return journalPosition;
+  }
+
+  /**
+   * Sets the position of the last journal entry whose change is part of this Restaurant.
+   *
+   * @param journalPosition the journal position
+   */
+  void setJournalPosition(long journalPosition) {
+    this.journalPosition = journalPosition;
+  }
+
   /**
    * Return Table
    * @param tableNum Table number
@@ -119,8 +171,6 @@ public class Restaurant implements Serializable {
   public String buildMenu() {
     Path currentRelativePath = Paths.get("");
     String fileName = currentRelativePath.toAbsolutePath().toString() + "/FoodItems.txt";
-    FileInputStream in;
-    in.
 
     StringBuilder menuBuilder = new StringBuilder();
     menuBuilder.append("---------------------------------- Menu -----------------------------------").append(String.format("%n"));
@@ -140,13 +190,11 @@ public class Restaurant implements Serializable {
         String[] ingredients = rawLine[3].split(", ");
         ArrayList<String> arrayIngredients = new ArrayList<>(Arrays.asList(ingredients));
 
-        Food newFood = new Food(foodName, price, type, arrayIngredients);
+        MenuItem newFood = new MenuItem(foodName, price, type, arrayIngredients);
         menuBuilder.append(newFood.toString()).append("----" + newFood.getPrice()).append(String.format("%n"));
 
         this.menu.addFoodMenu(newFood);
         line = fileReader.readLine();
-        String str;
-        str.c
       }
       menuBuilder.append("---------------------------- End of Menu ---------------------------------");
 
@@ -259,8 +307,9 @@ public class Restaurant implements Serializable {
    * @param cookType Type of Cook
    * @return the Employee
    */
-  public Employee addEmployee(String employeeType, String id, String cookType) {
+  public synchronized Employee addEmployee(String employeeType, String id, String cookType) {
     Employee newWorker = EmployeeFactory.getEmployee(employeeType, id, kitchen, cookType, menu);
+    kitchen.getJournal().employeeAdded(employeeType, id, cookType);
     if (employeeType.equals("Manager")) {
       this.managers.add((Manager) newWorker);
     } else if (employeeType.equals("Cook")) {
@@ -277,8 +326,9 @@ public class Restaurant implements Serializable {
    * @param id Employee's id
    * @return true iff the employee is deleted
    */
-  public Boolean deleteEmployee(String employeeType, String id) {
+  public synchronized Boolean deleteEmployee(String employeeType, String id) {
     if (isWorker(employeeType, id)) {
+      kitchen.getJournal().employeeDeleted(employeeType, id);
       if (employeeType.equals("Manager")) {
         ArrayList<Manager> employeeToDelete = new ArrayList<>();
         employeeToDelete.add((Manager) getWorker(employeeType, id));
@@ -0,0 +1,586 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * An HTTP API for the restaurant, so the tablets at the tables and the screens in the kitchen can
+ * all work on the same Restaurant. Each request is one action of a RestaurantService. Requests and
+ * answers are JSON objects, for example:
+ *
+ * <pre>
+ * POST /tables/3/fill          {"server": "1", "bills": "2", "customers": "4"}
+ * POST /tables/3/food          {"server": "1", "bill": "Bill 1", "food": "Poutine",
+ *                               "removed": ["Gravy"], "added": []}
+ * POST /tables/3/place         {"server": "1"}
+ * POST /orders/7/seen          {"cook": "2"}
+ * POST /orders/7/prepare       {"cook": "2"}
+ * POST /orders/7/deliver       {"server": "1"}
+ * GET  /tables/3/bills/Bill 1                 -> {"bill": 12.43}
+ * GET  /events                                -> a stream of order changes
+ * </pre>
+ *
+ * <p>Every action answers with status 200 and {"message": ...} or the data asked for; a request
+ * naming an employee, table or order that does not exist, or missing a field, answers 400 with
+ * {"error": ...}, and an unknown path answers 404. See {@link #route} for every path.
+ *
+ * <p>GET /events is a server-sent event stream: each time an order is placed, seen, filled,
+ * delivered, returned, confirmed or has food cancelled, an "order" event is sent with the order's
+ * id, table, bill, state and food, within milliseconds, so screens never need to poll. A stream
+ * that falls more than STREAM_BUFFER changes behind is sent a "shed" event and closed; the screen
+ * should then read the orders again and reconnect. Streams send a comment every
+ * HEARTBEAT_SECONDS so idle connections stay open.
+ *
+ * <p>Requests are handled on a virtual thread each when the JDK has them (Java 21 and later), so
+ * thousands of terminals can wait on the restaurant at once without a platform thread each; on
+ * older JDKs they are handled by a fixed pool of restaurant.http.threads threads. Idle connections
+ * hold no thread either way.
+ */
+public class RestaurantHttpServer {
+  private static final int DEFAULT_PORT = 8080;
+  private static final int BACKLOG = 4096;
+  private static final int STREAM_BUFFER = 256;
+  private static final int HEARTBEAT_SECONDS = 15;
+
+  private final RestaurantService service;
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final ExecutorService streams; // event streams last for hours, so they get their own
+
+  /**
+   * Constructor for a server of a restaurant's actions. The server is not started.
+   *
+   * @param service the restaurant
+   * @param port the port to listen on, or 0 for any free port
+   * @throws IOException if the port cannot be opened
+   */
+  RestaurantHttpServer(RestaurantService service, int port) throws IOException {
+    this.service = service;
+    this.server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+    this.executor = executor(Executors.newFixedThreadPool(
+        Integer.getInteger("restaurant.http.threads", 200), this::daemon));
+    this.streams = executor(Executors.newCachedThreadPool(this::daemon));
+    server.setExecutor(executor);
+    server.createContext("/", this::handle);
+    server.createContext("/events", exchange -> streams.execute(() -> stream(exchange)));
+  }
+
+  /**
+   * Starts the restaurant in the working directory and serves it until the program is stopped.
+   *
+   * @param args the port, 8080 if not given
+   */
+  public static void main(String[] args) throws IOException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+    RestaurantService service = RestaurantService.open();
+    RestaurantHttpServer server = new RestaurantHttpServer(service, port);
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      server.stop();
+      try {
+        service.close();
+      } catch (IOException io) {
+        io.printStackTrace();
+      }
+    }));
+    server.start();
+    System.out.println("Restaurant serving on port " + server.getPort());
+  }
+
+  /** Starts answering requests. */
+  void start() {
+    server.start();
+  }
+
+  /** Stops answering requests, letting the ones being handled finish first. */
+  void stop() {
+    server.stop(1);
+    streams.shutdownNow();
+    executor.shutdown();
+    try {
+      executor.awaitTermination(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /** @return the port the server listens on */
+  int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  /** Returns a virtual thread per task executor if the JDK has one, or else the given pool. */
+  private static ExecutorService executor(ExecutorService pool) {
+    try {
+      ExecutorService virtual = (ExecutorService) Executors.class
+          .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+      pool.shutdown();
+      return virtual;
+    } catch (ReflectiveOperationException e) {
+      return pool;
+    }
+  }
+
+  private Thread daemon(Runnable task) {
+    Thread thread = new Thread(task, "restaurant-http");
+    thread.setDaemon(true);
+    return thread;
+  }
+
+  /** Sends the changes of every order to one client, until it goes away or falls behind. */
+  private void stream(HttpExchange exchange) {
+    try (exchange) {
+      if (!exchange.getRequestMethod().equals("GET")) {
+        exchange.sendResponseHeaders(405, -1);
+        return;
+      }
+      exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+      exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+      exchange.sendResponseHeaders(200, 0);
+      OutputStream out = exchange.getResponseBody();
+      try (OrderBus.Subscription subscription = service.subscribe(STREAM_BUFFER)) {
+        out.write(": subscribed\n\n".getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        while (true) {
+          OrderBus.Update update = subscription.next(HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+          if (update == null && subscription.isShed()) {
+            out.write(("event: shed\ndata: " + Json.write(error("Fell more than " + STREAM_BUFFER
+                + " changes behind; read the orders again and reconnect")) + "\n\n")
+                .getBytes(StandardCharsets.UTF_8));
+            return;
+          } else if (update == null) {
+            out.write(": keep-alive\n\n".getBytes(StandardCharsets.UTF_8));
+          }
+          // Everything already waiting is sent together
+          while (update != null) {
+            out.write(event(update).getBytes(StandardCharsets.UTF_8));
+            update = subscription.next(0, TimeUnit.SECONDS);
+          }
+          out.flush();
+        }
+      }
+    } catch (IOException e) {
+      // The client went away
+    } catch (InterruptedException e) {
+      // The server is stopping
+    }
+  }
+
+  private static String event(OrderBus.Update update) {
+    Map<String, Object> order = new LinkedHashMap<>();
+    order.put("order", update.getOrderId());
+    order.put("table", update.getTableNum());
+    order.put("bill", update.getBillId());
+    order.put("state", update.getState().name());
+    order.put("time", update.getTime());
+    order.put("foods", update.getFoods());
+    return "id: " + update.getSequence() + "\nevent: order\ndata: " + Json.write(order) + "\n\n";
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    int status = 200;
+    Object answer;
+    try {
+      List<String> path = new ArrayList<>();
+      for (String part : exchange.getRequestURI().getPath().split("/")) {
+        if (!part.isEmpty()) {
+          path.add(part);
+        }
+      }
+      Map<String, Object> body = Collections.emptyMap();
+      if (exchange.getRequestMethod().equals("POST")) {
+        body = Json.parseObject(readBody(exchange.getRequestBody()));
+      }
+      answer = route(exchange.getRequestMethod(), path, body);
+      if (answer == null) {
+        status = 404;
+        answer = error("No such action: " + exchange.getRequestMethod() + " "
+            + exchange.getRequestURI().getPath());
+      }
+    } catch (IllegalArgumentException e) {
+      status = 400;
+      answer = error(e.getMessage());
+    } catch (RuntimeException e) {
+      // The client learns nothing of the restaurant's insides; the log gets the whole story
+      status = 500;
+      answer = error("Internal server error");
+      RestaurantLog.logger.log(Level.SEVERE, "HTTP request failed: " + exchange.getRequestMethod()
+          + " " + exchange.getRequestURI().getPath(), e);
+    }
+    byte[] bytes = Json.write(answer).getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+
+  /**
+   * Carries out the action a request asks for.
+   *
+   * @param method the request's method
+   * @param path the parts of the request's path
+   * @param body the request's JSON object, empty for a GET
+   * @return the answer, or null if there is no such action
+   */
+  private Object route(String method, List<String> path, Map<String, Object> body) {
+    String resource = path.isEmpty() ? "" : path.get(0);
+    String action = path.size() > 2 ? path.get(2) : "";
+    if (method.equals("GET")) {
+      switch (resource) {
+        case "menu":
+          return answer("menu", service.getMenu());
+        case "tables":
+          if (path.size() == 1) {
+            return answer("tables", service.getTables());
+          } else if (action.equals("receipts")) {
+            return answer("receipts", service.getReceipts(number(path.get(1))));
+          } else if (action.equals("bills") && path.size() == 4) {
+            return answer("bill", service.getBill(number(path.get(1)), path.get(3)));
+          }
+          return null;
+        case "servers":
+          return path.size() == 3 && action.equals("orders")
+              ? answer("orders", service.getAssignedOrders(path.get(1))) : null;
+        case "cooks":
+          return path.size() == 3 && action.equals("orders")
+              ? answer("orders", service.getOrdersToPrepare(path.get(1))) : null;
+        case "employees":
+          return answer("employees", service.getEmployees());
+        default:
+          return null;
+      }
+    }
+    if (!method.equals("POST") || path.size() != 3) {
+      return null;
+    }
+    String id = path.get(1);
+    if (resource.equals("tables")) {
+      int tableNum = number(id);
+      switch (action) {
+        case "fill":
+          return message(service.fillTable(field(body, "server"), tableNum, field(body, "bills"),
+              field(body, "customers")));
+        case "food":
+          return answer("recorded", service.recordFood(field(body, "server"), tableNum,
+              field(body, "bill"), field(body, "food"), list(body, "removed"), list(body, "added")));
+        case "delete-food":
+          service.deleteFood(field(body, "server"), tableNum, field(body, "bill"),
+              field(body, "food"), list(body, "removed"), list(body, "added"));
+          return message("Food deleted");
+        case "place":
+          return message(service.placeOrder(field(body, "server"), tableNum));
+        case "clear":
+          return message(service.clearTable(field(body, "server"), tableNum));
+        default:
+          return null;
+      }
+    } else if (resource.equals("orders")) {
+      long orderNum = orderNumber(id);
+      switch (action) {
+        case "seen":
+          return message(service.seeOrder(field(body, "cook"), orderNum));
+        case "prepare":
+          return message(service.prepareOrder(field(body, "cook"), orderNum));
+        case "deliver":
+          return message(service.deliverOrder(field(body, "server"), orderNum));
+        case "confirm":
+          service.confirmOrder(field(body, "server"), orderNum);
+          return message("Order confirmed");
+        case "return":
+          return message(service.returnFood(field(body, "server"), orderNum, field(body, "food"),
+              body.containsKey("reason") ? field(body, "reason") : ""));
+        case "cancel":
+          return answer("cancelled", service.cancelFood(field(body, "server"), orderNum,
+              field(body, "food")));
+        default:
+          return null;
+      }
+    }
+    return null;
+  }
+
+  private static Map<String, Object> answer(String name, Object value) {
+    Map<String, Object> answer = new LinkedHashMap<>();
+    answer.put(name, value);
+    return answer;
+  }
+
+  private static Map<String, Object> message(String message) {
+    return answer("message", message.trim());
+  }
+
+  private static Map<String, Object> error(String message) {
+    return answer("error", message);
+  }
+
+  private static int number(String text) {
+    try {
+      return Integer.parseInt(text);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Not a number: " + text);
+    }
+  }
+
+  private static long orderNumber(String text) {
+    try {
+      return Long.parseLong(text);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Not a number: " + text);
+    }
+  }
+
+  private static String field(Map<String, Object> body, String name) {
+    Object value = body.get(name);
+    if (value == null || value instanceof List || value instanceof Map) {
+      throw new IllegalArgumentException("Missing \"" + name + "\"");
+    }
+    return value.toString();
+  }
+
+  private static List<String> list(Map<String, Object> body, String name) {
+    List<String> values = new ArrayList<>();
+    Object value = body.get(name);
+    if (value instanceof List) {
+      for (Object each : (List<?>) value) {
+        values.add(String.valueOf(each));
+      }
+    } else if (value != null) {
+      values.add(value.toString());
+    }
+    return values;
+  }
+
+  private static String readBody(InputStream in) throws IOException {
+    try (InputStream body = in) {
+      return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+  /**
+   * Reads and writes the JSON the API uses. Numbers are read as the text they are written as, so
+   * ids and counts can be sent either as numbers or as strings.
+   */
+  static class Json {
+    private final String text;
+    private int pos;
+
+    private Json(String text) {
+      this.text = text;
+    }
+
+    /** Reads a JSON object; an empty text is an empty object. */
+    static Map<String, Object> parseObject(String text) {
+      Json json = new Json(text);
+      json.skipSpace();
+      if (json.pos == text.length()) {
+        return Collections.emptyMap();
+      }
+      Object value = json.value();
+      json.skipSpace();
+      if (!(value instanceof Map) || json.pos != text.length()) {
+        throw new IllegalArgumentException("The request must be one JSON object");
+      }
+      @SuppressWarnings("unchecked")
+      Map<String, Object> object = (Map<String, Object>) value;
+      return object;
+    }
+
+    private Object value() {
+      skipSpace();
+      if (pos == text.length()) {
+        throw new IllegalArgumentException("Unexpected end of JSON");
+      }
+      char c = text.charAt(pos);
+      if (c == '{') {
+        Map<String, Object> object = new LinkedHashMap<>();
+        pos += 1;
+        skipSpace();
+        if (peek() == '}') {
+          pos += 1;
+          return object;
+        }
+        do {
+          skipSpace();
+          String name = string();
+          skipSpace();
+          expect(':');
+          object.put(name, value());
+          skipSpace();
+        } while (next() == ',');
+        pos -= 1;
+        expect('}');
+        return object;
+      } else if (c == '[') {
+        List<Object> array = new ArrayList<>();
+        pos += 1;
+        skipSpace();
+        if (peek() == ']') {
+          pos += 1;
+          return array;
+        }
+        do {
+          array.add(value());
+          skipSpace();
+        } while (next() == ',');
+        pos -= 1;
+        expect(']');
+        return array;
+      } else if (c == '"') {
+        return string();
+      } else if (text.startsWith("true", pos)) {
+        pos += 4;
+        return Boolean.TRUE;
+      } else if (text.startsWith("false", pos)) {
+        pos += 5;
+        return Boolean.FALSE;
+      } else if (text.startsWith("null", pos)) {
+        pos += 4;
+        return null;
+      }
+      int start = pos;
+      while (pos < text.length() && "+-.eE0123456789".indexOf(text.charAt(pos)) >= 0) {
+        pos += 1;
+      }
+      if (start == pos) {
+        throw new IllegalArgumentException("Unexpected '" + c + "' in JSON at " + pos);
+      }
+      return text.substring(start, pos);
+    }
+
+    private String string() {
+      expect('"');
+      StringBuilder out = new StringBuilder();
+      char c;
+      while ((c = next()) != '"') {
+        if (c == '\\') {
+          c = next();
+          switch (c) {
+            case 'n':
+              out.append('\n');
+              break;
+            case 't':
+              out.append('\t');
+              break;
+            case 'r':
+              out.append('\r');
+              break;
+            case 'b':
+              out.append('\b');
+              break;
+            case 'f':
+              out.append('\f');
+              break;
+            case 'u':
+              if (pos + 4 > text.length()) {
+                throw new IllegalArgumentException("Unexpected end of JSON");
+              }
+              out.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+              pos += 4;
+              break;
+            default:
+              out.append(c);
+          }
+        } else {
+          out.append(c);
+        }
+      }
+      return out.toString();
+    }
+
+    private void skipSpace() {
+      while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+        pos += 1;
+      }
+    }
+
+    private char peek() {
+      if (pos == text.length()) {
+        throw new IllegalArgumentException("Unexpected end of JSON");
+      }
+      return text.charAt(pos);
+    }
+
+    private char next() {
+      char c = peek();
+      pos += 1;
+      return c;
+    }
+
+    private void expect(char c) {
+      if (next() != c) {
+        throw new IllegalArgumentException("Expected '" + c + "' in JSON at " + (pos - 1));
+      }
+    }
+
+    /** Writes strings, numbers, booleans, lists and maps as JSON. */
+    static String write(Object value) {
+      StringBuilder out = new StringBuilder();
+      write(value, out);
+      return out.toString();
+    }
+
+    private static void write(Object value, StringBuilder out) {
+      if (value == null) {
+        out.append("null");
+      } else if (value instanceof Number || value instanceof Boolean) {
+        out.append(value);
+      } else if (value instanceof Map) {
+        out.append('{');
+        String separator = "";
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+          out.append(separator);
+          writeString(String.valueOf(entry.getKey()), out);
+          out.append(':');
+          write(entry.getValue(), out);
+          separator = ",";
+        }
+        out.append('}');
+      } else if (value instanceof List) {
+        out.append('[');
+        String separator = "";
+        for (Object each : (List<?>) value) {
+          out.append(separator);
+          write(each, out);
+          separator = ",";
+        }
+        out.append(']');
+      } else {
+        writeString(value.toString(), out);
+      }
+    }
+
+    private static void writeString(String value, StringBuilder out) {
+      out.append('"');
+      for (int i = 0; i < value.length(); i++) {
+        char c = value.charAt(i);
+        if (c == '"' || c == '\\') {
+          out.append('\\').append(c);
+        } else if (c == '\n') {
+          out.append("\\n");
+        } else if (c == '\r') {
+          out.append("\\r");
+        } else if (c == '\t') {
+          out.append("\\t");
+        } else if (c < ' ') {
+          out.append(String.format("\\u%04x", (int) c));
+        } else {
+          out.append(c);
+        }
+      }
+      out.append('"');
+    }
+  }
+}
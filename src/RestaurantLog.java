@@ -1,41 +1,89 @@
 import java.io.IOException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.*;
 import java.util.logging.LogRecord;
 
 /** A Restaurant Logger for the Restaurant Manager
  *  Logs all inputs/events that have occurred in the Restaurant.
+ *
+ *  <p>Entries can be written as they are made, or asynchronously: callers then only add the entry
+ *  to a LogRing, and one writer thread formats the entries and writes them to log.txt in batches.
+ *  Either way log.txt is a RollingLogFile, so it is rolled over by size and by day, and old logs
+ *  are compressed and eventually deleted.
+ *
+ *  <p>Events can also be recorded in an EventLog, as structured records that can be queried. With
+ *  a writer thread, callers only queue their events and the writer thread writes them too.
  */
 public class RestaurantLog {
 
     protected static final java.util.logging.Logger logger =
             java.util.logging.Logger.getLogger(Logger.class.getName());
 
+    private static final DateTimeFormatter DATE_FORMAT =
+            DateTimeFormatter.ofPattern("dd MMM yyyy HH:mm").withZone(ZoneId.systemDefault());
+    private static final int BATCH_SIZE = 256;
+    private static final long IDLE_NANOS = 2000000; // how long the writer sleeps with nothing to do
+
+    private static volatile Stamp stamp = new Stamp(-1, "");
+    private static volatile AsyncWriter async; // the writer thread, or null when writing as entries are made
+    private static volatile EventLog events; // where events are recorded, or null if they are not
+    private static RollingHandler direct; // writes entries made while there is no writer thread
+
+    /** What entry does when the buffer of an asynchronous log is full. */
+    enum FullPolicy {
+        /** Wait for the writer to make room. Nothing is lost. */
+        BLOCK,
+        /** Drop the entry. The number of dropped entries is written to the log later. */
+        DROP,
+        /** Drop Fine entries, and wait for room for Info entries and warnings. */
+        DROP_FINE
+    }
+
     /**
      * Sets up logger, log.txt file for the logger and the format of logs that would be written in log.txt
      *
      * @throws IOException check if File is correct
      */
     RestaurantLog() throws IOException {
+        writeDirectly(Paths.get("log.txt"));
+    }
 
-        // Associate the handler with the logger.
-        logger.setLevel(Level.ALL);
-        FileHandler log = new FileHandler("log.txt", true);
-        logger.addHandler(log);
-        log.setFormatter(new Formatter() {
-            @Override
-            public String format(LogRecord record) {
-                String line = "";
-                line += record.getLevel() + " - ";
-                SimpleDateFormat df = new SimpleDateFormat("dd MMM yyyy HH:mm");
-                Date d = new Date(record.getMillis());
-                line += df.format(d) + ": ";
-                line += this.formatMessage(record);
-                return line;
-            }
-        });
+    /**
+     * Sets up asynchronous logging to log.txt. Entries are added to a buffer of the given capacity
+     * and written by a writer thread, which flushes the file once per batch.
+     *
+     * @param capacity the number of entries the buffer holds
+     * @param policy what to do with an entry when the buffer is full
+     * @throws IOException if log.txt cannot be opened
+     */
+    RestaurantLog(int capacity, FullPolicy policy) throws IOException {
+        this("log.txt", capacity, policy);
+    }
 
+    /**
+     * Sets up asynchronous logging to the given file.
+     *
+     * @param file the log file, appended to
+     * @param capacity the number of entries the buffer holds
+     * @param policy what to do with an entry when the buffer is full
+     * @throws IOException if the file cannot be opened
+     */
+    RestaurantLog(String file, int capacity, FullPolicy policy) throws IOException {
+        AsyncWriter writer = new AsyncWriter(Paths.get(file), capacity, policy);
+        AsyncWriter old = async;
+        async = writer;
+        writer.start();
+        stopWritingDirectly();
+        if (old != null) {
+            old.shutdown();
+        }
     }
 
     /**
@@ -45,16 +93,308 @@ public class RestaurantLog {
      * @param event The description of the event processed
      */
     public static void entry(String evenType, String event) {
+        Level level;
         switch (evenType) {
             case "Fine":
-                logger.log(Level.FINE, event);
+                level = Level.FINE;
                 break;
             case "Info":
-                logger.log(Level.INFO, event);
+                level = Level.INFO;
                 break;
             default:
-                logger.log(Level.WARNING, event);
+                level = Level.WARNING;
                 break;
         }
+        AsyncWriter writer = async;
+        if (writer != null) {
+            writer.offer(level, event);
+        } else {
+            logger.log(level, event);
+        }
+    }
+
+    /**
+     * Records an event in the event log, if one has been set. With a writer thread the event is only
+     * queued, so callers holding the restaurant's locks do not wait for the event log's file.
+     *
+     * @param kind kind of event
+     * @param actor id of the employee who made it happen, or null
+     * @param table number of the table involved, or 0
+     * @param order id of the order involved, or 0
+     * @param food name of the food or ingredient involved, or null
+     * @param amount the price, bill total or quantity of the event
+     */
+    static void event(EventLog.Kind kind, String actor, int table, long order, String food,
+            double amount) {
+        EventLog log = events;
+        if (log != null) {
+            try {
+                if (async != null) {
+                    log.enqueue(kind, actor, table, order, food, amount);
+                } else {
+                    log.append(kind, actor, table, order, food, amount);
+                }
+            } catch (IOException e) {
+                entry("warning", String.format("Cannot write the event log: %s%n", e));
+            }
+        }
+    }
+
+    /**
+     * Sets the event log that events are recorded in.
+     *
+     * @param log the event log, or null to stop recording events
+     */
+    static void setEventLog(EventLog log) {
+        events = log;
+    }
+
+    /**
+     * Writes every entry made so far and stops asynchronous logging. Later entries are written to
+     * the same file as they are made.
+     */
+    static void close() {
+        AsyncWriter writer = async;
+        async = null;
+        if (writer != null) {
+            writer.finish();
+            try {
+                writeDirectly(writer.file);
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Cannot write " + writer.file + ": " + e);
+            }
+            writer.drainLeftovers();
+        }
+    }
+
+    /**
+     * Writes the entries made while there is no writer thread to a log file, as they are made.
+     * @param file the log file, appended to
+     * @throws IOException if the file cannot be opened
+     */
+    private static synchronized void writeDirectly(Path file) throws IOException {
+        stopWritingDirectly();
+        logger.setLevel(Level.ALL);
+        direct = new RollingHandler(new RollingLogFile(file));
+        direct.setFormatter(new LineFormatter());
+        logger.addHandler(direct);
+    }
+
+    /** Stops writing entries to a log file as they are made, as a writer thread writes them now. */
+    private static synchronized void stopWritingDirectly() {
+        if (direct != null) {
+            logger.removeHandler(direct);
+            direct.close();
+            direct = null;
+        }
+    }
+
+    /**
+     * Formats one line of the log. The date only changes once a minute, so it is formatted once
+     * and reused until the minute changes.
+     */
+    static String formatLine(Level level, long millis, String message) {
+        return level + " - " + dateOf(millis) + ": " + message;
+    }
+
+    /** Writes one line of the log in pieces, without building it as a String first. */
+    private static void writeLine(Writer out, Level level, long millis, String message)
+            throws IOException {
+        out.write(level.getName());
+        out.write(" - ");
+        out.write(dateOf(millis));
+        out.write(": ");
+        out.write(message);
+    }
+
+    private static String dateOf(long millis) {
+        long minute = millis / 60000;
+        Stamp current = stamp;
+        if (current.minute != minute) {
+            current = new Stamp(minute, DATE_FORMAT.format(Instant.ofEpochMilli(millis)));
+            stamp = current;
+        }
+        return current.text;
+    }
+
+    /** Formats the records of the log file written as entries are made. */
+    static class LineFormatter extends Formatter {
+        @Override
+        public String format(LogRecord record) {
+            return formatLine(record.getLevel(), record.getMillis(), formatMessage(record));
+        }
+    }
+
+    /** Writes the records of the log file written as entries are made, one flush per record. */
+    private static class RollingHandler extends Handler {
+        private final RollingLogFile file;
+
+        RollingHandler(RollingLogFile file) {
+            this.file = file;
+        }
+
+        @Override
+        public synchronized void publish(LogRecord record) {
+            if (!isLoggable(record)) {
+                return;
+            }
+            try {
+                file.beforeEntry(record.getMillis());
+                file.write(getFormatter().format(record));
+                file.flush();
+            } catch (IOException e) {
+                reportError(null, e, ErrorManager.WRITE_FAILURE);
+            }
+        }
+
+        @Override
+        public void flush() {
+            try {
+                file.flush();
+            } catch (IOException e) {
+                reportError(null, e, ErrorManager.FLUSH_FAILURE);
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                file.close();
+            } catch (IOException e) {
+                reportError(null, e, ErrorManager.CLOSE_FAILURE);
+            }
+        }
+    }
+
+    /** A formatted date and the minute it is for. */
+    private static class Stamp {
+        private final long minute;
+        private final String text;
+
+        Stamp(long minute, String text) {
+            this.minute = minute;
+            this.text = text;
+        }
+    }
+
+    /** The thread that takes entries from the buffer and writes them to the log file. */
+    private static class AsyncWriter extends Thread {
+        private final Path file;
+        private final RollingLogFile out;
+        private final LogRing ring;
+        private final FullPolicy policy;
+        private final AtomicLong dropped = new AtomicLong();
+        private long reportedDropped;
+        private volatile boolean running = true;
+        private volatile boolean failed; // the file cannot be written, so entries are logged as made
+
+        AsyncWriter(Path file, int capacity, FullPolicy policy) throws IOException {
+            super("restaurant-log");
+            setDaemon(true);
+            this.file = file;
+            this.out = new RollingLogFile(file);
+            this.ring = new LogRing(capacity);
+            this.policy = policy;
+        }
+
+        void offer(Level level, String message) {
+            if (failed) {
+                logger.log(level, message);
+                return;
+            }
+            long millis = System.currentTimeMillis();
+            if (ring.offer(level, millis, message)) {
+                return;
+            }
+            if (policy == FullPolicy.DROP || policy == FullPolicy.DROP_FINE && level == Level.FINE) {
+                dropped.incrementAndGet();
+                return;
+            }
+            LockSupport.unpark(this);
+            while (!ring.offer(level, millis, message)) {
+                if (!running || !isAlive()) {
+                    logger.log(level, message);
+                    return;
+                }
+                Thread.onSpinWait();
+            }
+        }
+
+        void shutdown() {
+            finish();
+            drainLeftovers();
+        }
+
+        /** Stops the writer once it has written the entries in the buffer, and waits for it. */
+        void finish() {
+            running = false;
+            LockSupport.unpark(this);
+            try {
+                join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /** Logs the entries added while the writer was stopping as they would be without it. */
+        void drainLeftovers() {
+            ring.drainTo((level, millis, message) -> logger.log(level, message), Integer.MAX_VALUE);
+        }
+
+        @Override
+        public void run() {
+            LogRing.Sink sink = (level, millis, message) -> {
+                try {
+                    out.beforeEntry(millis);
+                    writeLine(out, level, millis, message);
+                } catch (IOException e) {
+                    logger.log(level, message);
+                }
+            };
+            try {
+                while (running || !ring.isEmpty()) {
+                    int count = ring.drainTo(sink, BATCH_SIZE) + writeEvents();
+                    long lost = dropped.get();
+                    if (lost != reportedDropped) {
+                        out.beforeEntry(System.currentTimeMillis());
+                        writeLine(out, Level.WARNING, System.currentTimeMillis(), String.format(
+                                "%d log entries were dropped because the log buffer was full%n",
+                                lost - reportedDropped));
+                    }
+                    if (count > 0 || lost != reportedDropped) {
+                        reportedDropped = lost;
+                        out.flush();
+                    } else if (running) {
+                        LockSupport.parkNanos(this, IDLE_NANOS);
+                    }
+                }
+                out.close();
+            } catch (IOException e) {
+                failed = true;
+                logger.log(Level.WARNING, "Cannot write " + file + ", later entries are not in it: " + e);
+                drainLeftovers();
+                try {
+                    out.close();
+                } catch (IOException ignored) {
+                    // the file is already failing, and the failure has been logged
+                }
+            } finally {
+                running = false;
+            }
+        }
+
+        /** Writes the events queued in the event log, if one has been set. */
+        private int writeEvents() {
+            EventLog log = events;
+            if (log == null) {
+                return 0;
+            }
+            try {
+                return log.writeQueued();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Cannot write the event log: " + e);
+                return 0;
+            }
+        }
     }
 }
@@ -1,9 +1,10 @@
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.stage.Stage;
 import javafx.stage.WindowEvent;
 import javafx.event.EventHandler;
 
-import java.io.*;
+import java.io.IOException;
 
 // class RestaurantManager
 // ----------------------------------------------------------------------
@@ -14,7 +15,7 @@ import java.io.*;
 public class RestaurantManager extends Application {
   private static Stage window;
   private Scenes setupScene = new Scenes();
-  private Restaurant restaurant;
+  private RestaurantService service;
 
   public static void main(String[] args) {
     launch(args);
@@ -22,27 +23,11 @@ public class RestaurantManager extends Application {
 
   @Override
   public void start(Stage primaryStage) throws Exception {
-    Config.createConfiguration(); // Create config files for Restaurant if they do not exist
-    Restaurant newRestaurant = new Restaurant();
-    Server.totalBills = 0;
-
-    try {
-      if (new File("Restaurant.ser").exists()) {
-        ObjectInputStream objectInputStream =
-            new ObjectInputStream(new FileInputStream("Restaurant.ser"));
-        this.restaurant = (Restaurant) objectInputStream.readObject();
-        updateOldRestaurant(this.restaurant, newRestaurant);
-      } else {
-        restaurant = new Restaurant();
-        updateOldRestaurant(this.restaurant, newRestaurant);
-      }
-    } catch (IOException | ClassNotFoundException io) {
-      io.printStackTrace();
-    }
+    // Checkpoints are taken on the JavaFX thread, between the changes the scenes make
+    service = RestaurantService.open(Platform::runLater);
 
     window = primaryStage;
-    window.setScene(setupScene.getFirstScene(window, restaurant));
-    new RestaurantLog();
+    window.setScene(setupScene.getFirstScene(window, service.getRestaurant()));
 
     //      window.setScene(setupScene.getRecordOrderScene(server, "1", restaurant));
     window.setTitle("Restaurant Manager");
@@ -52,25 +37,11 @@ public class RestaurantManager extends Application {
         new EventHandler<WindowEvent>() {
           public void handle(WindowEvent we) {
             try {
-              ObjectOutputStream objectOutputStream =
-                  new ObjectOutputStream(new FileOutputStream("Restaurant.ser"));
-              objectOutputStream.writeObject(restaurant);
-              RestaurantLog.entry(
-                  "Info", "Total profit earned Today: " +
-                              String.format("%.2f",Server.totalBills) + String.format("%n"));
+              service.close();
             } catch (IOException io) {
               io.printStackTrace();
             }
           }
         });
   }
-
-  public void updateOldRestaurant(Restaurant oldRes, Restaurant newRes) {
-    oldRes.updateMenu(newRes.getMenu());
-    for (String ingredient : newRes.getMenu().ingredientToPrice.keySet()) {
-      if (!oldRes.getKitchen().getIngredients().keySet().contains(ingredient)) {
-        oldRes.getKitchen().addIngredients(ingredient, 20, 20);
-      }
-    }
-  }
 }
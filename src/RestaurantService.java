@@ -0,0 +1,702 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * The restaurant without its user interface. A RestaurantService loads the restaurant, replays its
+ * journal, starts the log and the event log, and offers every action the scenes let employees
+ * take, so the restaurant can be run from a back office machine, a load test or a web server
+ * without loading JavaFX. The user interface starts and stops the restaurant through a
+ * RestaurantService too.
+ *
+ * <p>Each action takes the ids of the employee and table involved, and returns the message the
+ * scene would have shown. An action naming an employee, table or order the restaurant does not
+ * have throws an IllegalArgumentException.
+ *
+ * <p>A RestaurantService is shared by many threads, and their actions run at the same time: the
+ * restaurant locks only the tables and orders an action works on (see Restaurant). Only
+ * checkpoints run on their own; a checkpoint waits for the actions running to finish, and actions
+ * started meanwhile wait for it.
+ */
+public class RestaurantService implements Closeable {
+  private static final Path SNAPSHOT = Paths.get("Restaurant.snapshot");
+  private static final Path LEGACY = Paths.get("Restaurant.ser"); // saved before snapshots
+  private static final Path JOURNAL = Paths.get("journal");
+  private static final Path EVENTS = Paths.get("events");
+  private static final int LOG_CAPACITY = 8192;
+
+  private final Restaurant restaurant;
+  private final Journal journal;
+  private final Executor checkpoints;
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private final AtomicBoolean checkpointDue = new AtomicBoolean();
+  private EventLog events;
+
+  private RestaurantService(Restaurant restaurant, Journal journal, Executor checkpoints) {
+    this.restaurant = restaurant;
+    this.journal = journal;
+    this.checkpoints = checkpoints;
+  }
+
+  /**
+   * Starts the restaurant saved in the working directory, or a new one if there is none. When the
+   * journal grows large enough, a checkpoint is taken right after the action that grew it.
+   *
+   * @return the running restaurant
+   * @throws IOException if the restaurant, its journal or its logs cannot be opened
+   */
+  static RestaurantService open() throws IOException {
+    return open(null);
+  }
+
+  /**
+   * Starts the restaurant saved in the working directory, or a new one if there is none.
+   *
+   * @param checkpoints runs the checkpoints the journal asks for, later and on another task than
+   *     the action that asked; null to take them right after the action that asked
+   * @return the running restaurant
+   * @throws IOException if the restaurant, its journal or its logs cannot be opened
+   */
+  static RestaurantService open(Executor checkpoints) throws IOException {
+    // Log asynchronously; -Drestaurant.log.policy picks what happens when the log falls behind
+    new RestaurantLog(LOG_CAPACITY, RestaurantLog.FullPolicy.valueOf(
+        System.getProperty("restaurant.log.policy", "BLOCK")));
+    Config.createConfiguration(); // Create config files for Restaurant if they do not exist
+    Restaurant newRestaurant = new Restaurant();
+    Server.resetTotalBills();
+
+    Restaurant restaurant;
+    if (SNAPSHOT.toFile().exists()) {
+      restaurant = RestaurantSnapshot.load(SNAPSHOT);
+    } else if (LEGACY.toFile().exists()) {
+      restaurant = readLegacy();
+    } else {
+      restaurant = new Restaurant();
+    }
+    updateOldRestaurant(restaurant, newRestaurant);
+
+    // Changes made since the last snapshot are replayed, then folded into a new snapshot
+    RestaurantService service =
+        new RestaurantService(restaurant, Journal.open(JOURNAL, restaurant), checkpoints);
+    service.journal.setCheckpointHandler(service::checkpointRequested);
+    service.checkpoint();
+    // -Drestaurant.kitchen.mode=actor makes every change to the kitchen on one writer thread
+    if (System.getProperty("restaurant.kitchen.mode", "locks").equals("actor")) {
+      restaurant.getKitchen().startWriter();
+    }
+
+    try {
+      service.events = EventLog.open(EVENTS);
+      RestaurantLog.setEventLog(service.events);
+    } catch (IOException io) {
+      io.printStackTrace();
+    }
+    return service;
+  }
+
+  /**
+   * Reads a Restaurant saved before snapshots, to be saved as a snapshot once it is open. The old
+   * save is left as it is. A save that cannot be read stops the restaurant from opening, rather
+   * than a new Restaurant being started in its place.
+   *
+   * @return the saved Restaurant
+   * @throws IOException if the save cannot be read
+   */
+  private static Restaurant readLegacy() throws IOException {
+    try {
+      return LegacyRestaurantReader.load(LEGACY);
+    } catch (IOException e) {
+      throw new IOException(String.format("Cannot read %s (%s). Move it out of %s to start a new "
+          + "Restaurant instead", LEGACY, e, LEGACY.toAbsolutePath().getParent()), e);
+    }
+  }
+
+  /** Adds the food and ingredients of the config files to a restaurant saved before they were. */
+  static void updateOldRestaurant(Restaurant oldRes, Restaurant newRes) {
+    oldRes.updateMenu(newRes.getMenu());
+    for (String ingredient : newRes.getMenu().ingredientToPrice.keySet()) {
+      if (!oldRes.getKitchen().hasIngredient(ingredient)) {
+        oldRes.getKitchen().addIngredients(ingredient, 20, 20);
+      }
+    }
+  }
+
+  /** @return the restaurant, for the scenes; changes made to it directly bypass this service */
+  Restaurant getRestaurant() {
+    return restaurant;
+  }
+
+  /**
+   * Saves a snapshot of the restaurant and empties the journal. Runs on its own, between actions.
+   */
+  void checkpoint() {
+    lock.writeLock().lock();
+    try {
+      journal.checkpoint(restaurant, SNAPSHOT);
+    } catch (IOException io) {
+      io.printStackTrace();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Called by the journal, in the middle of an action, when it has grown large enough. */
+  private void checkpointRequested() {
+    if (checkpoints != null) {
+      checkpoints.execute(this::checkpoint);
+    } else {
+      checkpointDue.set(true);
+    }
+  }
+
+  /**
+   * Runs an action alongside the other actions, then takes the checkpoint asked for meanwhile, if
+   * any. The checkpoint is taken by the first action to finish after it was asked for.
+   *
+   * @param action the action
+   * @return what the action returned
+   */
+  private <T> T act(Supplier<T> action) {
+    lock.readLock().lock();
+    try {
+      return action.get();
+    } finally {
+      lock.readLock().unlock();
+      if (checkpointDue.getAndSet(false)) {
+        checkpoint();
+      }
+    }
+  }
+
+  private void act(Runnable action) {
+    act(() -> {
+      action.run();
+      return null;
+    });
+  }
+
+  /**
+   * Saves the restaurant, logs the day's profit and closes the journal and logs.
+   *
+   * @throws IOException if the restaurant cannot be saved
+   */
+  @Override
+  public void close() throws IOException {
+    lock.writeLock().lock();
+    try {
+      restaurant.getKitchen().stopWriter();
+      restaurant.getKitchen().closeRequests();
+      journal.checkpoint(restaurant, SNAPSHOT);
+      journal.close();
+      RestaurantLog.entry("Info", "Total profit earned Today: "
+          + String.format("%.2f", Server.getTotalBills()) + String.format("%n"));
+    } finally {
+      RestaurantLog.setEventLog(null);
+      if (events != null) {
+        try {
+          events.close();
+        } catch (IOException io) {
+          io.printStackTrace();
+        }
+      }
+      RestaurantLog.close();
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Subscribes to the changes of every order from now on.
+   *
+   * @param capacity the number of changes that may wait for the subscriber before it is shed
+   * @return the subscription, to be closed when no longer needed
+   */
+  OrderBus.Subscription subscribe(int capacity) {
+    return restaurant.getKitchen().getOrderBus().subscribe(capacity);
+  }
+
+  // --------------------- Employees ---------------------------- //
+
+  /**
+   * Hires an employee.
+   *
+   * @param job "Server", "Cook" or "Manager"
+   * @param id the employee's id, a number
+   * @param cookType the type of food a Cook makes, or null for the other jobs
+   * @return the result
+   */
+  String addEmployee(String job, String id, String cookType) {
+    return act(() -> {
+      if (id.equals("") || !id.chars().allMatch(Character::isDigit)) {
+        return "Please enter a valid id.";
+      } else if (job.equals("Cook") && cookType == null) {
+        return "Please select cook type.";
+      } else if (!job.equals("Cook") && cookType != null) {
+        return job + " should not have a type.";
+      } else if (restaurant.isWorker(job, id)) {
+        return "Employee is already in the system.";
+      }
+      // The scenes hire everyone but Cooks with the type "Not Available"
+      restaurant.addEmployee(job, id, cookType == null ? "Not Available" : cookType);
+      return job + " " + id + " has been added.";
+    });
+  }
+
+  /**
+   * Lets an employee go.
+   *
+   * @param job the employee's job
+   * @param id the employee's id
+   * @return the result
+   */
+  String deleteEmployee(String job, String id) {
+    return act(() -> {
+      if (!restaurant.deleteEmployee(job, id)) {
+        return "I.D does not exist. Cannot delete employee.";
+      }
+      return job + " " + id + " has been deleted.";
+    });
+  }
+
+  /** @return every employee, with their attendance */
+  List<String> getEmployees() {
+    return act(() -> {
+      List<String> employees = new ArrayList<>();
+      List<Employee> all = new ArrayList<>();
+      all.addAll(restaurant.getCooks());
+      all.addAll(restaurant.getManagers());
+      all.addAll(restaurant.getServers());
+      for (Employee employee : all) {
+        employees.add(employee.getJob() + " " + employee.getId() + ": " + employee.getAttendance());
+      }
+      return employees;
+    });
+  }
+
+  /**
+   * Signs an employee in or out, if their password is right.
+   *
+   * @param job the employee's job
+   * @param id the employee's id
+   * @param password the employee's password
+   * @return true iff the password is right
+   */
+  boolean logIn(String job, String id, String password) {
+    return act(() -> {
+      Employee employee = employee(job, id);
+      if (!employee.checkPass(password)) {
+        return false;
+      }
+      employee.setAttendance();
+      return true;
+    });
+  }
+
+  /**
+   * Changes an employee's password.
+   *
+   * @param job the employee's job
+   * @param id the employee's id
+   * @param oldPass the current password
+   * @param newPass the new password
+   * @return the result
+   */
+  String changePassword(String job, String id, String oldPass, String newPass) {
+    return act(() -> {
+      if (newPass.equals("")) {
+        return "Password can't be and empty string";
+      }
+      return employee(job, id).setPassword(oldPass, newPass)
+          ? "You password has been changed" : "Invalid password";
+    });
+  }
+
+  // --------------------- Servers ---------------------------- //
+
+  /** @return the menu */
+  String getMenu() {
+    return act(() -> restaurant.getMenu().generateMenu());
+  }
+
+  /** @return the tables, such as "Table 1" */
+  List<String> getTables() {
+    return act(() -> restaurant.getTablesString());
+  }
+
+  /**
+   * Seats customers at a table.
+   *
+   * @param serverId the Server seating them
+   * @param tableNum the table
+   * @param numBills the number of bills the customers want
+   * @param numCustomers the number of customers
+   * @return the result
+   */
+  String fillTable(String serverId, int tableNum, String numBills, String numCustomers) {
+    return act(() -> server(serverId).fillTable(table(tableNum), numBills, numCustomers));
+  }
+
+  /**
+   * Adds food from the menu to a bill at a table, to be ordered when the table's orders are
+   * placed.
+   *
+   * @param serverId the Server recording it
+   * @param tableNum the table
+   * @param billId the bill, such as "Bill 1"
+   * @param foodName the food on the menu
+   * @param removed ingredients to leave out
+   * @param added ingredients to add
+   * @return true iff the food was recorded
+   */
+  boolean recordFood(String serverId, int tableNum, String billId, String foodName,
+      List<String> removed, List<String> added) {
+    return act(() -> {
+      Server server = server(serverId);
+      return server.recordFoodOrder(table(tableNum), food(server, foodName, removed, added), billId);
+    });
+  }
+
+  /**
+   * Takes food off a bill before the table's orders are placed.
+   *
+   * @param serverId the Server taking it off
+   * @param tableNum the table
+   * @param billId the bill, such as "Bill 1"
+   * @param foodName the food on the menu
+   * @param removed the ingredients that were left out of it
+   * @param added the ingredients that were added to it
+   */
+  void deleteFood(String serverId, int tableNum, String billId, String foodName,
+      List<String> removed, List<String> added) {
+    act(() -> {
+      Server server = server(serverId);
+      server.deleteFoodOrder(table(tableNum), food(server, foodName, removed, added), billId);
+    });
+  }
+
+  /**
+   * Sends a table's recorded food to the kitchen, one order per bill.
+   *
+   * @param serverId the Server placing them
+   * @param tableNum the table
+   * @return the result
+   */
+  String placeOrder(String serverId, int tableNum) {
+    return act(() -> server(serverId).placeOrder(table(tableNum)));
+  }
+
+  /**
+   * Lists the orders a Server has placed and not yet had confirmed.
+   *
+   * @param serverId the Server
+   * @return the orders
+   */
+  List<String> getAssignedOrders(String serverId) {
+    return act(() -> {
+      List<String> orders = new ArrayList<>();
+      for (Order order : server(serverId).getAssignedOrders()) {
+        orders.add(order.toString());
+      }
+      return orders;
+    });
+  }
+
+  /**
+   * Brings a filled order to its table.
+   *
+   * @param serverId the Server bringing it
+   * @param orderNum the order
+   * @return the result
+   */
+  String deliverOrder(String serverId, long orderNum) {
+    return act(() -> {
+      Server server = server(serverId);
+      return server.deliverOrder(orderNum, table(assigned(server, orderNum).getTableNum()));
+    });
+  }
+
+  /**
+   * Confirms that the customers are happy with a delivered order, so it is added to their bill.
+   *
+   * @param serverId the Server confirming it
+   * @param orderNum the order
+   */
+  void confirmOrder(String serverId, long orderNum) {
+    act(() -> {
+      Server server = server(serverId);
+      server.confirmOrder(orderNum, table(assigned(server, orderNum).getTableNum()));
+    });
+  }
+
+  /**
+   * Takes back food from a delivered order and orders it again. The food only leaves the order once
+   * it has been ordered again.
+   *
+   * @param serverId the Server taking it back
+   * @param orderNum the order
+   * @param foodName the food returned
+   * @param reason why it was returned
+   * @return the result
+   */
+  String returnFood(String serverId, long orderNum, String foodName, String reason) {
+    return act(() -> {
+      Server server = server(serverId);
+      Order order = assigned(server, orderNum);
+      Food returned = foodInOrder(order, foodName);
+      String status = server.returnOrder(orderNum, table(order.getTableNum()),
+          food(server, foodName, new ArrayList<>(), new ArrayList<>()));
+      if (status.equals(Server.FOOD_RETURNED)) {
+        server.deleteOldFoodOrder(orderNum, returned, reason);
+      }
+      return status;
+    });
+  }
+
+  /**
+   * Cancels food in an order the kitchen has not prepared yet.
+   *
+   * @param serverId the Server cancelling it
+   * @param orderNum the order
+   * @param foodName the food to cancel
+   * @return true iff the food was cancelled
+   */
+  boolean cancelFood(String serverId, long orderNum, String foodName) {
+    return act(() -> {
+      Server server = server(serverId);
+      Order order = assigned(server, orderNum);
+      return server.cancelFoodItem(orderNum, foodInOrder(order, foodName),
+          table(order.getTableNum()));
+    });
+  }
+
+  /**
+   * Clears a table whose customers have paid and left.
+   *
+   * @param serverId the Server clearing it
+   * @param tableNum the table
+   * @return the result
+   */
+  String clearTable(String serverId, int tableNum) {
+    return act(() -> server(serverId).clearTable(table(tableNum)));
+  }
+
+  /**
+   * Adds up a bill at a table, with tax.
+   *
+   * @param tableNum the table
+   * @param billId the bill, such as "Bill 1"
+   * @return the amount owed
+   */
+  double getBill(int tableNum, String billId) {
+    return act(() -> {
+      Table table = table(tableNum);
+      if (!table.orders.containsKey(billId)) {
+        throw new IllegalArgumentException("Table " + tableNum + " has no " + billId);
+      }
+      return table.getBill(billId);
+    });
+  }
+
+  /**
+   * @param tableNum the table
+   * @return the receipts of every bill at a table
+   */
+  String getReceipts(int tableNum) {
+    return act(() -> table(tableNum).getReceipts());
+  }
+
+  // --------------------- Cooks ---------------------------- //
+
+  /**
+   * Lists the orders a Cook can see or prepare.
+   *
+   * @param cookId the Cook
+   * @return the orders
+   */
+  List<String> getOrdersToPrepare(String cookId) {
+    return act(() -> {
+      List<String> orders = new ArrayList<>();
+      for (Order order : cook(cookId).getOrdersToPrepare()) {
+        orders.add(order.toString());
+      }
+      return orders;
+    });
+  }
+
+  /**
+   * Tells the kitchen a Cook has seen an order.
+   *
+   * @param cookId the Cook
+   * @param orderNum the order
+   * @return the result
+   */
+  String seeOrder(String cookId, long orderNum) {
+    return act(() -> cook(cookId).hasSeenOrder(order(orderNum)));
+  }
+
+  /**
+   * Prepares the food of a Cook's type in an order they have seen.
+   *
+   * @param cookId the Cook
+   * @param orderNum the order
+   * @return the result
+   */
+  String prepareOrder(String cookId, long orderNum) {
+    return act(() -> cook(cookId).prepFood(order(orderNum)));
+  }
+
+  // --------------------- Managers ---------------------------- //
+
+  /**
+   * Changes the amount of an ingredient below which more is requested.
+   *
+   * @param managerId the Manager changing it
+   * @param ingredient the ingredient
+   * @param threshold the new threshold
+   * @return the result
+   */
+  String changeThreshold(String managerId, String ingredient, String threshold) {
+    return act(() -> manager(managerId).changeThreshold(ingredient, threshold));
+  }
+
+  /**
+   * Restocks an ingredient by the amount requested, or by a given amount.
+   *
+   * @param managerId the Manager restocking it
+   * @param ingredient the ingredient
+   * @param quantity the amount, or null for the amount requested
+   * @return the result
+   */
+  String restock(String managerId, String ingredient, String quantity) {
+    return act(() -> {
+      Manager manager = manager(managerId);
+      return quantity == null
+          ? manager.restockInventory(ingredient) : manager.restockInventory(ingredient, quantity);
+    });
+  }
+
+  /**
+   * @param managerId the Manager asking
+   * @return the amount of every ingredient in the kitchen
+   */
+  String getInventory(String managerId) {
+    return act(() -> manager(managerId).generateInventory());
+  }
+
+  /**
+   * @param managerId the Manager asking
+   * @return the restock requests
+   */
+  String getRequests(String managerId) {
+    return act(() -> manager(managerId).readRequests());
+  }
+
+  /**
+   * @param managerId the Manager asking
+   * @return the orders in the kitchen
+   */
+  String getKitchenOrders(String managerId) {
+    return act(() -> manager(managerId).seeOrders());
+  }
+
+  /**
+   * Puts the food made with the most stocked ingredients on the special menu.
+   *
+   * @param managerId the Manager updating it
+   * @return the result
+   */
+  String updateSpecials(String managerId) {
+    return act(() -> {
+      Manager manager = manager(managerId);
+      Menu menu = restaurant.getMenu();
+      synchronized (menu) { // so two Managers do not put the same food on special
+        int specNum = menu.specialFood.size();
+        for (MenuItem food : new ArrayList<>(menu.foodList)) {
+          manager.updateSpecialFood(food);
+        }
+        if (menu.specialFood.size() > specNum) {
+          return menu.specialFood.get(menu.specialFood.size() - 1) + " was added to Special Menu";
+        }
+        return "No Food was added to Special Menu";
+      }
+    });
+  }
+
+  // --------------------- Lookups ---------------------------- //
+
+  private Employee employee(String job, String id) {
+    Employee employee = restaurant.getWorker(job, id);
+    if (employee == null) {
+      throw new IllegalArgumentException("No " + job + " " + id);
+    }
+    return employee;
+  }
+
+  private Server server(String id) {
+    return (Server) employee("Server", id);
+  }
+
+  private Cook cook(String id) {
+    return (Cook) employee("Cook", id);
+  }
+
+  private Manager manager(String id) {
+    return (Manager) employee("Manager", id);
+  }
+
+  private Table table(int tableNum) {
+    Table table = restaurant.getTable(tableNum);
+    if (table == null) {
+      throw new IllegalArgumentException("No Table " + tableNum);
+    }
+    return table;
+  }
+
+  private Order order(long orderNum) {
+    Order order = restaurant.getKitchen().getOrder(orderNum);
+    if (order == null) {
+      throw new IllegalArgumentException("No Order " + orderNum + " in the kitchen");
+    }
+    return order;
+  }
+
+  private static Order assigned(Server server, long orderNum) {
+    Order order = ServerHelper.getAssigned(orderNum, server.getAssignedOrders());
+    if (order == null) {
+      throw new IllegalArgumentException(
+          "Order " + orderNum + " is not assigned to Server " + server.getId());
+    }
+    return order;
+  }
+
+  private static Food foodInOrder(Order order, String foodName) {
+    for (Food food : order.getFoods()) {
+      if (food.getName().equals(foodName)) {
+        return food;
+      }
+    }
+    throw new IllegalArgumentException("No " + foodName + " in Order " + order.getId());
+  }
+
+  /** Creates a food from the menu with ingredients left out and added. */
+  private Food food(Server server, String name, List<String> removed, List<String> added) {
+    MenuItem item = restaurant.getMenu().getFood(name);
+    if (item == null) {
+      throw new IllegalArgumentException(name + " is not on the menu");
+    }
+    Food food = server.createFoodItem(item);
+    for (String ingredient : removed) {
+      food.remIngredient(ingredient);
+    }
+    for (String ingredient : added) {
+      food.addIngredient(ingredient);
+    }
+    return food;
+  }
+}
@@ -0,0 +1,447 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Saves and restores a Restaurant in a compact, versioned binary format, as a faster and sturdier
+ * replacement for Java serialization of Restaurant.ser. Only the state is written, never class
+ * layouts, so a snapshot survives changes to the classes as long as the format version is kept.
+ *
+ * <p>A snapshot is written in sections: the menu items, the menu, the kitchen stock, every order
+ * once, then the tables and the employees. Menu items and orders are written once and referred to
+ * by index or id everywhere else, so an order shared by the kitchen, a table and a server is still
+ * a single object after loading. A snapshot also records the position of the last Journal entry
+ * it includes. Snapshots are written to a temporary file that then replaces the
+ * old one, so a crash during a save never leaves a half written snapshot behind.
+ */
+public class RestaurantSnapshot {
+  private static final int MAGIC = 0x524D5353; // "RMSS"
+  static final int VERSION = 2; // 2 added the journal position
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  /**
+   * Writes the restaurant to a snapshot file.
+   *
+   * @param restaurant the restaurant to save
+   * @param file the snapshot file
+   * @throws IOException if the file cannot be written
+   */
+  static void save(Restaurant restaurant, Path file) throws IOException {
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+         DataOutputStream out = new DataOutputStream(
+             new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE))) {
+      write(restaurant, out);
+      out.flush();
+      channel.force(true);
+    }
+    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Reads a restaurant from a snapshot file.
+   *
+   * @param file the snapshot file
+   * @return the restored restaurant
+   * @throws IOException if the file cannot be read or is not a snapshot of a known version
+   */
+  static Restaurant load(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+         DataInputStream in = new DataInputStream(
+             new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE))) {
+      return read(in);
+    }
+  }
+
+  /**
+   * Writes the restaurant to a stream in the snapshot format.
+   *
+   * @param restaurant the restaurant to save
+   * @param out the stream to write to
+   * @throws IOException if the stream cannot be written
+   */
+  static void write(Restaurant restaurant, DataOutputStream out) throws IOException {
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeLong(restaurant.getJournalPosition());
+    Menu menu = restaurant.getMenu();
+    Kitchen kitchen = restaurant.getKitchen();
+    Map<Long, Order> orders = collectOrders(restaurant);
+
+    // Menu items, including old items still referred to by ordered food
+    IdentityHashMap<MenuItem, Integer> items = new IdentityHashMap<>();
+    ArrayList<MenuItem> itemList = new ArrayList<>();
+    for (MenuItem item : menu.foodList) {
+      addItem(item, items, itemList);
+    }
+    for (MenuItem item : menu.specialFood) {
+      addItem(item, items, itemList);
+    }
+    for (Order order : orders.values()) {
+      for (Food food : order.getFoods()) {
+        addItem(food.getItem(), items, itemList);
+      }
+    }
+    for (Table table : restaurant.getTables()) {
+      for (Food food : table.getFoodsToOrder()) {
+        addItem(food.getItem(), items, itemList);
+      }
+    }
+    out.writeInt(itemList.size());
+    for (MenuItem item : itemList) {
+      out.writeUTF(item.getName());
+      out.writeDouble(item.getPrice());
+      out.writeUTF(item.getType());
+      writeStrings(item.getIngredients(), out);
+      out.writeBoolean(item.checkIsDiscounted());
+    }
+
+    // Menu
+    out.writeInt(menu.ingredientToPrice.size());
+    for (Map.Entry<String, Double> entry : menu.ingredientToPrice.entrySet()) {
+      out.writeUTF(entry.getKey());
+      out.writeDouble(entry.getValue());
+    }
+    out.writeInt(menu.foodList.size());
+    for (MenuItem item : menu.foodList) {
+      out.writeInt(items.get(item));
+    }
+    out.writeInt(menu.specialFood.size());
+    for (MenuItem item : menu.specialFood) {
+      out.writeInt(items.get(item));
+    }
+
+    // Kitchen stock
+    out.writeLong(kitchen.getOrderIds().getReservedUpTo());
+    out.writeInt(kitchen.getIngredients().size());
+    for (String ingredient : kitchen.getIngredients()) {
+      out.writeUTF(ingredient);
+      out.writeInt(kitchen.getQuantity(ingredient));
+      out.writeInt(kitchen.getThreshold(ingredient));
+    }
+
+    // Orders
+    out.writeInt(orders.size());
+    for (Order order : orders.values()) {
+      writeVarLong(order.getId(), out);
+      writeVarLong(order.getTableNum(), out);
+      out.writeUTF(order.billId);
+      out.writeByte(order.getState().ordinal());
+      // Bit i of the mask is set if state i was entered; times after PLACED are offsets from it
+      long placed = order.getStateTime(OrderState.PLACED);
+      int mask = 0;
+      for (OrderState state : OrderState.values()) {
+        if (order.getStateTime(state) != 0) {
+          mask |= 1 << state.ordinal();
+        }
+      }
+      out.writeByte(mask);
+      out.writeLong(placed);
+      for (OrderState state : OrderState.values()) {
+        if (state != OrderState.PLACED && (mask & (1 << state.ordinal())) != 0) {
+          writeVarLong(order.getStateTime(state) - placed, out);
+        }
+      }
+      writeFoods(order.getFoods(), items, out);
+    }
+    out.writeInt(kitchen.getOrderList().size());
+    for (Order order : kitchen.getOrderList()) {
+      writeVarLong(order.getId(), out);
+    }
+
+    // Tables
+    out.writeInt(restaurant.getTables().size());
+    for (Table table : restaurant.getTables()) {
+      out.writeInt(table.getTableNum());
+      out.writeBoolean(table.isOccupied);
+      out.writeInt(table.numCustomers);
+      out.writeInt(table.orders.size());
+      for (Map.Entry<String, ArrayList<Order>> bill : table.orders.entrySet()) {
+        out.writeUTF(bill.getKey());
+        writeOrderIds(bill.getValue(), out);
+      }
+      out.writeInt(table.foodsToOrder.size());
+      for (Map.Entry<String, ArrayList<Food>> bill : table.foodsToOrder.entrySet()) {
+        out.writeUTF(bill.getKey());
+        writeFoods(bill.getValue(), items, out);
+      }
+    }
+
+    // Employees
+    out.writeInt(restaurant.getServers().size());
+    for (Server server : restaurant.getServers()) {
+      writeEmployee(server, out);
+      writeOrderIds(server.getAssignedOrders(), out);
+    }
+    out.writeInt(restaurant.getCooks().size());
+    for (Cook cook : restaurant.getCooks()) {
+      writeEmployee(cook, out);
+      out.writeUTF(cook.getType());
+      out.writeLong(cook.getSeenUpTo());
+    }
+    out.writeInt(restaurant.getManagers().size());
+    for (Manager manager : restaurant.getManagers()) {
+      writeEmployee(manager, out);
+    }
+  }
+
+  /**
+   * Reads a restaurant in the snapshot format from a stream.
+   *
+   * @param in the stream to read from
+   * @return the restored restaurant
+   * @throws IOException if the stream cannot be read or is not a snapshot of a known version
+   */
+  static Restaurant read(DataInputStream in) throws IOException {
+    if (in.readInt() != MAGIC) {
+      throw new IOException("Not a restaurant snapshot");
+    }
+    int version = in.readInt();
+    if (version < 1 || version > VERSION) {
+      throw new IOException("Unsupported restaurant snapshot version " + version);
+    }
+    long journalPosition = version >= 2 ? in.readLong() : 0;
+
+    // Menu items
+    MenuItem[] items = new MenuItem[in.readInt()];
+    for (int i = 0; i < items.length; i++) {
+      String name = in.readUTF();
+      double price = in.readDouble();
+      String type = in.readUTF();
+      List<String> ingredients = readStrings(in);
+      items[i] = new MenuItem(name, price, type, ingredients, in.readBoolean());
+    }
+
+    // Menu
+    Menu menu = new Menu();
+    int numPrices = in.readInt();
+    for (int i = 0; i < numPrices; i++) {
+      menu.setIngredientToPrice(in.readUTF(), in.readDouble());
+    }
+    int numFoods = in.readInt();
+    for (int i = 0; i < numFoods; i++) {
+      menu.addFoodMenu(items[in.readInt()]);
+    }
+    int numSpecials = in.readInt();
+    for (int i = 0; i < numSpecials; i++) {
+      menu.addSpecialMenu(items[in.readInt()]);
+    }
+
+    // Kitchen stock
+    Kitchen kitchen = new Kitchen(new OrderIdAllocator(in.readLong()));
+    int numIngredients = in.readInt();
+    for (int i = 0; i < numIngredients; i++) {
+      kitchen.addIngredients(in.readUTF(), in.readInt(), in.readInt());
+    }
+    Restaurant restaurant = new Restaurant(kitchen, menu);
+    restaurant.setJournalPosition(journalPosition);
+
+    // Orders
+    int numOrders = in.readInt();
+    HashMap<Long, Order> orders = new HashMap<>();
+    OrderState[] states = OrderState.values();
+    for (int i = 0; i < numOrders; i++) {
+      long id = readVarLong(in);
+      int tableNum = (int) readVarLong(in);
+      String billId = in.readUTF();
+      OrderState state = states[in.readByte()];
+      int mask = in.readUnsignedByte();
+      long[] times = new long[states.length];
+      times[OrderState.PLACED.ordinal()] = in.readLong();
+      for (OrderState saved : states) {
+        if (saved != OrderState.PLACED && (mask & (1 << saved.ordinal())) != 0) {
+          times[saved.ordinal()] = times[OrderState.PLACED.ordinal()] + readVarLong(in);
+        }
+      }
+      Order order = new Order(id, readFoods(items, in), tableNum, billId);
+      order.restoreState(state, times);
+      orders.put(id, order);
+    }
+    int numKitchenOrders = in.readInt();
+    for (int i = 0; i < numKitchenOrders; i++) {
+      kitchen.addOrder(orders.get(readVarLong(in)));
+    }
+
+    // Tables
+    int numTables = in.readInt();
+    for (int i = 0; i < numTables; i++) {
+      Table table = new Table(in.readInt());
+      table.isOccupied = in.readBoolean();
+      table.numCustomers = in.readInt();
+      int numBills = in.readInt();
+      for (int j = 0; j < numBills; j++) {
+        table.orders.put(in.readUTF(), readOrders(orders, in));
+      }
+      numBills = in.readInt();
+      for (int j = 0; j < numBills; j++) {
+        table.foodsToOrder.put(in.readUTF(), readFoods(items, in));
+      }
+      restaurant.getTables().add(table);
+    }
+
+    // Employees
+    int numServers = in.readInt();
+    for (int i = 0; i < numServers; i++) {
+      Server server = new Server(in.readUTF(), kitchen, menu);
+      readEmployee(server, in);
+      server.getAssignedOrders().addAll(readOrders(orders, in));
+      restaurant.getServers().add(server);
+    }
+    int numCooks = in.readInt();
+    for (int i = 0; i < numCooks; i++) {
+      String id = in.readUTF();
+      String attendance = in.readUTF();
+      String password = in.readUTF();
+      Cook cook = new Cook(id, in.readUTF(), kitchen);
+      cook.attendance = attendance;
+      cook.setPassword(cook.getPassword(), password);
+      cook.setSeenUpTo(in.readLong());
+      restaurant.getCooks().add(cook);
+    }
+    int numManagers = in.readInt();
+    for (int i = 0; i < numManagers; i++) {
+      Manager manager = new Manager(in.readUTF(), kitchen, menu);
+      readEmployee(manager, in);
+      restaurant.getManagers().add(manager);
+    }
+    return restaurant;
+  }
+
+  /** Collects every order in the restaurant once, keyed by id. */
+  private static Map<Long, Order> collectOrders(Restaurant restaurant) {
+    LinkedHashMap<Long, Order> orders = new LinkedHashMap<>();
+    for (Order order : restaurant.getKitchen().getOrderList()) {
+      orders.put(order.getId(), order);
+    }
+    for (Table table : restaurant.getTables()) {
+      for (ArrayList<Order> bill : table.orders.values()) {
+        for (Order order : bill) {
+          orders.put(order.getId(), order);
+        }
+      }
+    }
+    for (Server server : restaurant.getServers()) {
+      for (Order order : server.getAssignedOrders()) {
+        orders.put(order.getId(), order);
+      }
+    }
+    return orders;
+  }
+
+  private static void addItem(
+      MenuItem item, IdentityHashMap<MenuItem, Integer> items, ArrayList<MenuItem> itemList) {
+    if (!items.containsKey(item)) {
+      items.put(item, itemList.size());
+      itemList.add(item);
+    }
+  }
+
+  private static void writeFoods(
+      List<Food> foods, IdentityHashMap<MenuItem, Integer> items, DataOutputStream out)
+      throws IOException {
+    writeVarLong(foods.size(), out);
+    for (Food food : foods) {
+      writeVarLong(items.get(food.getItem()), out);
+      out.writeBoolean(food.getReady());
+      out.writeBoolean(food.isModified());
+      if (food.isModified()) {
+        writeStrings(food.getIngredients(), out);
+      }
+    }
+  }
+
+  private static ArrayList<Food> readFoods(MenuItem[] items, DataInputStream in)
+      throws IOException {
+    int numFoods = (int) readVarLong(in);
+    ArrayList<Food> foods = new ArrayList<>(numFoods);
+    for (int i = 0; i < numFoods; i++) {
+      MenuItem item = items[(int) readVarLong(in)];
+      boolean isReady = in.readBoolean();
+      List<String> ingredients = in.readBoolean() ? readStrings(in) : null;
+      foods.add(new Food(item, ingredients, isReady));
+    }
+    return foods;
+  }
+
+  private static void writeOrderIds(List<Order> orders, DataOutputStream out) throws IOException {
+    writeVarLong(orders.size(), out);
+    for (Order order : orders) {
+      writeVarLong(order.getId(), out);
+    }
+  }
+
+  private static ArrayList<Order> readOrders(Map<Long, Order> orders, DataInputStream in)
+      throws IOException {
+    int numOrders = (int) readVarLong(in);
+    ArrayList<Order> list = new ArrayList<>(numOrders);
+    for (int i = 0; i < numOrders; i++) {
+      list.add(orders.get(readVarLong(in)));
+    }
+    return list;
+  }
+
+  private static void writeEmployee(Employee employee, DataOutputStream out) throws IOException {
+    out.writeUTF(employee.getId());
+    out.writeUTF(employee.getAttendance());
+    out.writeUTF(employee.getPassword());
+  }
+
+  /** Reads the attendance and password of an employee whose id has already been read. */
+  private static void readEmployee(Employee employee, DataInputStream in) throws IOException {
+    employee.attendance = in.readUTF();
+    employee.setPassword(employee.getPassword(), in.readUTF());
+  }
+
+  /** Writes a non-negative number in as few bytes as it needs, 7 bits per byte. */
+  static void writeVarLong(long value, DataOutputStream out) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.writeByte((int) (value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte((int) value);
+  }
+
+  static long readVarLong(DataInputStream in) throws IOException {
+    long value = 0;
+    int shift = 0;
+    int b;
+    do {
+      b = in.readUnsignedByte();
+      value |= (long) (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return value;
+  }
+
+  private static void writeStrings(List<String> strings, DataOutputStream out)
+      throws IOException {
+    out.writeInt(strings.size());
+    for (String string : strings) {
+      out.writeUTF(string);
+    }
+  }
+
+  private static List<String> readStrings(DataInputStream in) throws IOException {
+    int size = in.readInt();
+    ArrayList<String> strings = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      strings.add(in.readUTF());
+    }
+    return strings;
+  }
+}
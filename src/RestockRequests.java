@@ -0,0 +1,103 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+
+/**
+ * The pending restock requests made by the Kitchen when an ingredient falls below its threshold.
+ * The request file is read once when this object is created, and from then on requests are looked
+ * up in memory. New requests are appended to the end of the file and never rewrite it.
+ */
+public class RestockRequests {
+  private static final String REQUEST_SUFFIX = " is less than the threshold: Requesting 20";
+
+  private final String fileName;
+  private final LinkedHashMap<String, String> pending; // ingredient to its request line
+  private BufferedWriter fileWriter;
+
+  /**
+   * Loads the requests already in the file.
+   *
+   * @param fileName name of the request file, such as Request.txt
+   */
+  RestockRequests(String fileName) {
+    this.fileName = fileName;
+    this.pending = new LinkedHashMap<>();
+    if (new File(fileName).exists()) {
+      try (BufferedReader fileReader = new BufferedReader(new FileReader(fileName))) {
+        String line = fileReader.readLine();
+        while (line != null) {
+          pending.put(ingredientOf(line), line);
+          line = fileReader.readLine();
+        }
+      } catch (IOException ioe) {
+        ioe.printStackTrace();
+      }
+    }
+  }
+
+  /**
+   * Makes a request to restock the ingredient, unless one is already pending.
+   *
+   * @param ingredient the ingredient to restock
+   * @return true if a new request was made
+   */
+  synchronized boolean request(String ingredient) {
+    if (pending.containsKey(ingredient)) {
+      return false;
+    }
+    String request = ingredient + REQUEST_SUFFIX;
+    pending.put(ingredient, request);
+    try {
+      if (fileWriter == null) {
+        fileWriter = new BufferedWriter(new FileWriter(fileName, true));
+      }
+      fileWriter.write(request);
+      fileWriter.newLine();
+      fileWriter.flush();
+    } catch (IOException ioe) {
+      ioe.printStackTrace();
+    }
+    return true;
+  }
+
+  /**
+   * Closes the request file, if a request has opened it. A later request opens it again.
+   */
+  synchronized void close() {
+    if (fileWriter != null) {
+      try {
+        fileWriter.close();
+      } catch (IOException ioe) {
+        ioe.printStackTrace();
+      }
+      fileWriter = null;
+    }
+  }
+
+  /**
+   * Returns every pending request, one per line, in the order they were made.
+   *
+   * @return the requests
+   */
+  synchronized String read() {
+    StringBuilder out = new StringBuilder();
+    for (String request : pending.values()) {
+      out.append(request);
+      out.append("\n");
+    }
+    return out.toString();
+  }
+
+  /**
+   * Returns the ingredient a request line is about. Lines that are not in the usual request format
+   * are kept whole.
+   */
+  private static String ingredientOf(String line) {
+    int end = line.indexOf(" is less than the threshold");
+    return end == -1 ? line : line.substring(0, end);
+  }
+}
@@ -0,0 +1,258 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A log file that rolls over when it gets too big or a new day starts. The current log is always
+ * written to the same file, such as log.txt. When it rolls over, the file is renamed after the day
+ * it was written, such as log-2018-11-30.1.txt, and a new log.txt is started. A background thread
+ * then compresses the renamed file with gzip and deletes the archives that are older than the
+ * retention period, or that do not fit in the space allowed for archives.
+ *
+ * <p>Since log.txt only ever holds part of one day, opening the log and reading the end of it take
+ * the same time however long the restaurant has been running.
+ */
+class RollingLogFile extends Writer {
+    static final long DEFAULT_MAX_BYTES = 16 << 20;
+    static final int DEFAULT_RETENTION_DAYS = 30;
+    static final long DEFAULT_MAX_ARCHIVE_BYTES = 1L << 30;
+    private static final String ARCHIVE_SUFFIX = ".gz";
+
+    /** Compresses rolled over files, one at a time, on a thread of its own. */
+    private static final ExecutorService COMPRESSOR = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "restaurant-log-compressor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path file;
+    private final String baseName;
+    private final String extension;
+    private final long maxBytes;
+    private final int retentionDays;
+    private final long maxArchiveBytes;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private Writer out;
+    private long size;
+    private LocalDate day;
+    private long dayEnd; // the first millisecond of the next day
+
+    /**
+     * Opens a log file with the size limit, retention period and archive space given by the
+     * restaurant.log.maxBytes, restaurant.log.retentionDays and restaurant.log.maxArchiveBytes
+     * system properties, or the defaults if they are not set.
+     *
+     * @param file the current log file, appended to
+     * @throws IOException if the file cannot be opened
+     */
+    RollingLogFile(Path file) throws IOException {
+        this(file, Long.getLong("restaurant.log.maxBytes", DEFAULT_MAX_BYTES),
+                Integer.getInteger("restaurant.log.retentionDays", DEFAULT_RETENTION_DAYS),
+                Long.getLong("restaurant.log.maxArchiveBytes", DEFAULT_MAX_ARCHIVE_BYTES));
+    }
+
+    /**
+     * Opens a log file. If it was last written on an earlier day or is already too big, it is
+     * rolled over first.
+     *
+     * @param file the current log file, appended to
+     * @param maxBytes the size at which the log rolls over
+     * @param retentionDays the number of days archives are kept
+     * @param maxArchiveBytes the most space all archives together may take; the oldest are deleted
+     *     first
+     * @throws IOException if the file cannot be opened
+     */
+    RollingLogFile(Path file, long maxBytes, int retentionDays, long maxArchiveBytes)
+            throws IOException {
+        this.file = file.toAbsolutePath();
+        String name = this.file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        this.baseName = dot < 0 ? name : name.substring(0, dot);
+        this.extension = dot < 0 ? "" : name.substring(dot);
+        this.maxBytes = maxBytes;
+        this.retentionDays = retentionDays;
+        this.maxArchiveBytes = maxArchiveBytes;
+
+        long now = System.currentTimeMillis();
+        setDay(Files.exists(this.file) ? Files.getLastModifiedTime(this.file).toMillis() : now);
+        if (now >= dayEnd || Files.exists(this.file) && Files.size(this.file) >= maxBytes) {
+            roll(now);
+        } else {
+            open();
+        }
+        // Files rolled over by an earlier run that stopped before they were compressed
+        COMPRESSOR.execute(this::compressLeftovers);
+    }
+
+    /**
+     * Rolls the log over if an entry made at the given time would not belong in the current file.
+     * Called before each entry, so an entry is never split between two files.
+     *
+     * @param millis time of the next entry
+     * @throws IOException if the log cannot be rolled over
+     */
+    synchronized void beforeEntry(long millis) throws IOException {
+        if (size >= maxBytes || millis >= dayEnd) {
+            roll(millis);
+        }
+    }
+
+    @Override
+    public synchronized void write(char[] chars, int offset, int length) throws IOException {
+        out.write(chars, offset, length);
+        size += length;
+    }
+
+    @Override
+    public synchronized void write(String text) throws IOException {
+        out.write(text);
+        size += text.length();
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+
+    /** Closes the current file, renames it after its day and starts a new one. */
+    private void roll(long millis) throws IOException {
+        if (out != null) {
+            out.close();
+        }
+        if (Files.exists(file) && Files.size(file) > 0) {
+            Path rolled = rolledName(day);
+            Files.move(file, rolled, StandardCopyOption.ATOMIC_MOVE);
+            COMPRESSOR.execute(() -> compress(rolled));
+        }
+        setDay(millis);
+        open();
+    }
+
+    private void open() throws IOException {
+        out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND), StandardCharsets.UTF_8), 1 << 16);
+        size = Files.size(file);
+    }
+
+    private void setDay(long millis) {
+        day = Instant.ofEpochMilli(millis).atZone(zone).toLocalDate();
+        dayEnd = day.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    /** Returns the first free name for a file rolled over on a day, such as log-2018-11-30.2.txt. */
+    private Path rolledName(LocalDate rolledDay) {
+        for (int i = 1; ; i++) {
+            String name = baseName + "-" + rolledDay + "." + i + extension;
+            Path rolled = file.resolveSibling(name);
+            if (!Files.exists(rolled) && !Files.exists(rolled.resolveSibling(name + ARCHIVE_SUFFIX))) {
+                return rolled;
+            }
+        }
+    }
+
+    /** Compresses a rolled over file and then applies the retention policy. */
+    private void compress(Path rolled) {
+        Path archive = rolled.resolveSibling(rolled.getFileName() + ARCHIVE_SUFFIX);
+        Path temp = rolled.resolveSibling(archive.getFileName() + ".tmp");
+        try {
+            try (InputStream in = Files.newInputStream(rolled);
+                 OutputStream gzip = new GZIPOutputStream(Files.newOutputStream(temp), 1 << 16)) {
+                in.transferTo(gzip);
+            }
+            Files.setLastModifiedTime(temp, Files.getLastModifiedTime(rolled));
+            Files.move(temp, archive, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(rolled);
+        } catch (IOException e) {
+            RestaurantLog.logger.warning("Cannot compress " + rolled + ": " + e);
+        }
+        applyRetention();
+    }
+
+    /** Compresses the files that were rolled over but not compressed before the program stopped. */
+    private void compressLeftovers() {
+        for (Path rolled : listRolled()) {
+            String name = rolled.getFileName().toString();
+            if (name.endsWith(extension) && !name.endsWith(ARCHIVE_SUFFIX)) {
+                compress(rolled);
+            }
+        }
+        applyRetention();
+    }
+
+    /**
+     * Deletes the archives written before the retention period, then the oldest archives until
+     * the rest fit in the space allowed.
+     */
+    private void applyRetention() {
+        long cutoff = System.currentTimeMillis() - retentionDays * 24L * 60 * 60 * 1000;
+        List<Path> archives = new ArrayList<>();
+        for (Path rolled : listRolled()) {
+            if (rolled.getFileName().toString().endsWith(ARCHIVE_SUFFIX)) {
+                archives.add(rolled);
+            }
+        }
+        archives.sort((a, b) -> Long.compare(modified(a), modified(b)));
+        long total = 0;
+        for (Path archive : archives) {
+            total += archive.toFile().length();
+        }
+        for (Path archive : archives) {
+            if (modified(archive) >= cutoff && total <= maxArchiveBytes) {
+                break;
+            }
+            total -= archive.toFile().length();
+            try {
+                Files.deleteIfExists(archive);
+            } catch (IOException e) {
+                RestaurantLog.logger.warning("Cannot delete " + archive + ": " + e);
+            }
+        }
+    }
+
+    /** Lists the rolled over files and archives of this log. */
+    private List<Path> listRolled() {
+        List<Path> rolled = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(file.getParent(),
+                baseName + "-*" + extension + "*")) {
+            for (Path path : files) {
+                if (!path.getFileName().toString().endsWith(".tmp")) {
+                    rolled.add(path);
+                }
+            }
+        } catch (IOException e) {
+            RestaurantLog.logger.warning("Cannot list old logs: " + e);
+        }
+        return rolled;
+    }
+
+    private static long modified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
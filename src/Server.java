@@ -1,5 +1,8 @@
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
 import java.io.Serializable;
 
 /**
@@ -9,10 +12,12 @@ import java.io.Serializable;
  * customer has left, the server is responsible to clear the table.
  */
 public class Server extends Employee implements Serializable {
+  /** What returnOrder returns when the food was taken back and ordered again. */
+  static final String FOOD_RETURNED = "Food item is returned.";
 
   private Menu menu;
-  protected static double totalBills;
-  private ArrayList<Order> assignedOrders;
+  private static final LongAdder totalCents = new LongAdder(); // revenue of every Server, in cents
+  private List<Order> assignedOrders; // copy on write, as a Server may work several tables at once
 
 
   /*
@@ -28,13 +33,38 @@ public class Server extends Employee implements Serializable {
     setJob("Server");
     setType("Not Available");
     this.menu = menu;
-    this.assignedOrders = new ArrayList<>();
+    this.assignedOrders = new CopyOnWriteArrayList<>();
   }
 
-  public ArrayList<Order> getAssignedOrders() {
+  public List<Order> getAssignedOrders() {
     return assignedOrders;
   }
 
+  /**
+   * Adds an amount paid to the revenue of the restaurant. Amounts are kept in whole cents, so
+   * amounts added by many Servers at once are never lost or rounded differently.
+   *
+   * @param cents the amount paid, in cents
+   */
+  static void addToTotal(long cents) {
+    totalCents.add(cents);
+  }
+
+  /** @return the revenue of the restaurant since it was started, in dollars */
+  static double getTotalBills() {
+    return Money.toDouble(getTotalCents());
+  }
+
+  /** @return the revenue of the restaurant since it was started, in cents */
+  static long getTotalCents() {
+    return totalCents.sum();
+  }
+
+  /** Sets the revenue of the restaurant back to zero, when it is started. */
+  static void resetTotalBills() {
+    totalCents.reset();
+  }
+
   /**
    * Sets table occupancy and amount of paying customers
    *
@@ -42,20 +72,25 @@ public class Server extends Employee implements Serializable {
    * @param numBills the number of paying customers
    */
   String fillTable(Table table, String numBills, String numCustomers) {
-    String status;
-    if (!numBills.chars().allMatch(Character::isDigit) && !numCustomers.chars().allMatch(Character::isDigit)) {
-      return "Please enter the right input.";
-    } else if (Integer.parseInt(numBills) > Integer.parseInt(numCustomers)) {
-      return "Please enter proper number of paying customers.";
-    } else if (table.isOccupied) {
-      status = String.format("Table %d is already occupied%n", table.getTableNum());
-      RestaurantLog.entry("warning", status + String.format("%n"));
-      return status;
-    } else {
-      status = table.setCustomers(numBills, numCustomers);
-      RestaurantLog.entry("Fine", status + String.format("%n"));
-      table.isOccupied = true;
-      return status;
+    synchronized (table) {
+      String status;
+      if (!numBills.chars().allMatch(Character::isDigit) && !numCustomers.chars().allMatch(Character::isDigit)) {
+        return "Please enter the right input.";
+      } else if (Integer.parseInt(numBills) > Integer.parseInt(numCustomers)) {
+        return "Please enter proper number of paying customers.";
+      } else if (table.isOccupied) {
+        status = String.format("Table %d is already occupied%n", table.getTableNum());
+        RestaurantLog.entry("warning", status + String.format("%n"));
+        return status;
+      } else {
+        status = table.setCustomers(numBills, numCustomers);
+        RestaurantLog.entry("Fine", status + String.format("%n"));
+        table.isOccupied = true;
+        getKitchen().getJournal().tableFilled(table, Integer.parseInt(numBills));
+        RestaurantLog.event(EventLog.Kind.TABLE_FILLED, getId(), table.getTableNum(), 0, null,
+                Integer.parseInt(numCustomers));
+        return status;
+      }
     }
   }
 
@@ -69,34 +104,39 @@ public class Server extends Employee implements Serializable {
    * @return true if order has been recorded
    */
   Boolean recordFoodOrder(Table table, Food food, String billId) {
-    // need menu to return if food name is in menu
-    if (table.isOccupied && table.foodsToOrder.keySet().contains(billId)) {
-      if (!ServerHelper.checkOrdersReady(this.assignedOrders)) {
-        if (menu.hasFood(food.getName())) {
-          if (getKitchen().isEnoughIngredients(food)) {
-            table.addFoodOrder(food, billId);
-            RestaurantLog.entry("Fine", String.format(
-                    "Server %s records an order of %s, " + "from Table %d%n",
-                    getId(), food, table.getTableNum()));
-            return true;
+    synchronized (table) {
+      // need menu to return if food name is in menu
+      if (table.isOccupied && table.foodsToOrder.keySet().contains(billId)) {
+        if (!ServerHelper.checkOrdersReady(this.assignedOrders)) {
+          if (menu.hasFood(food.getName())) {
+            if (getKitchen().isEnoughIngredients(food)) {
+              table.addFoodOrder(food, billId);
+              getKitchen().getJournal().foodRecorded(table, billId, food);
+              RestaurantLog.event(EventLog.Kind.FOOD_ORDERED, getId(), table.getTableNum(), 0,
+                      food.getName(), food.getPrice());
+              RestaurantLog.entry("Fine", String.format(
+                      "Server %s records an order of %s, " + "from Table %d%n",
+                      getId(), food, table.getTableNum()));
+              return true;
+            } else {
+              RestaurantLog.entry("warning", String.format("Cannot record food Order: " +
+                      "Not enough ingredients for %s%n", food));
+              return false;
+            }
           } else {
-            RestaurantLog.entry("warning", String.format("Cannot record food Order: " +
-                    "Not enough ingredients for %s%n", food));
+            RestaurantLog.entry("warning", String.format("Cannot record food Order: %s not in menu. %n", food));
             return false;
           }
         } else {
-          RestaurantLog.entry("warning", String.format("Cannot record food Order: %s not in menu. %n", food));
+          RestaurantLog.entry("warning", String.format("Cannot record food Order: " +
+                  "There pending Order(s) to be delivered. %n"));
           return false;
         }
       } else {
         RestaurantLog.entry("warning", String.format("Cannot record food Order: " +
-                "There pending Order(s) to be delivered. %n"));
+                "Table is unoccupied or Bill does not exist.%n"));
         return false;
       }
-    } else {
-      RestaurantLog.entry("warning", String.format("Cannot record food Order: " +
-              "Table is unoccupied or Bill does not exist.%n"));
-      return false;
     }
   }
 
@@ -106,23 +146,30 @@ public class Server extends Employee implements Serializable {
    * @param table  table that is occupied
    * @param food   food that was ordered
    * @param billId id of the bill that contains orders
+   * @return true if the food has been deleted
    */
-  void deleteFoodOrder(
+  Boolean deleteFoodOrder(
           Table table, Food food, String billId) {
-    if (table.isOccupied && table.foodsToOrder.keySet().contains(billId)) {
-      if (table.foodsToOrder.get(billId).contains(food)) {
-        table.foodsToOrder.get(billId).remove(food);
-        for (String ingredient : food.getIngredients()) {
-          getKitchen().addIngredients(ingredient, 1, getKitchen().getThreshold(ingredient));
+    synchronized (table) {
+      if (table.isOccupied && table.foodsToOrder.keySet().contains(billId)) {
+        if (table.foodsToOrder.get(billId).contains(food)) {
+          getKitchen().getJournal().foodDeleted(
+                  table, billId, table.foodsToOrder.get(billId).indexOf(food));
+          table.foodsToOrder.get(billId).remove(food);
+          getKitchen().releaseIngredients(food);
+          RestaurantLog.event(EventLog.Kind.FOOD_DELETED, getId(), table.getTableNum(), 0,
+                  food.getName(), food.getPrice());
+          RestaurantLog.entry("Fine", String.format("%s is deleted from %s's requests.%n", food, billId));
+          return true;
+        } else {
+          RestaurantLog.entry("warning", String.format("Cannot delete food Order: " +
+                  "%s is not in %s's requests.%n", food, billId));
         }
-        RestaurantLog.entry("Fine", String.format("%s is deleted from %s's requests.%n", food, billId));
       } else {
         RestaurantLog.entry("warning", String.format("Cannot delete food Order: " +
-                "%s is not in %s's requests.%n", food, billId));
+                "Table is unoccupied or Bill does not exist.%n"));
       }
-    } else {
-      RestaurantLog.entry("warning", String.format("Cannot delete food Order: " +
-              "Table is unoccupied or Bill does not exist.%n"));
+      return false;
     }
   }
 
@@ -132,33 +179,27 @@ public class Server extends Employee implements Serializable {
    * @param table table associated with the table
    */
   String placeOrder(Table table) {
-    String status;
-    if (table.hasRequests()) {
-      if (ServerHelper.checkOrdersReady(this.assignedOrders)) {
-        status = String.format("Cannot place Order for Table %d: There's " +
-                "pending Order(s) to be delivered %n", table.getTableNum());
-        RestaurantLog.entry("warning", status);
-        return status;
-      } else {
-        for (String bill : table.foodsToOrder.keySet()) {
-          if (table.foodsToOrder.get(bill).size() > 0) {
-            Order newOrder = new Order(table.foodsToOrder.get(bill), table.getTableNum(), bill);
-            table.addOrder(newOrder);
-            this.assignedOrders.add(newOrder);
-            getKitchen().getOrderList().add(newOrder);
-            table.foodsToOrder.put(bill, new ArrayList<>());
-          }
+    synchronized (table) {
+      String status;
+      if (table.hasRequests()) {
+        if (ServerHelper.checkOrdersReady(this.assignedOrders)) {
+          status = String.format("Cannot place Order for Table %d: There's " +
+                  "pending Order(s) to be delivered %n", table.getTableNum());
+          RestaurantLog.entry("warning", status);
+          return status;
+        } else {
+          placeBills(table);
+          status = String.format(
+                  "Server %s places final Orders from Table %d%n", getId(), table.getTableNum());
+          RestaurantLog.entry("Fine", status);
+          return status;
         }
+      } else {
         status = String.format(
-                "Server %s places final Orders from Table %d%n", getId(), table.getTableNum());
-        RestaurantLog.entry("Fine", status);
+                "Cannot place Order for Table %d: Table has no pending requests %n", table.getTableNum());
+        RestaurantLog.entry("warning", status);
         return status;
       }
-    } else {
-      status = String.format(
-              "Cannot place Order for Table %d: Table has no pending requests %n", table.getTableNum());
-      RestaurantLog.entry("warning", status);
-      return status;
     }
   }
 
@@ -169,87 +210,104 @@ public class Server extends Employee implements Serializable {
    * @param orderNum number of the order
    * @param table    table associated with the order
    */
-  String deliverOrder(int orderNum, Table table) {
-    String status;
-    if (ServerHelper.isAssigned(orderNum, this.assignedOrders)) {
-      Order delivery = ServerHelper.getAssigned(orderNum, this.assignedOrders);
-      if (delivery != null) {
+  String deliverOrder(long orderNum, Table table) {
+    synchronized (table) {
+      String status;
+      if (ServerHelper.isAssigned(orderNum, this.assignedOrders)) {
+        Order delivery = ServerHelper.getAssigned(orderNum, this.assignedOrders);
+        if (delivery != null) {
 
-        if (delivery.isDelivered()) {
-          status = String.format(
-                  "Cannot deliver Order %d: Order has already been delivered. %n", orderNum);
-          RestaurantLog.entry("warning", status);
-          return status;
+          if (delivery.isDelivered()) {
+            status = String.format(
+                    "Cannot deliver Order %d: Order has already been delivered. %n", orderNum);
+            RestaurantLog.entry("warning", status);
+            return status;
 
-        } else if (!delivery.isFilled()) {
-          return String.format("Cannot deliver Order %d: not ready yet. %n", orderNum);
+          } else if (!delivery.isFilled()) {
+            return String.format("Cannot deliver Order %d: not ready yet. %n", orderNum);
 
-        } else if (!(table.getTableNum() == delivery.getTableNum())) {
-          status = String.format(
-                  "Cannot deliver Order %d: Order not placed by " + "Table %d. %n",
-                  orderNum, table.getTableNum());
-          RestaurantLog.entry("warning", status);
-          return status;
+          } else if (!(table.getTableNum() == delivery.getTableNum())) {
+            status = String.format(
+                    "Cannot deliver Order %d: Order not placed by " + "Table %d. %n",
+                    orderNum, table.getTableNum());
+            RestaurantLog.entry("warning", status);
+            return status;
 
-        } else if (delivery.isFilled()) {
-          table.addOrder(delivery);
-          delivery.setDelivered();
-          getKitchen().getOrderList().remove(delivery);
-          status = String.format(
-                  "Server %s delivered Order %d to Table %d%n", getId(), orderNum, table.getTableNum());
-          RestaurantLog.entry("Fine", status);
-          return status;
+          } else if (delivery.setDelivered()) {
+            table.addOrder(delivery);
+            getKitchen().removeOrder(delivery);
+            getKitchen().getJournal().orderDelivered(table, delivery);
+            getKitchen().publish(delivery);
+            RestaurantLog.event(EventLog.Kind.ORDER_DELIVERED, getId(), table.getTableNum(),
+                    orderNum, null, delivery.getBill());
+            status = String.format(
+                    "Server %s delivered Order %d to Table %d%n", getId(), orderNum, table.getTableNum());
+            RestaurantLog.entry("Fine", status);
+            return status;
+          } else {
+            status = String.format(
+                    "Cannot deliver Order %d: Order has already been delivered. %n", orderNum);
+            RestaurantLog.entry("warning", status);
+            return status;
+          }
         }
+      } else {
+        status = String.format(
+                "Cannot deliver Order %d: " + "does not exist. %n",
+                orderNum);
+        RestaurantLog.entry("warning", status);
+        return status;
       }
-    } else {
       status = String.format(
-              "Cannot deliver Order %d: " + "does not exist. %n",
-              orderNum);
+              "Cannot deliver Order %d: " + "not assigned to Server %s%n",
+              orderNum, getId());
       RestaurantLog.entry("warning", status);
       return status;
     }
-    status = String.format(
-            "Cannot deliver Order %d: " + "not assigned to Server %s%n",
-            orderNum, getId());
-    RestaurantLog.entry("warning", status);
-    return status;
   }
 
   /**
    * Returns a food item as requested by the customer associated with the table. Server will check
    * if the food has actually been delivered to the table or not. Server will also check if there's
    * enough ingredient to make another instance of the food item. If the server successfully
-   * returned the order, this method will return true.
+   * returned the order, this method will return FOOD_RETURNED.
    *
    * @param orderNum order number associated with this food and table
    * @param table    table associated with this order
    * @param food     food to be returned
-   * @return true if server successfully returned this food item
+   * @return FOOD_RETURNED if server successfully returned this food item, or why it could not
    */
-  String returnOrder(int orderNum, Table table, Food food) {
-    Order order = ServerHelper.getAssigned(orderNum, this.assignedOrders);
-    String status;
-    if (order != null) {
-      if (!ServerHelper.foodReturnCheck(table, food, orderNum, getId(), this.assignedOrders)) {
-        return "Cannot return food";
-      } else if (!order.isDelivered()) {
-        status = String.format("Cannot return Order %d: not been delivered %n", orderNum);
-        RestaurantLog.entry("warning", status);
-        return status;
-      } else if (!returnRecord(food, table, order.billId)) {
-        status = String.format(
-                "Cannot return Order %d: not enough ingredients for %s%n", orderNum, food);
-        RestaurantLog.entry("warning", status);
-        return status;
-      } else {
-        returnPlace(table);
-        return "Food item is returned.";
+  String returnOrder(long orderNum, Table table, Food food) {
+    synchronized (table) {
+      Order order = ServerHelper.getAssigned(orderNum, this.assignedOrders);
+      String status;
+      if (order != null) {
+        if (!ServerHelper.foodReturnCheck(table, food, orderNum, getId(), this.assignedOrders)) {
+          return "Cannot return food";
+        } else if (!order.isDelivered()) {
+          status = String.format("Cannot return Order %d: not been delivered %n", orderNum);
+          RestaurantLog.entry("warning", status);
+          return status;
+        } else if (!returnRecord(food, table, order.billId)) {
+          status = String.format(
+                  "Cannot return Order %d: not enough ingredients for %s%n", orderNum, food);
+          RestaurantLog.entry("warning", status);
+          return status;
+        } else {
+          order.setReturned();
+          getKitchen().publish(order);
+          getKitchen().getJournal().foodReturned(table, order, food);
+          RestaurantLog.event(EventLog.Kind.FOOD_RETURNED, getId(), table.getTableNum(), orderNum,
+                  food.getName(), food.getPrice());
+          returnPlace(table);
+          return FOOD_RETURNED;
+        }
       }
+      status = String.format("Cannot return Order %d: not assigned to Server ", orderNum) +
+              getId() + String.format("%n");
+      RestaurantLog.entry("warning", status);
+      return status;
     }
-    status = String.format("Cannot return Order %d: not assigned to Server ", orderNum) +
-            getId() + String.format("%n");
-    RestaurantLog.entry("warning", status);
-    return status;
   }
 
   /**
@@ -259,30 +317,42 @@ public class Server extends Employee implements Serializable {
    * @param foodCancel the requested item to be removed
    * @param table      the table that requesting removal of item
    */
-  Boolean cancelFoodItem(int orderNum, Food foodCancel, Table table) {
-    if (ServerHelper.isAssigned(orderNum, this.assignedOrders)) {
-      Order order = ServerHelper.getAssigned(orderNum, this.assignedOrders);
-      if (!(Objects.requireNonNull(order).getTableNum() == table.getTableNum())) {
-        RestaurantLog.entry("warning", String.format("Cannot cancel food in Order %d: Wrong Table %n", orderNum));
-        return false;
-      } else if (!order.checkFoodUnready(foodCancel)) {
+  Boolean cancelFoodItem(long orderNum, Food foodCancel, Table table) {
+    synchronized (table) {
+      if (ServerHelper.isAssigned(orderNum, this.assignedOrders)) {
+        Order order = ServerHelper.getAssigned(orderNum, this.assignedOrders);
+        if (!(Objects.requireNonNull(order).getTableNum() == table.getTableNum())) {
+          RestaurantLog.entry("warning", String.format("Cannot cancel food in Order %d: Wrong Table %n", orderNum));
+          return false;
+        }
+        synchronized (order) { // so no Cook prepares the food while it is cancelled
+          if (!order.checkFoodUnready(foodCancel)) {
+            RestaurantLog.entry("warning", String.format("Cannot cancel food in Order %d: " +
+                    "%s has already been prepared/does not exist %n", orderNum, foodCancel.getName()));
+            return false;
+          }
+          int index = order.getFoods().indexOf(foodCancel);
+          order.deleteFood(foodCancel);
+          if (order.getFoods().size() < 1) {
+            order.setCancelled();
+            getKitchen().removeOrder(order);
+            table.removeOrder(order);
+          } else {
+            getKitchen().dispatch(order);
+          }
+          getKitchen().getJournal().foodCancelled(table, order, index);
+          getKitchen().publish(order);
+          RestaurantLog.event(EventLog.Kind.FOOD_CANCELLED, getId(), table.getTableNum(), orderNum,
+                  foodCancel.getName(), foodCancel.getPrice());
+          RestaurantLog.entry("Fine", String.format("Server %s cancelled %s in Order %d %n",
+                  getId(), foodCancel.getName(), orderNum));
+          return true;
+        }
+      } else {
         RestaurantLog.entry("warning", String.format("Cannot cancel food in Order %d: " +
-                "%s has already been prepared/does not exist %n", orderNum, foodCancel.getName()));
+                "not assigned to Server ", orderNum) + getId() + String.format("%n"));
         return false;
-      } else {
-        order.deleteFood(foodCancel);
-        if (order.getFoods().size() < 1) {
-          getKitchen().getOrderList().remove(order);
-          table.removeOrder(order);
-        }
-        RestaurantLog.entry("Fine", String.format("Server %s cancelled %s in Order %d %n",
-                getId(), foodCancel.getName(), orderNum));
-        return true;
       }
-    } else {
-      RestaurantLog.entry("warning", String.format("Cannot cancel food in Order %d: " +
-              "not assigned to Server ", orderNum) + getId() + String.format("%n"));
-      return false;
     }
   }
 
@@ -291,20 +361,31 @@ public class Server extends Employee implements Serializable {
    *
    * @param orderNum order number associated to this table
    * @param table    table associated to this order
+   * @return true if the order has been confirmed
    */
-  void confirmOrder(int orderNum, Table table) {
-    if (ServerHelper.isAssigned(orderNum, this.assignedOrders)) {
-      Order order = ServerHelper.getAssigned(orderNum, this.assignedOrders);
-      if (order != null) {
-        order.setConfirmed();
-        this.assignedOrders.remove(order);
-        RestaurantLog.entry("Fine", String.format(
-                "Server %s confirms Order %d in Table %d%n", getId(), orderNum, table.getTableNum()));
+  Boolean confirmOrder(long orderNum, Table table) {
+    synchronized (table) {
+      if (ServerHelper.isAssigned(orderNum, this.assignedOrders)) {
+        Order order = ServerHelper.getAssigned(orderNum, this.assignedOrders);
+        if (order != null && order.setConfirmed()) {
+          this.assignedOrders.remove(order);
+          getKitchen().getJournal().orderConfirmed(this, order);
+          getKitchen().publish(order);
+          RestaurantLog.event(EventLog.Kind.ORDER_CONFIRMED, getId(), table.getTableNum(), orderNum,
+                  null, order.getBill());
+          RestaurantLog.entry("Fine", String.format(
+                  "Server %s confirms Order %d in Table %d%n", getId(), orderNum, table.getTableNum()));
+          return true;
+        } else if (order != null) {
+          RestaurantLog.entry("warning", String.format(
+                  "Cannot confirm Order %d: not delivered yet%n", orderNum));
+        }
+      } else {
+        RestaurantLog.entry("warning", String.format(
+                "Cannot confirm Order %d: not assigned to Server %s%n",
+                orderNum, getId()));
       }
-    } else {
-      RestaurantLog.entry("warning", String.format(
-              "Cannot confirm Order %d: not assigned to Server %s%n",
-              orderNum, getId()));
+      return false;
     }
   }
 
@@ -314,44 +395,52 @@ public class Server extends Employee implements Serializable {
    * @param table table to be cleared
    */
   String clearTable(Table table) {
-    if (table.isOccupied) {
-      table.isOccupied = false;
-      StringBuilder bills = new StringBuilder(String.format("Server %s has cleared Table %d: ",
-              getId(), table.getTableNum()));
-      String comma = "";
-      for (String bill : table.orders.keySet()) {
-        bills.append(comma);
-        bills.append(bill).append(" - ").append(String.format("%.2f", table.getBill(bill) * 1.15));
-        totalBills += table.getBill(bill) * 1.15;
-        comma = ", ";
-      }
-      if (table.numCustomers >= 8) {
-        bills.append(" - (gratuity tip)");
+    synchronized (table) {
+      if (table.isOccupied) {
+        getKitchen().getJournal().tableCleared(table);
+        table.isOccupied = false;
+        StringBuilder bills = new StringBuilder(String.format("Server %s has cleared Table %d: ",
+                getId(), table.getTableNum()));
+        String comma = "";
+        long tableTotal = 0;
+        for (String bill : table.orders.keySet()) {
+          long due = table.getAmountDueCents(bill);
+          bills.append(comma);
+          Money.append(bills.append(bill).append(" - "), due);
+          addToTotal(due);
+          tableTotal += due;
+          comma = ", ";
+        }
+        RestaurantLog.event(EventLog.Kind.TABLE_CLEARED, getId(), table.getTableNum(), 0, null,
+                Money.toDouble(tableTotal));
+        if (table.numCustomers >= 8) {
+          bills.append(" - (gratuity tip)");
+        }
+        Money.append(bills.append(" - Total: "), getTotalCents()).append(' ').append(System.lineSeparator());
+        RestaurantLog.entry("Fine", String.valueOf(bills));
+        table.clearOrders();
+        table.clearFoodsToOrder();
+        table.numCustomers = 0;
+        return bills.toString();
+      } else {
+        String status = String.format("Cannot clear Table: Table %d is already unoccupied%n",
+                table.getTableNum());
+        RestaurantLog.entry("warning", status);
+        return status;
       }
-      bills.append(String.format(" - Total: %.2f %n", totalBills));
-      RestaurantLog.entry("Fine", String.valueOf(bills));
-      table.clearOrders();
-      table.clearFoodsToOrder();
-      table.numCustomers = 0;
-      return bills.toString();
-    } else {
-      String status = String.format("Cannot clear Table: Table %d is already unoccupied%n",
-              table.getTableNum());
-      RestaurantLog.entry("warning", status);
-      return status;
     }
   }
 
   /**
-   * Creates the food object to be ordered. Also specifies the list of extra ingredients to be
-   * added. or subtacted.
+   * Creates the food object to be ordered from an item on the menu. Extra ingredients can then be
+   * added or subtracted on the food object without changing the menu.
    *
-   * @param food Food to be created
+   * @param item menu item to be ordered
    * @return the food object
    */
   Food createFoodItem(
-          Food food) {
-    return new Food(food.getName(), food.getPrice(), food.getType(), food.getIngredients());
+          MenuItem item) {
+    return new Food(item);
   }
 
   /**
@@ -361,10 +450,13 @@ public class Server extends Employee implements Serializable {
    * @param food     food to be deleted from order
    * @param reason   reason why food is returned
    */
-  void deleteOldFoodOrder(int orderNum, Food food, String reason) {
+  void deleteOldFoodOrder(long orderNum, Food food, String reason) {
     Order orderToEdit = ServerHelper.getAssigned(orderNum, this.assignedOrders);
     if (orderToEdit != null) {
-      orderToEdit.deleteFood(food);
+      synchronized (orderToEdit) {
+        getKitchen().getJournal().foodRemoved(orderToEdit, orderToEdit.getFoods().indexOf(food));
+        orderToEdit.deleteFood(food);
+      }
       RestaurantLog.entry("Fine", String.format("%s in Order %d was returned: %s%n",
               food.getName(), orderNum, reason));
     }
@@ -396,6 +488,39 @@ public class Server extends Employee implements Serializable {
     }
   }
 
+  /**
+   * Places an Order for every bill of the table that has requested food.
+   * @param table the table to place orders for
+   */
+  private void placeBills(Table table) {
+    for (String bill : table.foodsToOrder.keySet()) {
+      if (table.foodsToOrder.get(bill).size() > 0) {
+        Order newOrder = getKitchen().placeOrder(id -> placeBill(table, bill, id));
+        RestaurantLog.event(EventLog.Kind.ORDER_PLACED, getId(), table.getTableNum(),
+                newOrder.getId(), null, newOrder.getBill());
+      }
+    }
+  }
+
+  /**
+   * Places the food requested on a bill of the table as a new Order, and sends it to the kitchen.
+   * The order is journaled before the kitchen gets it, so a Cook's changes to it are always
+   * journaled after it was placed.
+   * @param table the table to place the order for
+   * @param bill the bill whose requested food is ordered
+   * @param orderId id of the new order
+   * @return the new order
+   */
+  Order placeBill(Table table, String bill, long orderId) {
+    Order newOrder = new Order(orderId, table.foodsToOrder.get(bill), table.getTableNum(), bill);
+    table.addOrder(newOrder);
+    this.assignedOrders.add(newOrder);
+    getKitchen().getJournal().orderPlaced(this, newOrder);
+    getKitchen().addOrder(newOrder);
+    table.foodsToOrder.put(bill, new ArrayList<>());
+    return newOrder;
+  }
+
   /**
    * placeo order for return function
    * @param table the table to be placing orders
@@ -404,15 +529,7 @@ public class Server extends Employee implements Serializable {
   private String returnPlace(Table table) {
     String status;
     if (table.hasRequests()) {
-      for (String bill : table.foodsToOrder.keySet()) {
-        if (table.foodsToOrder.get(bill).size() > 0) {
-          Order newOrder = new Order(table.foodsToOrder.get(bill), table.getTableNum(), bill);
-          table.addOrder(newOrder);
-          this.assignedOrders.add(newOrder);
-          getKitchen().getOrderList().add(newOrder);
-          table.foodsToOrder.put(bill, new ArrayList<>());
-        }
-      }
+      placeBills(table);
       status = String.format(
               "Server %s places final Orders from Table %d%n", getId(), table.getTableNum());
       RestaurantLog.entry("Fine", status);
@@ -1,4 +1,4 @@
-import java.util.ArrayList;
+import java.util.List;
 
 public class ServerHelper {
 
@@ -8,7 +8,7 @@ public class ServerHelper {
      * @param orderNum order num associated with an order
      * @return true if order is assigned to server
      */
-    protected static boolean isAssigned(int orderNum, ArrayList<Order> assignedOrders) {
+    protected static boolean isAssigned(long orderNum, List<Order> assignedOrders) {
         for (Order order : assignedOrders) {
             if (orderNum == order.getId()) {
                 return true;
@@ -23,7 +23,7 @@ public class ServerHelper {
      * @param orderNum associated with an order
      * @return the order with this orderNum
      */
-    protected static Order getAssigned(int orderNum, ArrayList<Order> assignedOrders) {
+    protected static Order getAssigned(long orderNum, List<Order> assignedOrders) {
         for (Order order : assignedOrders) {
             if (orderNum == order.getId()) {
                 return order;
@@ -42,8 +42,8 @@ public class ServerHelper {
      * @param orderNum order number associated with the food
      * @return true if food can be returned
      */
-    protected static boolean foodReturnCheck(Table table, Food food, int orderNum, String serverId,
-                                             ArrayList<Order> assignedOrders) {
+    protected static boolean foodReturnCheck(Table table, Food food, long orderNum, String serverId,
+                                             List<Order> assignedOrders) {
         Order order = getAssigned(orderNum, assignedOrders);
         if (order != null) {
             if (isAssigned(orderNum, assignedOrders) && table.getTableNum() == order.getTableNum()) {
@@ -73,7 +73,7 @@ public class ServerHelper {
      * @param assignedOrders Server's assigned Orders
      * @return boolean
      */
-    protected static boolean checkOrdersReady(ArrayList<Order> assignedOrders) {
+    protected static boolean checkOrdersReady(List<Order> assignedOrders) {
         for (Order order : assignedOrders) {
             if (order.isFilled() && !order.isDelivered()) {
                 return true;
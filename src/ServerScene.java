@@ -241,7 +241,8 @@ public class ServerScene {
         Button remFoodButton = new Button("Remove");
         remFoodButton.setAlignment(Pos.BOTTOM_RIGHT);
         remFoodButton.setOnAction(event -> remFood(server,
-                restaurant.getMenu().getFood(ScenesHelper.getChoice(foodList)), table, getChosenBillId(), restaurant));
+                server.createFoodItem(restaurant.getMenu().getFood(ScenesHelper.getChoice(foodList))), table,
+                getChosenBillId(), restaurant));
         HBox foodButtonsLayout = new HBox();
         foodButtonsLayout.setAlignment(Pos.CENTER);
         foodButtonsLayout.getChildren().addAll(foodList, addFoodButton, remFoodButton);
@@ -0,0 +1,136 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Compares saving and loading a Restaurant with RestaurantSnapshot against Java serialization, the
+ * way Restaurant.ser is written. A restaurant with the given number of historical orders is built
+ * in memory, saved and loaded several times each way, and the average times and file sizes are
+ * printed. Run it from the command line with the number of orders and the number of rounds.
+ */
+public class SnapshotBenchmark {
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args number of orders and number of rounds, both optional
+   */
+  public static void main(String[] args) throws IOException, ClassNotFoundException {
+    int numOrders = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+    int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+    RestaurantLog.logger.setUseParentHandlers(false);
+    Restaurant restaurant = buildRestaurant(numOrders);
+    Path serFile = Files.createTempFile("Restaurant", ".ser");
+    Path snapshotFile = Files.createTempFile("Restaurant", ".snapshot");
+
+    long[] serTimes = new long[2];
+    long[] snapshotTimes = new long[2];
+    for (int i = 0; i < rounds + 1; i++) {
+      long start = System.nanoTime();
+      try (ObjectOutputStream out = new ObjectOutputStream(
+          new BufferedOutputStream(new FileOutputStream(serFile.toFile())))) {
+        out.writeObject(restaurant);
+      }
+      long saved = System.nanoTime();
+      try (ObjectInputStream in = new ObjectInputStream(
+          new BufferedInputStream(new FileInputStream(serFile.toFile())))) {
+        in.readObject();
+      }
+      long loaded = System.nanoTime();
+      RestaurantSnapshot.save(restaurant, snapshotFile);
+      long snapshotSaved = System.nanoTime();
+      RestaurantSnapshot.load(snapshotFile);
+      long snapshotLoaded = System.nanoTime();
+      if (i > 0) { // the first round only warms up
+        serTimes[0] += saved - start;
+        serTimes[1] += loaded - saved;
+        snapshotTimes[0] += snapshotSaved - loaded;
+        snapshotTimes[1] += snapshotLoaded - snapshotSaved;
+      }
+    }
+
+    System.out.println(String.format("%d orders, average of %d rounds", numOrders, rounds));
+    System.out.println(String.format("%-20s %10s %10s %12s", "format", "save ms", "load ms",
+        "bytes"));
+    System.out.println(String.format("%-20s %10.2f %10.2f %12d", "Java serialization",
+        serTimes[0] / 1e6 / rounds, serTimes[1] / 1e6 / rounds, Files.size(serFile)));
+    System.out.println(String.format("%-20s %10.2f %10.2f %12d", "RestaurantSnapshot",
+        snapshotTimes[0] / 1e6 / rounds, snapshotTimes[1] / 1e6 / rounds,
+        Files.size(snapshotFile)));
+    Files.delete(serFile);
+    Files.delete(snapshotFile);
+  }
+
+  /**
+   * Builds a restaurant with the default menu, staff and tables, and numOrders orders. Most orders
+   * are confirmed history kept on the tables; the newest ones are still in the kitchen.
+   */
+  static Restaurant buildRestaurant(int numOrders) {
+    Menu menu = new Menu();
+    menu.addFoodMenu(new MenuItem("Classic Burger", 6.00, "Main",
+        Arrays.asList("beef patty", "lettuce", "tomato", "cheese", "bun")));
+    menu.addFoodMenu(new MenuItem("Monster Burger", 10.00, "Main",
+        Arrays.asList("beef patty", "beef patty", "lettuce", "tomato", "cheese", "cheese", "bun")));
+    menu.addFoodMenu(new MenuItem("Poutine", 4.00, "Appetizer",
+        Arrays.asList("fries", "cheese", "gravy", "ground beef")));
+    menu.addFoodMenu(new MenuItem("Green Tea Ice Cream", 3.00, "Dessert",
+        Arrays.asList("gt scoop", "gt scoop")));
+    Kitchen kitchen = new Kitchen();
+    for (String ingredient : Arrays.asList("cheese", "bun", "tomato", "lettuce", "beef patty",
+        "fries", "gravy", "ground beef", "gt scoop")) {
+      kitchen.addIngredients(ingredient, 1000000, 20);
+      menu.setIngredientToPrice(ingredient, 1.00);
+    }
+
+    Restaurant restaurant = new Restaurant(kitchen, menu);
+    for (int i = 1; i <= 20; i++) {
+      Table table = new Table(i);
+      table.setCustomers("2", "4");
+      table.isOccupied = true;
+      restaurant.getTables().add(table);
+    }
+    for (int i = 1; i <= 4; i++) {
+      restaurant.addEmployee("Server", String.valueOf(i), "");
+    }
+    restaurant.addEmployee("Cook", "1", "Main");
+    restaurant.addEmployee("Cook", "2", "Appetizer");
+    restaurant.addEmployee("Cook", "3", "Dessert");
+    restaurant.addEmployee("Manager", "1", "");
+
+    for (int i = 0; i < numOrders; i++) {
+      Table table = restaurant.getTables().get(i % restaurant.getTables().size());
+      Server server = restaurant.getServers().get(i % restaurant.getServers().size());
+      String bill = "Bill " + (i % 2 + 1);
+      for (int j = 0; j < 3; j++) {
+        Food food = server.createFoodItem(menu.foodList.get((i + j) % menu.foodList.size()));
+        if (j == 0 && i % 5 == 0) {
+          food.addIngredient("cheese");
+        }
+        server.recordFoodOrder(table, food, bill);
+      }
+      server.placeOrder(table);
+    }
+    int history = numOrders - Math.min(numOrders, 200);
+    for (Order order : kitchen.getOrderList().toArray(new Order[0])) {
+      if (order.getId() > history) {
+        break;
+      }
+      for (Food food : order.getFoods()) {
+        food.setReady();
+      }
+      order.setFilled();
+      Server server = restaurant.getServers().get((int) ((order.getId() - 1)
+          % restaurant.getServers().size()));
+      server.deliverOrder(order.getId(), restaurant.getTable(order.getTableNum()));
+      server.confirmOrder(order.getId(), restaurant.getTable(order.getTableNum()));
+    }
+    return restaurant;
+  }
+}
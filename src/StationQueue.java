@@ -0,0 +1,133 @@
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+
+/**
+ * The queue of Orders waiting at one kitchen station, such as "Main", "Appetizer" or "Dessert". An
+ * Order is in a station's queue while it has food of that station's type that is not ready yet, so
+ * a Cook only ever looks at the Orders it has work on. Cooks can wait on the queue for new work,
+ * and each Order is handed to one waiting Cook at a time.
+ */
+public class StationQueue implements Serializable {
+  private String type;
+  private LinkedHashMap<Long, Order> orders; // order id to order, in the order they were placed
+  private transient HashSet<Long> claimed; // ids of orders handed to a cook by await
+
+  /**
+   * Constructor for an empty StationQueue.
+   *
+   * @param type the food type prepared at this station
+   */
+  StationQueue(String type) {
+    this.type = type;
+    this.orders = new LinkedHashMap<>();
+    this.claimed = new HashSet<>();
+  }
+
+  /** @return the food type prepared at this station */
+  String getType() {
+    return type;
+  }
+
+  /**
+   * Puts the order in this queue if it has unready food of this station's type, and takes it out
+   * otherwise. Waiting cooks are woken up when an order joins the queue.
+   *
+   * @param order the order to route
+   */
+  synchronized void route(Order order) {
+    if (hasWork(order)) {
+      if (orders.put(order.getId(), order) == null) {
+        notifyAll();
+      }
+    } else {
+      orders.remove(order.getId());
+      claimed.remove(order.getId());
+    }
+  }
+
+  /**
+   * Hands back an order a cook got from await, once the cook has prepared it or has decided not
+   * to, so another cook can get it if it still has work for this station.
+   *
+   * @param order the order to hand back
+   */
+  synchronized void release(Order order) {
+    if (claimed.remove(order.getId()) && orders.containsKey(order.getId())) {
+      notifyAll();
+    }
+  }
+
+  /**
+   * Takes the order out of this queue.
+   *
+   * @param order the order to remove
+   */
+  synchronized void remove(Order order) {
+    orders.remove(order.getId());
+    claimed.remove(order.getId());
+  }
+
+  /**
+   * Waits until an order in this queue has not been handed to a cook, and hands the oldest such
+   * order to the caller. The order stays in the queue until its food for this station has been
+   * prepared, but no other caller gets it until it is handed back with release.
+   *
+   * @param timeoutMillis the longest time to wait in milliseconds, or 0 to wait without limit
+   * @return the oldest order not handed out, or null if none arrived in time
+   * @throws InterruptedException if the waiting thread is interrupted
+   */
+  synchronized Order await(long timeoutMillis) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + timeoutMillis;
+    Order order;
+    while ((order = firstUnclaimed()) == null) {
+      if (timeoutMillis == 0) {
+        wait();
+      } else {
+        long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0) {
+          return null;
+        }
+        wait(remaining);
+      }
+    }
+    claimed.add(order.getId());
+    return order;
+  }
+
+  /** @return the orders in this queue, oldest first */
+  synchronized ArrayList<Order> getOrders() {
+    return new ArrayList<>(orders.values());
+  }
+
+  /** @return the number of orders in this queue */
+  synchronized int size() {
+    return orders.size();
+  }
+
+  private Order firstUnclaimed() {
+    for (Order order : orders.values()) {
+      if (!claimed.contains(order.getId())) {
+        return order;
+      }
+    }
+    return null;
+  }
+
+  private boolean hasWork(Order order) {
+    for (Food food : order.getFoods()) {
+      if (!food.getReady() && food.getType().equals(type)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    claimed = new HashSet<>();
+  }
+}
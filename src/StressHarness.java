@@ -0,0 +1,265 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A stress harness for the restaurant. First many Servers record food orders at the same time
+ * against a kitchen with limited stock, and the harness checks that the kitchen never gives away
+ * more ingredients than it had. Then many terminals take tables through the whole order lifecycle
+ * at the same time as the Cooks prepare their orders, and the harness checks that every order left
+ * the kitchen, every cent reached the day's revenue and every ingredient is accounted for. Run it
+ * from the command line with the number of servers, the number of foods each server tries to
+ * record, the number of terminals and the number of times each terminal serves its table.
+ */
+public class StressHarness {
+  private static final int STOCK = 1000;
+
+  /**
+   * Runs the harness.
+   *
+   * @param args number of servers, number of foods each server records, number of terminals and
+   *     number of rounds each terminal serves, all optional
+   */
+  public static void main(String[] args) throws InterruptedException {
+    int numServers = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+    int numFoods = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+    int numTerminals = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+    int numRounds = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+    RestaurantLog.logger.setUseParentHandlers(false);
+
+    boolean failed = false;
+    for (String result : new String[] {
+        checkOversell(numServers, numFoods), checkLifecycle(numTerminals, numRounds)}) {
+      System.out.println(result);
+      failed |= result.startsWith("FAIL");
+    }
+    if (failed) {
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Has numServers Servers record numFoods foods each, all at once, and checks that every recorded
+   * food was paid for with stock that was really there.
+   *
+   * @param numServers number of Servers recording at the same time
+   * @param numFoods number of foods each Server tries to record
+   * @return a one line report that starts with PASS or FAIL
+   */
+  static String checkOversell(int numServers, int numFoods) throws InterruptedException {
+    Kitchen kitchen = new Kitchen();
+    kitchen.addIngredients("beef patty", STOCK, 0);
+    kitchen.addIngredients("bun", STOCK, 0);
+    kitchen.addIngredients("cheese", STOCK, 0);
+    kitchen.addIngredients("fries", STOCK, 0);
+    kitchen.addIngredients("gravy", STOCK, 0);
+
+    Menu menu = new Menu();
+    MenuItem burger = new MenuItem("Monster Burger", 10.00, "Main",
+        Arrays.asList("beef patty", "beef patty", "cheese", "cheese", "bun"));
+    MenuItem poutine = new MenuItem("Poutine", 4.00, "Appetizer",
+        Arrays.asList("fries", "cheese", "gravy"));
+    menu.addFoodMenu(burger);
+    menu.addFoodMenu(poutine);
+
+    AtomicInteger burgers = new AtomicInteger();
+    AtomicInteger poutines = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    Thread[] threads = new Thread[numServers];
+    for (int i = 0; i < numServers; i++) {
+      Server server = new Server(String.valueOf(i + 1), kitchen, menu);
+      Table table = new Table(i + 1);
+      server.fillTable(table, "1", "1");
+      int offset = i;
+      threads[i] = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        for (int j = 0; j < numFoods; j++) {
+          boolean isBurger = (j + offset) % 2 == 0;
+          Food food = server.createFoodItem(isBurger ? burger : poutine);
+          if (server.recordFoodOrder(table, food, "Bill 1")) {
+            (isBurger ? burgers : poutines).incrementAndGet();
+          }
+        }
+      });
+      threads[i].start();
+    }
+    long startTime = System.nanoTime();
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    long elapsed = System.nanoTime() - startTime;
+
+    int cheeseUsed = burgers.get() * 2 + poutines.get();
+    int[] expected = {
+      STOCK - burgers.get() * 2, STOCK - burgers.get(), STOCK - cheeseUsed,
+      STOCK - poutines.get(), STOCK - poutines.get()
+    };
+    String[] ingredients = {"beef patty", "bun", "cheese", "fries", "gravy"};
+    for (int i = 0; i < ingredients.length; i++) {
+      int quantity = kitchen.getQuantity(ingredients[i]);
+      if (quantity < 0 || quantity != expected[i]) {
+        return String.format("FAIL: %s has %d left, expected %d", ingredients[i], quantity,
+            expected[i]);
+      }
+    }
+    return String.format("PASS: %d servers recorded %d burgers and %d poutines in %d ms, "
+            + "no ingredient oversold", numServers, burgers.get(), poutines.get(),
+        elapsed / 1000000);
+  }
+
+  /**
+   * Has numTerminals terminals each fill a table of their own, record a burger and a poutine,
+   * place the order, wait for the Cooks, deliver it, confirm it and clear the table, numRounds
+   * times over, while two Cooks of each type see and prepare the orders and a reader keeps reading
+   * the bills and receipts of every table. Every order must have been seen before it was filled,
+   * and a Cook must never be handed an order whose food the other Cook already prepared.
+   *
+   * @param numTerminals number of terminals serving at the same time
+   * @param numRounds number of times each terminal serves its table
+   * @return a one line report that starts with PASS or FAIL
+   */
+  static String checkLifecycle(int numTerminals, int numRounds) throws InterruptedException {
+    int numOrders = numTerminals * numRounds;
+    Kitchen kitchen = new Kitchen();
+    String[] ingredients = {"beef patty", "bun", "cheese", "fries", "gravy"};
+    int[] used = {2 * numOrders, numOrders, 3 * numOrders, numOrders, numOrders};
+    for (int i = 0; i < ingredients.length; i++) {
+      kitchen.addIngredients(ingredients[i], used[i] + STOCK, 0);
+    }
+    Menu menu = new Menu();
+    MenuItem burger = new MenuItem("Monster Burger", 10.00, "Main",
+        Arrays.asList("beef patty", "beef patty", "cheese", "cheese", "bun"));
+    MenuItem poutine = new MenuItem("Poutine", 4.00, "Appetizer",
+        Arrays.asList("fries", "cheese", "gravy"));
+    menu.addFoodMenu(burger);
+    menu.addFoodMenu(poutine);
+    Server.resetTotalBills();
+
+    List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+    AtomicLong expectedCents = new AtomicLong();
+    AtomicInteger unseen = new AtomicInteger();
+    AtomicInteger wasted = new AtomicInteger(); // orders handed to a Cook with nothing left to do
+    CountDownLatch start = new CountDownLatch(1);
+    CountDownLatch served = new CountDownLatch(numTerminals);
+    List<Table> tables = new ArrayList<>();
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < numTerminals; i++) {
+      Server server = new Server(String.valueOf(i + 1), kitchen, menu);
+      Table table = new Table(i + 1);
+      tables.add(table);
+      threads.add(new Thread(() -> {
+        try {
+          start.await();
+          for (int round = 0; round < numRounds; round++) {
+            server.fillTable(table, "1", "2");
+            server.recordFoodOrder(table, server.createFoodItem(burger), "Bill 1");
+            server.recordFoodOrder(table, server.createFoodItem(poutine), "Bill 1");
+            server.placeOrder(table);
+            Order order = server.getAssignedOrders().get(0);
+            while (!order.isFilled()) {
+              LockSupport.parkNanos(50000);
+            }
+            if (order.getStateTime(OrderState.SEEN) == 0) {
+              unseen.incrementAndGet();
+            }
+            server.deliverOrder(order.getId(), table);
+            server.confirmOrder(order.getId(), table);
+            expectedCents.addAndGet(table.getAmountDueCents("Bill 1"));
+            server.clearTable(table);
+          }
+        } catch (Throwable t) {
+          failures.add(t);
+        } finally {
+          served.countDown();
+        }
+      }));
+    }
+    for (String id : new String[] {"Main 1", "Main 2", "Appetizer 1", "Appetizer 2"}) {
+      Cook cook = new Cook(id, id.substring(0, id.indexOf(' ')), kitchen);
+      threads.add(new Thread(() -> {
+        try {
+          start.await();
+          while (served.getCount() > 0) {
+            for (Order order : kitchen.getOrderList()) {
+              if (!cook.hasSeen(order)) {
+                cook.hasSeenOrder(order);
+              }
+            }
+            Order order = cook.awaitOrderToPrepare(1);
+            if (order != null && cook.hasSeen(order)) {
+              if (!cook.prepFood(order).contains(cook + " prepared ")) {
+                wasted.incrementAndGet();
+              }
+            } else if (order != null) {
+              cook.releaseOrder(order);
+            }
+          }
+        } catch (Throwable t) {
+          failures.add(t);
+        }
+      }));
+    }
+    threads.add(new Thread(() -> {
+      try {
+        start.await();
+        while (served.getCount() > 0) {
+          for (Table table : tables) {
+            synchronized (table) {
+              if (table.orders.containsKey("Bill 1")) {
+                table.getBill("Bill 1");
+              }
+            }
+            table.getReceipts();
+          }
+        }
+      } catch (Throwable t) {
+        failures.add(t);
+      }
+    }));
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    long startTime = System.nanoTime();
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    long elapsed = System.nanoTime() - startTime;
+
+    if (!failures.isEmpty()) {
+      return "FAIL: " + failures.size() + " threads threw, the first " + failures.get(0);
+    }
+    if (!kitchen.getOrderList().isEmpty()) {
+      return "FAIL: " + kitchen.getOrderList().size() + " orders were left in the kitchen";
+    }
+    if (unseen.get() > 0) {
+      return "FAIL: " + unseen.get() + " orders were filled without being seen";
+    }
+    if (wasted.get() > 0) {
+      return "FAIL: " + wasted.get() + " orders were handed to a Cook after they were prepared";
+    }
+    long revenue = Server.getTotalCents();
+    if (revenue != expectedCents.get()) {
+      return String.format("FAIL: revenue is %d cents, expected %d", revenue, expectedCents.get());
+    }
+    for (int i = 0; i < ingredients.length; i++) {
+      int quantity = kitchen.getQuantity(ingredients[i]);
+      if (quantity != STOCK) {
+        return String.format("FAIL: %s has %d left, expected %d", ingredients[i], quantity, STOCK);
+      }
+    }
+    return String.format("PASS: %d terminals served %d orders in %d ms (%.0f orders/s), "
+            + "revenue and stock add up", numTerminals, numOrders, elapsed / 1000000,
+        numOrders * 1e9 / elapsed);
+  }
+}
@@ -5,8 +5,14 @@ import java.io.Serializable;
 /**
  * A class that represents Table of restaurant. A Table Object contains table number, list of orders
  * and list of food to order.
+ *
+ * <p>A Table is its own lock: its bills, orders and customers are only read or changed while
+ * holding it. The methods here take it themselves, and a Server takes it for the whole of an
+ * action on the table, so two terminals working the same table take turns while different tables
+ * are served at the same time.
  */
 public class Table implements Serializable {
+  private static final String NEWLINE = System.lineSeparator();
 
   private int tableNum;
   protected HashMap<String, ArrayList<Order>> orders;
@@ -33,7 +39,7 @@ public class Table implements Serializable {
    *
    * @param numBills the number of paying customers
    */
-  String setCustomers(String numBills, String numCustomers) {
+  synchronized String setCustomers(String numBills, String numCustomers) {
     int i;
     for (i = 1; i <= Integer.parseInt(numBills); i++) {
       foodsToOrder.put("Bill " + i, new ArrayList<>());
@@ -61,7 +67,7 @@ public class Table implements Serializable {
    *
    * @param order order object involved
    */
-  void addOrder(Order order) {
+  synchronized void addOrder(Order order) {
     if (!this.orders.get(order.billId).contains(order)) {
       this.orders.get(order.billId).add(order);
     }
@@ -72,7 +78,7 @@ public class Table implements Serializable {
    *
    * @param food food object involved
    */
-  void addFoodOrder(Food food, String customerId) {
+  synchronized void addFoodOrder(Food food, String customerId) {
     foodsToOrder.get(customerId).add(food);
   }
 
@@ -81,7 +87,7 @@ public class Table implements Serializable {
    *
    * @return list of foods
    */
-  ArrayList<Food> getFoodsToOrder() {
+  synchronized ArrayList<Food> getFoodsToOrder() {
     ArrayList<Food> allFoods = new ArrayList<>();
     for (ArrayList<Food> foods : this.foodsToOrder.values()) {
       allFoods.addAll(foods);
@@ -92,7 +98,7 @@ public class Table implements Serializable {
   /**
    * Sets it to default.
    */
-  void clearFoodsToOrder() {
+  synchronized void clearFoodsToOrder() {
     this.foodsToOrder = new HashMap<>();
   }
 
@@ -101,27 +107,48 @@ public class Table implements Serializable {
    *
    * @return total price of the orders
    */
-  double getBill(String customerId) {
-    double total = 0.0;
+  synchronized double getBill(String customerId) {
+    return Money.toDouble(getBillCents(customerId));
+  }
+
+  /**
+   * Get the bill in cents: the confirmed orders of the bill, with tax. Each order keeps its own
+   * total, so only the orders are added up, and tax is rounded once for the whole bill.
+   *
+   * @param customerId the bill, such as "Bill 1"
+   * @return total price of the confirmed orders with tax, in cents
+   */
+  synchronized long getBillCents(String customerId) {
+    long total = 0;
     for (Order order : orders.get(customerId)) {
       if (order.isConfirmed()) {
-        total += order.getBill();
+        total += order.getBillCents();
       }
     }
-    return total * 1.13; //TODO: Print out each foodname and its price and total price, etc
+    return Money.TAX.apply(total);
+  }
+
+  /**
+   * Get the amount paid for a bill when the table is cleared: the bill with gratuity.
+   *
+   * @param customerId the bill, such as "Bill 1"
+   * @return the amount paid, in cents
+   */
+  synchronized long getAmountDueCents(String customerId) {
+    return Money.GRATUITY.apply(getBillCents(customerId));
   }
 
   /**
    * Clears the table, sets order list and food to order list to default.
    */
-  void clearOrders() {
+  synchronized void clearOrders() {
     orders = new HashMap<>();
   }
 
   /**
    * @return true if there's pending requests
    */
-  boolean hasRequests() {
+  synchronized boolean hasRequests() {
     ArrayList<Food> totalList = new ArrayList<>();
     for (ArrayList<Food> list : this.foodsToOrder.values()) {
       totalList.addAll(list);
@@ -134,11 +161,11 @@ public class Table implements Serializable {
    *
    * @param order to be deleted
    */
-  void removeOrder(Order order) {
+  synchronized void removeOrder(Order order) {
     this.orders.get(order.billId).remove(order);
   }
 
-  ArrayList<String> getPayingCustomersList() {
+  synchronized ArrayList<String> getPayingCustomersList() {
     ArrayList<String> customerList = new ArrayList<>(orders.keySet());
     return customerList;
   }
@@ -147,21 +174,21 @@ public class Table implements Serializable {
     return "Table " + getTableNum();
   }
 
-  public String getReceipts() {
+  public synchronized String getReceipts() {
     StringBuilder bill = new StringBuilder();
     if (this.numCustomers >= 8) {
-      bill.append("(Gratuity Tip been added)").append(String.format("%n")).append(String.format("%n"));
+      bill.append("(Gratuity Tip been added)").append(NEWLINE).append(NEWLINE);
     }
     for (String payment : this.orders.keySet()) {
-      bill.append(payment).append(String.format("%n"));
-      double totalFoodPrice = 0;
+      bill.append(payment).append(NEWLINE);
+      long totalFoodPrice = 0;
       for (Order order : this.orders.get(payment)) {
         for (Food food : order.getFoods()) {
-          bill.append(food).append(" ---- ").append(food.getPrice()).append(String.format("%n"));
-          totalFoodPrice += food.getPrice();
+          Money.append(bill.append(food).append(" ---- "), food.getPriceCents()).append(NEWLINE);
         }
+        totalFoodPrice += order.getBillCents();
       }
-      bill.append("Total: ").append(totalFoodPrice).append(String.format("%n")).append(String.format("%n"));
+      Money.append(bill.append("Total: "), totalFoodPrice).append(NEWLINE).append(NEWLINE);
     }
     return String.valueOf(bill);
   }